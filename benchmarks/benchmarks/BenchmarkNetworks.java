@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.classes.CaseFrame;
+import sneps.network.classes.Relation;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.Wire;
+import sneps.snebr.Controller;
+
+/**
+ * Builds the networks the benchmarks run against. Every method starts from an
+ * empty Network and SNeBR, with the default relations, semantics and case
+ * frames defined.
+ */
+public class BenchmarkNetworks {
+	public static final String SEMANTIC_TYPE = "Proposition";
+
+	public static Relation member, wrapper;
+	public static CaseFrame memberFrame, wrapperFrame;
+
+	public static void reset() {
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+		Network.defineDefaults();
+		member = Network.defineRelation("bench-member", SEMANTIC_TYPE);
+		wrapper = Network.defineRelation("bench-wrapper", SEMANTIC_TYPE);
+		LinkedList<Relation> relations = new LinkedList<Relation>();
+		relations.add(member);
+		memberFrame = Network.defineCaseFrame(SEMANTIC_TYPE, relations);
+		relations = new LinkedList<Relation>();
+		relations.add(wrapper);
+		wrapperFrame = Network.defineCaseFrame(SEMANTIC_TYPE, relations);
+	}
+
+	/**
+	 * Builds size base nodes.
+	 */
+	public static ArrayList<Node> baseNodes(int size) throws Exception {
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		for (int i = 0; i < size; i++)
+			nodes.add(Network.buildBaseNode("b" + i, new Semantic(SEMANTIC_TYPE)));
+		return nodes;
+	}
+
+	/**
+	 * Builds a proposition (bench-member b) for each base node b.
+	 */
+	public static ArrayList<PropositionNode> propositions(ArrayList<Node> baseNodes) throws Exception {
+		ArrayList<PropositionNode> propositions = new ArrayList<PropositionNode>();
+		for (Node base : baseNodes) {
+			ArrayList<Wire> wires = new ArrayList<Wire>();
+			wires.add(new Wire(member, base));
+			propositions.add((PropositionNode) Network.buildMolecularNode(wires, memberFrame));
+		}
+		return propositions;
+	}
+
+	/**
+	 * Builds a chain of length nodes, each one pointing to the previous one by
+	 * bench-member, starting from a single base node.
+	 *
+	 * @return the nodes of the chain, the base node first.
+	 */
+	public static ArrayList<Node> memberChain(int length) throws Exception {
+		ArrayList<Node> chain = new ArrayList<Node>();
+		chain.add(Network.buildBaseNode("chain", new Semantic(SEMANTIC_TYPE)));
+		for (int i = 0; i < length; i++) {
+			ArrayList<Wire> wires = new ArrayList<Wire>();
+			wires.add(new Wire(member, chain.get(i)));
+			chain.add(Network.buildMolecularNode(wires, memberFrame));
+		}
+		return chain;
+	}
+
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sneps.network.KnowledgeBaseGenerator;
+import sneps.network.KnowledgeBaseGenerator.RuleType;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceResult;
+
+/**
+ * Benchmarks of backward and forward inference over a generated chain of rules
+ * of a single type, each rule having a single antecedent. The rules and the
+ * first proposition of the chain are the hyps, so the query at the end of the
+ * chain is derived through every rule.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class InferenceBenchmark {
+	@Param({ "5", "20", "80" })
+	public int depth;
+
+	@Param({ "AND_ENTAILMENT", "OR", "THRESH", "ANDOR" })
+	public RuleType ruleType;
+
+	private KnowledgeBaseGenerator generator;
+
+	@Setup(Level.Invocation)
+	public void setUp() throws Throwable {
+		BenchmarkNetworks.reset();
+		generator = new KnowledgeBaseGenerator(depth);
+		generator.setChains(1);
+		generator.setChainDepth(depth);
+		generator.setFanOut(1);
+		generator.setRuleTypes(ruleType);
+		generator.setAssertRules(true);
+		generator.generate();
+	}
+
+	@Benchmark
+	public InferenceResult deduce() {
+		return generator.getQueries().get(0).deduce(new InferenceBudget());
+	}
+
+	@Benchmark
+	public void add() {
+		generator.getFacts().get(0).add();
+	}
+
+}
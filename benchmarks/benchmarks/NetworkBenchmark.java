@@ -0,0 +1,140 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sneps.network.BulkLoader;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.classes.Wire;
+import sneps.network.classes.setClasses.NodeSet;
+import sneps.network.paths.ComposePath;
+import sneps.network.paths.FUnitPath;
+import sneps.network.paths.KStarPath;
+import sneps.network.paths.Path;
+import sneps.snebr.Controller;
+
+/**
+ * Benchmarks of building, querying, saving and loading the Network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NetworkBenchmark {
+
+	@State(Scope.Thread)
+	public static class BuildState {
+		@Param({ "100", "1000", "10000" })
+		public int size;
+
+		public ArrayList<Node> baseNodes;
+
+		@Setup(Level.Invocation)
+		public void setUp() throws Exception {
+			BenchmarkNetworks.reset();
+			baseNodes = BenchmarkNetworks.baseNodes(size);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ChainState {
+		@Param({ "10", "100", "1000" })
+		public int length;
+
+		public Object[][] composeQuery;
+		public Object[][] kStarQuery;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			BenchmarkNetworks.reset();
+			ArrayList<Node> chain = BenchmarkNetworks.memberChain(length);
+			NodeSet base = new NodeSet();
+			base.addNode(chain.get(0));
+			LinkedList<Path> paths = new LinkedList<Path>();
+			paths.add(new FUnitPath(BenchmarkNetworks.member));
+			paths.add(new FUnitPath(BenchmarkNetworks.member));
+			composeQuery = new Object[][] { { new ComposePath(paths), base } };
+			kStarQuery = new Object[][] { { new KStarPath(new FUnitPath(BenchmarkNetworks.member)), base } };
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SaveState {
+		@Param({ "100", "1000", "10000" })
+		public int size;
+
+		public File directory;
+		public String[] files;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			BenchmarkNetworks.reset();
+			BenchmarkNetworks.propositions(BenchmarkNetworks.baseNodes(size));
+			directory = Files.createTempDirectory("sneps-bench").toFile();
+			files = new String[12];
+			for (int i = 0; i < files.length; i++)
+				files[i] = new File(directory, "network" + i).getPath();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			for (String file : files)
+				new File(file).delete();
+			directory.delete();
+		}
+	}
+
+	@Benchmark
+	public Node buildMolecularNodes(BuildState state) throws Exception {
+		return BenchmarkNetworks.propositions(state.baseNodes).get(state.size - 1);
+	}
+
+	@Benchmark
+	public int bulkLoadMolecularNodes(BuildState state) throws Throwable {
+		BulkLoader loader = new BulkLoader();
+		for (Node base : state.baseNodes) {
+			ArrayList<Wire> wires = new ArrayList<Wire>();
+			wires.add(new Wire(BenchmarkNetworks.member, base));
+			loader.add(wires, BenchmarkNetworks.memberFrame);
+		}
+		return loader.commit();
+	}
+
+	@Benchmark
+	public Object findComposePath(ChainState state) {
+		return Network.find(state.composeQuery, Controller.getCurrentContext());
+	}
+
+	@Benchmark
+	public Object findKStarPath(ChainState state) {
+		return Network.find(state.kStarQuery, Controller.getCurrentContext());
+	}
+
+	@Benchmark
+	public void saveAndLoad(SaveState state) throws IOException, ClassNotFoundException {
+		String[] f = state.files;
+		Network.save(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7], f[8], f[9], f[10], f[11]);
+		Network.load(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7], f[8], f[9], f[10], f[11]);
+	}
+
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sneps.network.PropositionNode;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Context;
+import sneps.snebr.Controller;
+
+/**
+ * Benchmarks of asserting hyps against a growing store of minimal nogoods, and
+ * of adding justification supports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SNeBRBenchmark {
+	private static final String CONTEXT = "bench";
+
+	@State(Scope.Thread)
+	public static class ContextState {
+		@Param({ "10", "1000", "100000" })
+		public int noGoods;
+
+		public ArrayList<PropositionNode> hyps;
+		public int next;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			BenchmarkNetworks.reset();
+			hyps = BenchmarkNetworks.propositions(BenchmarkNetworks.baseNodes(1000));
+			Random random = new Random(42);
+			for (int i = 0; i < noGoods; i++) {
+				BitSet noGood = new BitSet();
+				for (int j = 0; j < 4; j++)
+					noGood.set(hyps.get(random.nextInt(hyps.size())).getId());
+				Controller.getMinimalNoGoods().addMinimal(noGood);
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void newContext() throws Exception {
+			Controller.removeContext(CONTEXT);
+			Controller.createContext(CONTEXT);
+			next = (next + 1) % hyps.size();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SupportState {
+		@Param({ "10", "100", "1000" })
+		public int justifications;
+
+		public ArrayList<PropositionSet> supports;
+		public PropositionNode derived;
+
+		@Setup(Level.Invocation)
+		public void setUp() throws Exception {
+			BenchmarkNetworks.reset();
+			ArrayList<PropositionNode> nodes = BenchmarkNetworks
+					.propositions(BenchmarkNetworks.baseNodes(justifications + 2));
+			derived = nodes.get(0);
+			supports = new ArrayList<PropositionSet>();
+			for (int i = 1; i <= justifications; i++) {
+				nodes.get(i).setHyp(true);
+				supports.add(new PropositionSet(new int[] { nodes.get(i).getId(), nodes.get(i + 1).getId() }));
+			}
+			nodes.get(justifications + 1).setHyp(true);
+		}
+	}
+
+	@Benchmark
+	public Context addPropToContext(ContextState state) throws Throwable {
+		return Controller.addPropToContext(CONTEXT, state.hyps.get(state.next).getId());
+	}
+
+	@Benchmark
+	public PropositionNode addJustificationBasedSupport(SupportState state) throws Exception {
+		for (PropositionSet support : state.supports)
+			state.derived.addJustificationBasedSupport(support);
+		return state.derived;
+	}
+
+}
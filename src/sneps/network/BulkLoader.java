@@ -0,0 +1,248 @@
+package sneps.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Hashtable;
+
+import sneps.exceptions.CannotBuildNodeException;
+import sneps.exceptions.CaseFrameMissMatchException;
+import sneps.exceptions.ContextNameDoesntExistException;
+import sneps.exceptions.ContradictionFoundException;
+import sneps.exceptions.DuplicatePropositionException;
+import sneps.exceptions.NodeNotFoundInNetworkException;
+import sneps.exceptions.NodeNotFoundInPropSetException;
+import sneps.exceptions.NotAPropositionNodeException;
+import sneps.network.cables.DownCable;
+import sneps.network.cables.UpCable;
+import sneps.network.classes.CaseFrame;
+import sneps.network.classes.Wire;
+import sneps.network.classes.setClasses.NodeSet;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.network.classes.term.Molecular;
+import sneps.snebr.Controller;
+
+/**
+ * Ingests batches of molecular node specifications into the Network, for loading
+ * large knowledge bases. Building a node through Network.buildMolecularNode
+ * looks for an equivalent node with a path based find(), adds it to the up
+ * cables of the nodes it dominates and to the node sets of the Network, each
+ * of these checking the whole set for membership first, and asserting it
+ * checks for contradictions on its own. A BulkLoader instead:
+ * <ul>
+ * <li>detects duplicates by hashing the down cable sets, the existing
+ * molecular nodes being hashed once when the batch starts,</li>
+ * <li>creates only the nodes that are not duplicates, so their ids are
+ * dense,</li>
+ * <li>defers the up cables and the indices of the Network to commit(), where
+ * the nodes are appended to every node set in a single pass,</li>
+ * <li>asserts the hyps of the batch with a single context update.</li>
+ * </ul>
+ *
+ * Until commit() or abort() is called, molecular nodes are to be built through
+ * this loader only, base and variable nodes can still be built through the
+ * Network. The nodes of the batch have their ids from the start, but can only
+ * be found by identifier once committed.
+ *
+ * Duplicates are detected on identical down cable sets and case frames,
+ * equivalence between nodes binding different variables is not detected.
+ */
+public class BulkLoader {
+	private Hashtable<String, Node> downCableSets;
+	private ArrayList<Node> built;
+	private ArrayList<PropositionNode> hyps;
+	private int duplicates;
+	private boolean open;
+	private int firstId;
+	private int molCount;
+	private int patternCount;
+
+	/**
+	 * Starts a batch, hashing the down cable sets of the molecular nodes of the
+	 * Network.
+	 */
+	public BulkLoader() {
+		downCableSets = new Hashtable<String, Node>();
+		built = new ArrayList<Node>();
+		hyps = new ArrayList<PropositionNode>();
+		for (NodeSet caseFrameNodes : Network.getMolecularNodes().values())
+			for (Node node : caseFrameNodes)
+				downCableSets.put(keyOf((Molecular) node.getTerm()), node);
+		firstId = Node.getCount();
+		molCount = Network.getMolCounter();
+		patternCount = Network.getPatternCounter();
+		open = true;
+	}
+
+	/**
+	 * Adds a molecular node to the batch.
+	 *
+	 * @param wires     the down cable set specifications of the node.
+	 * @param caseFrame the case frame implemented by the node.
+	 * @return the new node, or the node of the Network or of the batch having the
+	 *         same down cable set.
+	 * @throws CannotBuildNodeException    if the relation node pairs are not valid
+	 * @throws CaseFrameMissMatchException if the wires do not follow the case
+	 *                                     frame
+	 */
+	public Node add(ArrayList<Wire> wires, CaseFrame caseFrame)
+			throws CannotBuildNodeException, CaseFrameMissMatchException {
+		if (!open)
+			throw new IllegalStateException("The batch was already committed or aborted");
+		String key = keyOf(wires, caseFrame);
+		Node existing = downCableSets.get(key);
+		if (existing != null) {
+			duplicates++;
+			return existing;
+		}
+		Node node = Network.createMolecularNode(wires, caseFrame);
+		downCableSets.put(key, node);
+		built.add(node);
+		return node;
+	}
+
+	/**
+	 * Adds a molecular proposition node to the batch, to be asserted as a hyp in
+	 * the current context on commit().
+	 *
+	 * @return the proposition node
+	 * @throws NotAPropositionNodeException if the case frame does not build
+	 *                                      propositions
+	 */
+	public PropositionNode addHyp(ArrayList<Wire> wires, CaseFrame caseFrame)
+			throws CannotBuildNodeException, CaseFrameMissMatchException, NotAPropositionNodeException {
+		Node node = add(wires, caseFrame);
+		if (!(node instanceof PropositionNode))
+			throw new NotAPropositionNodeException();
+		hyps.add((PropositionNode) node);
+		return (PropositionNode) node;
+	}
+
+	/**
+	 * Ends the batch: adds the new nodes to the up cables of the nodes they
+	 * dominate and to the indices of the Network, then asserts the hyps of the
+	 * batch in the current context.
+	 *
+	 * @return the number of nodes built
+	 */
+	public int commit() throws NotAPropositionNodeException, NodeNotFoundInNetworkException,
+			ContextNameDoesntExistException, ContradictionFoundException, DuplicatePropositionException,
+			NodeNotFoundInPropSetException {
+		close();
+		buildUpCables();
+		Network.indexMolecularNodes(built);
+		if (!hyps.isEmpty()) {
+			int[] ids = new int[hyps.size()];
+			for (int i = 0; i < ids.length; i++)
+				ids[i] = hyps.get(i).getId();
+			Controller.addPropsToCurrentContext(new PropositionSet(ids));
+		}
+		return built.size();
+	}
+
+	/**
+	 * Ends the batch, dropping the nodes it built. Unless other nodes were built
+	 * in the meantime, their ids and names are given to the nodes built next.
+	 */
+	public void abort() {
+		close();
+		Network.discardMolecularNodes(built, firstId, molCount, patternCount);
+	}
+
+	private void close() {
+		if (!open)
+			throw new IllegalStateException("The batch was already committed or aborted");
+		open = false;
+		downCableSets = null;
+	}
+
+	/**
+	 * Groups the new nodes by the up cable they belong to, so that each up cable
+	 * is extended once.
+	 */
+	private void buildUpCables() {
+		Hashtable<UpCable, ArrayList<Node>> parents = new Hashtable<UpCable, ArrayList<Node>>();
+		for (Node node : built) {
+			Enumeration<DownCable> dCables = ((Molecular) node.getTerm()).getDownCableSet().getDownCables().elements();
+			while (dCables.hasMoreElements()) {
+				DownCable dCable = dCables.nextElement();
+				for (Node child : dCable.getNodeSet()) {
+					if (!child.getUpCableSet().contains(dCable.getRelation()))
+						child.getUpCableSet().addUpCable(new UpCable(dCable.getRelation()));
+					UpCable upCable = child.getUpCableSet().getUpCable(dCable.getRelation().getName());
+					ArrayList<Node> cableParents = parents.get(upCable);
+					if (cableParents == null) {
+						cableParents = new ArrayList<Node>();
+						parents.put(upCable, cableParents);
+					}
+					cableParents.add(node);
+				}
+			}
+		}
+		for (UpCable upCable : parents.keySet())
+			upCable.getNodeSet().addNewNodes(parents.get(upCable));
+	}
+
+	private static String keyOf(Molecular molecular) {
+		Hashtable<String, DownCable> dCables = molecular.getDownCableSet().getDownCables();
+		String[] cables = new String[dCables.size()];
+		int i = 0;
+		for (DownCable dCable : dCables.values()) {
+			NodeSet ns = dCable.getNodeSet();
+			int[] ids = new int[ns.size()];
+			for (int j = 0; j < ids.length; j++)
+				ids[j] = ns.getNode(j).getId();
+			cables[i++] = cableKey(dCable.getRelation().getName(), ids);
+		}
+		return key(molecular.getDownCableSet().getCaseFrame(), cables);
+	}
+
+	private static String keyOf(ArrayList<Wire> wires, CaseFrame caseFrame) {
+		Hashtable<String, ArrayList<Integer>> relationNodes = new Hashtable<String, ArrayList<Integer>>();
+		for (Wire wire : wires) {
+			ArrayList<Integer> ids = relationNodes.get(wire.getWireRelation().getName());
+			if (ids == null) {
+				ids = new ArrayList<Integer>();
+				relationNodes.put(wire.getWireRelation().getName(), ids);
+			}
+			if (!ids.contains(wire.getWireNode().getId()))
+				ids.add(wire.getWireNode().getId());
+		}
+		String[] cables = new String[relationNodes.size()];
+		int i = 0;
+		for (String relation : relationNodes.keySet()) {
+			ArrayList<Integer> ids = relationNodes.get(relation);
+			int[] sorted = new int[ids.size()];
+			for (int j = 0; j < sorted.length; j++)
+				sorted[j] = ids.get(j);
+			cables[i++] = cableKey(relation, sorted);
+		}
+		return key(caseFrame, cables);
+	}
+
+	private static String cableKey(String relation, int[] ids) {
+		Arrays.sort(ids);
+		return relation + ":" + Arrays.toString(ids);
+	}
+
+	private static String key(CaseFrame caseFrame, String[] cables) {
+		Arrays.sort(cables);
+		return caseFrame.getId() + Arrays.toString(cables);
+	}
+
+	/**
+	 * @return the number of nodes of the batch that had the down cable set of a
+	 *         node of the Network or of the batch
+	 */
+	public int getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return the nodes built by the batch so far, in ascending order of their ids
+	 */
+	public ArrayList<Node> getBuiltNodes() {
+		return built;
+	}
+
+}
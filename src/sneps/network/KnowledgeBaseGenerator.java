@@ -0,0 +1,382 @@
+package sneps.network;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Random;
+
+import sneps.exceptions.CannotBuildNodeException;
+import sneps.exceptions.CaseFrameMissMatchException;
+import sneps.exceptions.ContextNameDoesntExistException;
+import sneps.exceptions.ContradictionFoundException;
+import sneps.exceptions.DuplicatePropositionException;
+import sneps.exceptions.EquivalentNodeException;
+import sneps.exceptions.IllegalIdentifierException;
+import sneps.exceptions.NodeNotFoundInNetworkException;
+import sneps.exceptions.NodeNotFoundInPropSetException;
+import sneps.exceptions.NotAPropositionNodeException;
+import sneps.exceptions.SemanticNotFoundInNetworkException;
+import sneps.network.classes.CaseFrame;
+import sneps.network.classes.Relation;
+import sneps.network.classes.RelationsRestrictedCaseFrame;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.Wire;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
+
+/**
+ * Builds reproducible synthetic knowledge bases directly in the Network, for
+ * load and scale testing. The same seed and settings always build the same
+ * nodes with the same identifiers, provided the Network starts from the same
+ * state.
+ *
+ * The knowledge base is made of chains of rules: every rule of a chain has the
+ * consequent of the previous rule among its antecedents, along with fresh facts
+ * that are asserted in the current context. The consequent of the last rule of
+ * each chain is a query that can only be answered by inference through the
+ * whole chain. The propositions of a chain may share a variable, in which case
+ * the facts asserted are ground instances of the antecedent patterns. The
+ * rules are asserted along with the facts, rule nodes being applied only when
+ * asserted. A fraction of the facts is also negated, the negations are built
+ * but left for the caller to assert.
+ */
+public class KnowledgeBaseGenerator {
+
+	public enum RuleType {
+		AND_ENTAILMENT, OR, THRESH, ANDOR
+	}
+
+	private long seed = 0;
+	private int individuals = 100;
+	private int caseFrames = 4;
+	private int relationsPerCaseFrame = 2;
+	private RuleType[] ruleTypes = RuleType.values();
+	private int chains = 10;
+	private int chainDepth = 5;
+	private int fanOut = 2;
+	private double variableSharing = 0;
+	private double contradictionDensity = 0;
+	private boolean assertFacts = true;
+	private boolean assertRules = true;
+
+	private Random random;
+	private ArrayList<Node> individualNodes;
+	private ArrayList<CaseFrame> frames;
+	private ArrayList<Relation[]> frameRelations;
+	private ArrayList<PropositionNode> facts;
+	private ArrayList<Node> rules;
+	private ArrayList<PropositionNode> queries;
+	private ArrayList<PropositionNode> negations;
+
+	public KnowledgeBaseGenerator() {
+	}
+
+	public KnowledgeBaseGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Builds the knowledge base in the Network, which is expected to have its
+	 * default relations, semantics and case frames defined, and asserts the facts
+	 * and the rules in the current context unless told otherwise.
+	 */
+	public void generate() throws NotAPropositionNodeException, NodeNotFoundInNetworkException,
+			IllegalIdentifierException, CannotBuildNodeException, EquivalentNodeException,
+			CaseFrameMissMatchException, SemanticNotFoundInNetworkException, ContextNameDoesntExistException,
+			ContradictionFoundException, DuplicatePropositionException, NodeNotFoundInPropSetException {
+		random = new Random(seed);
+		individualNodes = new ArrayList<Node>();
+		frames = new ArrayList<CaseFrame>();
+		frameRelations = new ArrayList<Relation[]>();
+		facts = new ArrayList<PropositionNode>();
+		rules = new ArrayList<Node>();
+		queries = new ArrayList<PropositionNode>();
+		negations = new ArrayList<PropositionNode>();
+
+		for (int i = 0; i < individuals; i++)
+			individualNodes.add(Network.buildBaseNode("gen-" + seed + "-i" + i, Semantic.individual));
+		for (int f = 0; f < caseFrames; f++) {
+			Relation[] relations = new Relation[relationsPerCaseFrame];
+			LinkedList<Relation> relationSet = new LinkedList<Relation>();
+			for (int r = 0; r < relationsPerCaseFrame; r++) {
+				relations[r] = Network.defineRelation("gen-" + seed + "-f" + f + "-r" + r, "Individual");
+				relationSet.add(relations[r]);
+			}
+			frames.add(Network.defineCaseFrame("Proposition", relationSet));
+			frameRelations.add(relations);
+		}
+
+		for (int c = 0; c < chains; c++)
+			buildChain();
+
+		for (PropositionNode fact : facts)
+			if (random.nextDouble() < contradictionDensity)
+				negations.add(buildAndOr(new Node[] { fact }, 0, 0));
+
+		ArrayList<Node> asserted = new ArrayList<Node>();
+		if (assertFacts)
+			asserted.addAll(facts);
+		if (assertRules)
+			asserted.addAll(rules);
+		if (!asserted.isEmpty()) {
+			int[] ids = new int[asserted.size()];
+			for (int i = 0; i < ids.length; i++)
+				ids[i] = asserted.get(i).getId();
+			Controller.addPropsToCurrentContext(new PropositionSet(ids));
+		}
+	}
+
+	private void buildChain() throws NotAPropositionNodeException, NodeNotFoundInNetworkException,
+			IllegalIdentifierException, CannotBuildNodeException, EquivalentNodeException,
+			CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
+		VariableNode variable = random.nextDouble() < variableSharing
+				? Network.buildVariableNode(Semantic.individual)
+				: null;
+		Node instance = randomIndividual();
+
+		Pattern previous = randomProposition(variable);
+		addFact(previous, instance);
+		for (int d = 0; d < chainDepth; d++) {
+			Node[] antecedents = new Node[fanOut];
+			antecedents[0] = buildProposition(previous);
+			for (int a = 1; a < fanOut; a++) {
+				Pattern fresh = randomProposition(variable);
+				antecedents[a] = buildProposition(fresh);
+				addFact(fresh, instance);
+			}
+			previous = randomProposition(variable);
+			rules.add(buildRule(ruleTypes[random.nextInt(ruleTypes.length)], antecedents, buildProposition(previous)));
+		}
+		queries.add((PropositionNode) buildProposition(previous));
+	}
+
+	/**
+	 * A case frame index and the nodes filling its relations.
+	 */
+	private static class Pattern {
+		int frame;
+		Node[] fillers;
+
+		Pattern(int frame, Node[] fillers) {
+			this.frame = frame;
+			this.fillers = fillers;
+		}
+	}
+
+	/**
+	 * Picks a case frame and the nodes filling its relations. The variable, if
+	 * any, fills the first relation.
+	 */
+	private Pattern randomProposition(VariableNode variable) {
+		Node[] fillers = new Node[relationsPerCaseFrame];
+		int frame = random.nextInt(frames.size());
+		for (int r = 0; r < relationsPerCaseFrame; r++)
+			fillers[r] = r == 0 && variable != null ? variable : randomIndividual();
+		return new Pattern(frame, fillers);
+	}
+
+	private Node randomIndividual() {
+		return individualNodes.get(random.nextInt(individualNodes.size()));
+	}
+
+	private Node buildProposition(Pattern pattern) throws CannotBuildNodeException, EquivalentNodeException,
+			NotAPropositionNodeException, NodeNotFoundInNetworkException, CaseFrameMissMatchException,
+			SemanticNotFoundInNetworkException {
+		Relation[] relations = frameRelations.get(pattern.frame);
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		for (int r = 0; r < relations.length; r++)
+			wires.add(new Wire(relations[r], pattern.fillers[r]));
+		return Network.buildMolecularNode(wires, frames.get(pattern.frame));
+	}
+
+	/**
+	 * Adds the fact described, replacing its variable, if any, by instance.
+	 */
+	private void addFact(Pattern pattern, Node instance) throws CannotBuildNodeException,
+			EquivalentNodeException, NotAPropositionNodeException, NodeNotFoundInNetworkException,
+			CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
+		Node[] fillers = pattern.fillers.clone();
+		if (fillers[0] instanceof VariableNode)
+			fillers[0] = instance;
+		facts.add((PropositionNode) buildProposition(new Pattern(pattern.frame, fillers)));
+	}
+
+	private Node buildRule(RuleType type, Node[] antecedents, Node consequent) throws NotAPropositionNodeException,
+			NodeNotFoundInNetworkException, IllegalIdentifierException, CannotBuildNodeException,
+			EquivalentNodeException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		switch (type) {
+		case AND_ENTAILMENT:
+			for (Node antecedent : antecedents)
+				wires.add(new Wire(Relation.andAnt, antecedent));
+			wires.add(new Wire(Relation.cq, consequent));
+			return Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andRule);
+		case OR:
+			for (Node antecedent : antecedents)
+				wires.add(new Wire(Relation.ant, antecedent));
+			wires.add(new Wire(Relation.cq, consequent));
+			return Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.orRule);
+		case THRESH:
+			for (Node antecedent : antecedents)
+				wires.add(new Wire(Relation.arg, antecedent));
+			wires.add(new Wire(Relation.arg, consequent));
+			wires.add(new Wire(Relation.thresh, number(1)));
+			wires.add(new Wire(Relation.threshMax, number(antecedents.length)));
+			return Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.threshRule);
+		default:
+			Node[] args = new Node[antecedents.length + 1];
+			System.arraycopy(antecedents, 0, args, 0, antecedents.length);
+			args[antecedents.length] = consequent;
+			return buildAndOr(args, args.length, args.length);
+		}
+	}
+
+	private PropositionNode buildAndOr(Node[] args, int min, int max) throws NotAPropositionNodeException,
+			NodeNotFoundInNetworkException, IllegalIdentifierException, CannotBuildNodeException,
+			EquivalentNodeException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		for (Node arg : args)
+			wires.add(new Wire(Relation.arg, arg));
+		wires.add(new Wire(Relation.min, number(min)));
+		wires.add(new Wire(Relation.max, number(max)));
+		return (PropositionNode) Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andOrRule);
+	}
+
+	private Node number(int n)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException, IllegalIdentifierException {
+		return Network.buildBaseNode(String.valueOf(n), Semantic.infimum);
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public int getIndividuals() {
+		return individuals;
+	}
+
+	public void setIndividuals(int individuals) {
+		this.individuals = individuals;
+	}
+
+	public int getCaseFrames() {
+		return caseFrames;
+	}
+
+	public void setCaseFrames(int caseFrames) {
+		this.caseFrames = caseFrames;
+	}
+
+	public int getRelationsPerCaseFrame() {
+		return relationsPerCaseFrame;
+	}
+
+	public void setRelationsPerCaseFrame(int relationsPerCaseFrame) {
+		this.relationsPerCaseFrame = relationsPerCaseFrame;
+	}
+
+	public RuleType[] getRuleTypes() {
+		return ruleTypes;
+	}
+
+	public void setRuleTypes(RuleType... ruleTypes) {
+		this.ruleTypes = ruleTypes;
+	}
+
+	public int getChains() {
+		return chains;
+	}
+
+	public void setChains(int chains) {
+		this.chains = chains;
+	}
+
+	public int getChainDepth() {
+		return chainDepth;
+	}
+
+	public void setChainDepth(int chainDepth) {
+		this.chainDepth = chainDepth;
+	}
+
+	public int getFanOut() {
+		return fanOut;
+	}
+
+	/**
+	 * @param fanOut number of antecedents of each rule, at least 1.
+	 */
+	public void setFanOut(int fanOut) {
+		this.fanOut = fanOut;
+	}
+
+	public double getVariableSharing() {
+		return variableSharing;
+	}
+
+	/**
+	 * @param variableSharing probability for a chain to have its propositions
+	 *                        share a variable.
+	 */
+	public void setVariableSharing(double variableSharing) {
+		this.variableSharing = variableSharing;
+	}
+
+	public double getContradictionDensity() {
+		return contradictionDensity;
+	}
+
+	/**
+	 * @param contradictionDensity probability for a fact to have its negation
+	 *                             built.
+	 */
+	public void setContradictionDensity(double contradictionDensity) {
+		this.contradictionDensity = contradictionDensity;
+	}
+
+	public boolean isAssertFacts() {
+		return assertFacts;
+	}
+
+	public void setAssertFacts(boolean assertFacts) {
+		this.assertFacts = assertFacts;
+	}
+
+	public boolean isAssertRules() {
+		return assertRules;
+	}
+
+	public void setAssertRules(boolean assertRules) {
+		this.assertRules = assertRules;
+	}
+
+	public ArrayList<Node> getIndividualNodes() {
+		return individualNodes;
+	}
+
+	public ArrayList<PropositionNode> getFacts() {
+		return facts;
+	}
+
+	public ArrayList<Node> getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return the consequent of the last rule of each chain.
+	 */
+	public ArrayList<PropositionNode> getQueries() {
+		return queries;
+	}
+
+	/**
+	 * @return the negations of some of the facts, which are not asserted.
+	 */
+	public ArrayList<PropositionNode> getNegations() {
+		return negations;
+	}
+
+}
@@ -42,6 +42,9 @@ import sneps.network.paths.FUnitPath;
 import sneps.network.paths.Path;
 import sneps.snebr.Context;
 import sneps.snebr.Controller;
+import sneps.snebr.SupportIndex;
+import sneps.snip.AnswerCache;
+import sneps.snip.rete.ReteNetwork;
 import sneps.snip.rules.AndEntailment;
 import sneps.snip.rules.AndOrNode;
 import sneps.snip.rules.DoIfNode;
@@ -427,6 +430,16 @@ public class Network implements Serializable {
 	 */
 	public static void removeNode(Node node) throws NodeCannotBeRemovedException, NodeNotFoundInPropSetException,
 			NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		NetworkEvents.RemoveNode event = new NetworkEvents.RemoveNode();
+		event.begin();
+		removeNodeCore(node);
+		event.node = node.getIdentifier();
+		event.nodesLeft = nodes.size();
+		event.commit();
+	}
+
+	private static void removeNodeCore(Node node) throws NodeCannotBeRemovedException, NodeNotFoundInPropSetException,
+			NotAPropositionNodeException, NodeNotFoundInNetworkException {
 		// check if the node is not isolated
 		if (!node.getUpCableSet().isEmpty()) {
 			throw new NodeCannotBeRemovedException(
@@ -442,6 +455,9 @@ public class Network implements Serializable {
 
 		// remove node from all contexts
 		Controller.removePropositionFromAllContexts((PropositionNode) node);
+		ReteNetwork.nodeRemoved(node);
+		SupportIndex.nodeRemoved(node.getId());
+		AnswerCache.nodeRemoved(node);
 		// removing child nodes that are dominated by the removed node and has
 		// no other parents
 		if (node.getTerm().getClass().getSuperclass().getSimpleName().equals("Molecular")) {
@@ -621,6 +637,26 @@ public class Network implements Serializable {
 	 */
 	public static Node buildMolecularNode(ArrayList<Wire> wires, CaseFrame caseFrame) throws CannotBuildNodeException,
 			EquivalentNodeException, NotAPropositionNodeException, NodeNotFoundInNetworkException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
+		NetworkEvents.BuildMolecularNode event = new NetworkEvents.BuildMolecularNode();
+		event.begin();
+		int size = nodes.size();
+		Node node = buildMolecularNodeCore(wires, caseFrame);
+		commitBuildEvent(event, wires, caseFrame, size);
+		return node;
+	}
+
+	private static void commitBuildEvent(NetworkEvents.BuildMolecularNode event, ArrayList<Wire> wires,
+			CaseFrame caseFrame, int sizeBefore) {
+		if (!event.shouldCommit())
+			return;
+		event.wires = wires.size();
+		event.caseFrame = caseFrame.getId();
+		event.reused = nodes.size() == sizeBefore;
+		event.commit();
+	}
+
+	private static Node buildMolecularNodeCore(ArrayList<Wire> wires, CaseFrame caseFrame) throws CannotBuildNodeException,
+			EquivalentNodeException, NotAPropositionNodeException, NodeNotFoundInNetworkException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
 		Object[][] array = turnWiresIntoArray(wires);
 		// this node is either null, or an equivalent node to the one this method is tryin to build
 		// if an equivalent node is found, it is returned and no new node is built.
@@ -657,6 +693,8 @@ public class Network implements Serializable {
 			Molecular molecular = (Molecular) propNode.getTerm();
 			molecularNodes.get(molecular.getDownCableSet().getCaseFrame().getId()).addNode(propNode);
 			propNode.setBasicSupport();
+			ReteNetwork.nodeBuilt(propNode);
+			AnswerCache.nodeBuilt(propNode);
 			return propNode;
 		} else {
 			Node mNode;
@@ -678,6 +716,17 @@ public class Network implements Serializable {
 	public static Node buildMolecularNode(ArrayList<Wire> wires, RelationsRestrictedCaseFrame caseFrame)
 			throws CannotBuildNodeException, EquivalentNodeException, CaseFrameMissMatchException,
 			NotAPropositionNodeException, NodeNotFoundInNetworkException, SemanticNotFoundInNetworkException {
+		NetworkEvents.BuildMolecularNode event = new NetworkEvents.BuildMolecularNode();
+		event.begin();
+		int size = nodes.size();
+		Node node = buildMolecularNodeCore(wires, caseFrame);
+		commitBuildEvent(event, wires, caseFrame, size);
+		return node;
+	}
+
+	private static Node buildMolecularNodeCore(ArrayList<Wire> wires, RelationsRestrictedCaseFrame caseFrame)
+			throws CannotBuildNodeException, EquivalentNodeException, CaseFrameMissMatchException,
+			NotAPropositionNodeException, NodeNotFoundInNetworkException, SemanticNotFoundInNetworkException {
 		Object[][] array = turnWiresIntoArray(wires);
 		// this node is either null, or an equivalent node to the one this method is tryin to build
 		// if an equivalent node is found, it is returned and no new node is built.
@@ -715,6 +764,8 @@ public class Network implements Serializable {
 			Molecular molecular = (Molecular) propNode.getTerm();
 			molecularNodes.get(molecular.getDownCableSet().getCaseFrame().getId()).addNode(propNode);
 			propNode.setBasicSupport();
+			ReteNetwork.nodeBuilt(propNode);
+			AnswerCache.nodeBuilt(propNode);
 			return propNode;
 		} else {
 			Node mNode;
@@ -733,6 +784,115 @@ public class Network implements Serializable {
 		}
 	}
 
+	/**
+	 * Creates a molecular node the way buildMolecularNode does, but without
+	 * looking for an equivalent node or adding it to the up cables of the nodes
+	 * it dominates. The node is only added to the index by id, so that the ids
+	 * stay dense, its other indices are left to indexMolecularNodes. Used by
+	 * BulkLoader.
+	 *
+	 * @param wires     the down cable set specifications of the node.
+	 * @param caseFrame the case frame implemented by the node.
+	 *
+	 * @return the newly created node.
+	 */
+	static Node createMolecularNode(ArrayList<Wire> wires, CaseFrame caseFrame)
+			throws CannotBuildNodeException, CaseFrameMissMatchException {
+		Object[][] array = turnWiresIntoArray(wires);
+		if (!validRelNodePairs(array))
+			throw new CannotBuildNodeException("Cannot build the node .. the relation node pairs are not valid");
+		Object[][] relNodeSet = turnIntoRelNodeSet(array);
+		Node node;
+		if (caseFrame instanceof RelationsRestrictedCaseFrame) {
+			RelationsRestrictedCaseFrame rCaseFrame = (RelationsRestrictedCaseFrame) caseFrame;
+			if (!followingCaseFrame(relNodeSet, rCaseFrame))
+				throw new CaseFrameMissMatchException(
+						"Not following the case frame .. wrong node set size or wrong set of relations");
+			Node.setUpCablesDeferred(true);
+			try {
+				node = isToBePattern(array) ? createPatNode(relNodeSet, rCaseFrame) : createClosedNode(relNodeSet, rCaseFrame);
+			} finally {
+				Node.setUpCablesDeferred(false);
+			}
+		} else {
+			if (!followingCaseFrame(relNodeSet, caseFrame))
+				throw new CaseFrameMissMatchException(
+						"Not following the case frame .. wrong node set size or wrong set of relations");
+			Node.setUpCablesDeferred(true);
+			try {
+				node = isToBePattern(array) ? createPatNode(relNodeSet, caseFrame) : createClosedNode(relNodeSet, caseFrame);
+			} finally {
+				Node.setUpCablesDeferred(false);
+			}
+		}
+		nodesIndex.add(node.getId(), node);
+		return node;
+	}
+
+	/**
+	 * Adds molecular nodes created by createMolecularNode to the remaining
+	 * indices of the Network, the nodes of each case frame in a single append, and
+	 * sets up the proposition nodes among them as buildMolecularNode does.
+	 *
+	 * @param built distinct nodes, none of which is indexed yet.
+	 */
+	static void indexMolecularNodes(ArrayList<Node> built) throws NotAPropositionNodeException,
+			NodeNotFoundInNetworkException {
+		Hashtable<String, ArrayList<Node>> byCaseFrame = new Hashtable<String, ArrayList<Node>>();
+		for (Node node : built) {
+			nodes.put(node.getIdentifier(), node);
+			if (node instanceof PropositionNode)
+				propositionNodes.put(node.getIdentifier(), (PropositionNode) node);
+			String caseFrameId = ((Molecular) node.getTerm()).getDownCableSet().getCaseFrame().getId();
+			ArrayList<Node> caseFrameNodes = byCaseFrame.get(caseFrameId);
+			if (caseFrameNodes == null) {
+				caseFrameNodes = new ArrayList<Node>();
+				byCaseFrame.put(caseFrameId, caseFrameNodes);
+			}
+			caseFrameNodes.add(node);
+		}
+		for (String caseFrameId : byCaseFrame.keySet())
+			molecularNodes.get(caseFrameId).addNewNodes(byCaseFrame.get(caseFrameId));
+		for (Node node : built) {
+			if (node instanceof PropositionNode) {
+				((PropositionNode) node).setBasicSupport();
+				ReteNetwork.nodeBuilt(node);
+				AnswerCache.nodeBuilt(node);
+			}
+		}
+	}
+
+	/**
+	 * Drops molecular nodes created by createMolecularNode from the index by id,
+	 * as removeNode does. If no other node was created since the first of them,
+	 * the node count and the name counters are set back to where they were, so
+	 * the ids and names of the nodes built next stay dense.
+	 *
+	 * @param built        nodes that are not indexed otherwise, in ascending
+	 *                     order of their ids.
+	 * @param firstId      the node count before the first of them was created.
+	 * @param molCount     the closed node name counter at that time.
+	 * @param patternCount the pattern node name counter at that time.
+	 */
+	static void discardMolecularNodes(ArrayList<Node> built, int firstId, int molCount, int patternCount) {
+		if (Node.getCount() == firstId + built.size() && nodesIndex.size() == Node.getCount()) {
+			nodesIndex.subList(firstId, nodesIndex.size()).clear();
+			Node.setCount(firstId);
+			molCounter = molCount;
+			patternCounter = patternCount;
+		} else
+			for (Node node : built)
+				nodesIndex.set(node.getId(), null);
+	}
+
+	static int getMolCounter() {
+		return molCounter;
+	}
+
+	static int getPatternCounter() {
+		return patternCounter;
+	}
+
 	/**
 	 * checks whether the given down cable set already exists in the network or not.
 	 *
@@ -1341,7 +1501,13 @@ public class Network implements Serializable {
 	 *         all entries of the array.
 	 */
 	public static LinkedList<Object[]> find(Object[][] array, Context context) {
-		return findIntersection(array, context, 0);
+		NetworkEvents.Find event = new NetworkEvents.Find();
+		event.begin();
+		LinkedList<Object[]> result = findIntersection(array, context, 0);
+		event.pairs = array.length;
+		event.matches = result.size();
+		event.commit();
+		return result;
 	}
 
 	/**
@@ -1931,6 +2097,8 @@ public class Network implements Serializable {
 	public static void save(String relationsData, String caseFramesData, String nodesData, String molData, String mcd,
 			String pcd, String vcd, String pNData, String nodesIndexData, String userDefinedMolSuffixData,
 			String userDefinedPatSuffixData, String userDefinedVarSuffixData) throws IOException {
+		NetworkEvents.Save event = new NetworkEvents.Save();
+		event.begin();
 		ObjectOutputStream ros = new ObjectOutputStream(new FileOutputStream(new File(relationsData)));
 		ros.writeObject(relations);
 		ros.close();
@@ -1978,6 +2146,9 @@ public class Network implements Serializable {
 		ObjectOutputStream udvs = new ObjectOutputStream(new FileOutputStream(new File(userDefinedVarSuffixData)));
 		udvs.writeObject(userDefinedVarSuffix);
 		udvs.close();
+
+		event.nodes = nodes.size();
+		event.commit();
 	}
 
 	public static void saveNetworks() throws IOException {
@@ -2022,6 +2193,8 @@ public class Network implements Serializable {
 			String pcd, String vcd, String pNData, String nodesIndexData, String userDefinedMolSuffixData,
 			String userDefinedPatSuffixData, String userDefinedVarSuffixData)
 			throws IOException, ClassNotFoundException {
+		NetworkEvents.Load event = new NetworkEvents.Load();
+		event.begin();
 		ObjectInputStream ris = new ObjectInputStream(new FileInputStream(new File(relationsData)));
 		Hashtable<String, Relation> tempRelations = (Hashtable<String, Relation>) ris.readObject();
 		Network.relations = tempRelations;
@@ -2088,12 +2261,17 @@ public class Network implements Serializable {
 
 		Node.setCount(nodes.size());
 
+		event.nodes = nodes.size();
+		event.commit();
 	}
 
 	/**
 	 * This method is used to clear the network entirely.
 	 */
 	public static void clearNetwork() {
+		ReteNetwork.clear();
+		AnswerCache.clear();
+		SupportIndex.clear();
 		nodes.clear();
 		propositionNodes.clear();
 		nodesIndex.clear();
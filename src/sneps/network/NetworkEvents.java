@@ -0,0 +1,70 @@
+package sneps.network;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the Network operations. An event that is not
+ * enabled in the running recording is never committed, and its allocation is
+ * removed by the JIT, so the instrumented operations cost next to nothing when
+ * no recording is running.
+ */
+public class NetworkEvents {
+
+	@Name("sneps.network.BuildMolecularNode")
+	@Label("Build Molecular Node")
+	@Category({ "SNePS", "Network" })
+	public static class BuildMolecularNode extends Event {
+		@Label("Wires")
+		public int wires;
+
+		@Label("Case Frame")
+		public String caseFrame;
+
+		@Label("Equivalent Node Reused")
+		@Description("Whether an existing node with the same down cable set was returned")
+		public boolean reused;
+	}
+
+	@Name("sneps.network.RemoveNode")
+	@Label("Remove Node")
+	@Category({ "SNePS", "Network" })
+	public static class RemoveNode extends Event {
+		@Label("Node")
+		public String node;
+
+		@Label("Nodes Left")
+		public int nodesLeft;
+	}
+
+	@Name("sneps.network.Find")
+	@Label("Find")
+	@Category({ "SNePS", "Network" })
+	public static class Find extends Event {
+		@Label("Path Node Set Pairs")
+		public int pairs;
+
+		@Label("Matches")
+		public int matches;
+	}
+
+	@Name("sneps.network.Save")
+	@Label("Save Network")
+	@Category({ "SNePS", "Network" })
+	public static class Save extends Event {
+		@Label("Nodes")
+		public int nodes;
+	}
+
+	@Name("sneps.network.Load")
+	@Label("Load Network")
+	@Category({ "SNePS", "Network" })
+	public static class Load extends Event {
+		@Label("Nodes")
+		public int nodes;
+	}
+
+}
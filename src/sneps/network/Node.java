@@ -17,6 +17,7 @@ public class Node implements Serializable {
 	protected Term term;
 	protected Semantic semanticType;
 	private static int count = 0;
+	private static boolean upCablesDeferred = false;
 	private int id;
 
 	public Node() {
@@ -25,7 +26,7 @@ public class Node implements Serializable {
 	public Node(Term trm) {
 		term = trm;
 		id = count++;
-		if(this.getTerm() instanceof Molecular) {
+		if(this.getTerm() instanceof Molecular && !upCablesDeferred) {
 			this.updateUpCables();
 		}
 	}
@@ -39,7 +40,7 @@ public class Node implements Serializable {
 		semanticType = sem;
 		term = trm;
 		id = count++;
-		if(this.getTerm() instanceof Molecular) {
+		if(this.getTerm() instanceof Molecular && !upCablesDeferred) {
 			this.updateUpCables();
 		}
 	}
@@ -242,6 +243,18 @@ public class Node implements Serializable {
 		Node.count = count;
 	}
 
+	/**
+	 * While up cables are deferred, new molecular nodes are not added to the up
+	 * cables of the nodes they dominate, and updateUpCables() has to be called on
+	 * them later on. Only set by Network.createMolecularNode around the creation
+	 * of its node, so nodes built otherwise always get their up cables.
+	 *
+	 * @param deferred
+	 */
+	static void setUpCablesDeferred(boolean deferred) {
+		upCablesDeferred = deferred;
+	}
+
 	public int getId() {
 		return id;
 	}
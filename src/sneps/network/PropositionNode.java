@@ -2,6 +2,7 @@ package sneps.network;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 
@@ -29,6 +30,12 @@ import java.util.Set;
 import sneps.snebr.Context;
 import sneps.snebr.Controller;
 import sneps.snebr.Support;
+import sneps.snip.AnswerCache;
+import sneps.snip.AnswerPublisher;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceMetrics;
+import sneps.snip.InferenceProfiler;
+import sneps.snip.InferenceResult;
 import sneps.snip.InferenceTypes;
 import sneps.snip.Pair;
 import sneps.snip.Report;
@@ -38,12 +45,15 @@ import sneps.snip.channels.AntecedentToRuleChannel;
 import sneps.snip.channels.Channel;
 import sneps.snip.channels.ChannelTypes;
 import sneps.snip.channels.MatchChannel;
+import sneps.snip.channels.RequestSubsumptionIndex;
 import sneps.snip.channels.RuleToConsequentChannel;
 import sneps.snip.classes.VariableNodeStats;
+import sneps.snip.matching.Binding;
 import sneps.snip.matching.LinearSubstitutions;
 import sneps.snip.matching.Match;
 import sneps.snip.matching.Matcher;
 import sneps.snip.matching.Substitutions;
+import sneps.snip.rete.ReteNetwork;
 
 public class PropositionNode extends Node implements Serializable {
 	private Support basicSupport;
@@ -51,11 +61,15 @@ public class PropositionNode extends Node implements Serializable {
 	protected ChannelSet incomingChannels;
 	protected KnownInstances knownInstances;
 	protected ReportSet newInstances;
+	protected RequestSubsumptionIndex requestsIndex;
+	protected RequestSubsumptionIndex processedRequestsIndex;
 
 	public PropositionNode() {
 		outgoingChannels = new ChannelSet();
 		incomingChannels = new ChannelSet();
 		knownInstances = new KnownInstances();
+		requestsIndex = new RequestSubsumptionIndex();
+		processedRequestsIndex = new RequestSubsumptionIndex();
 	}
 
 	public PropositionNode(Term trm) {
@@ -63,6 +77,8 @@ public class PropositionNode extends Node implements Serializable {
 		outgoingChannels = new ChannelSet();
 		incomingChannels = new ChannelSet();
 		knownInstances = new KnownInstances();
+		requestsIndex = new RequestSubsumptionIndex();
+		processedRequestsIndex = new RequestSubsumptionIndex();
 		setTerm(trm);
 	}
 
@@ -101,6 +117,7 @@ public class PropositionNode extends Node implements Serializable {
 		case RuleAnt:
 			newChannel = new AntecedentToRuleChannel(switchLinearSubs, filterLinearSubs, contextName, this,
 					evaluatedReporter, true);
+			break;
 		default:
 			newChannel = new RuleToConsequentChannel(switchLinearSubs, filterLinearSubs, contextName, this,
 					evaluatedReporter, true);
@@ -114,6 +131,8 @@ public class PropositionNode extends Node implements Serializable {
 			/* END - Helpful Prints */
 			((PropositionNode) evaluatedReporter).addToOutgoingChannels(newChannel);
 			addToIncomingChannels(newChannel);
+			InferenceMetrics.channelCreated(newChannel);
+			InferenceProfiler.channelOpened(this);
 			return newChannel;
 		}
 		/* BEGIN - Helpful Prints */
@@ -132,7 +151,12 @@ public class PropositionNode extends Node implements Serializable {
 	 */
 	public boolean sendReport(Report report, Channel channel) {
 		try {
-			if (channel.testReportToSend(report)) {
+			if (!channel.testReportToSend(report))
+				InferenceMetrics.reportFiltered();
+			else {
+				Runner.reportSent();
+				InferenceMetrics.reportSent();
+				InferenceProfiler.reportSent(channel.getReporter());
 				System.out.println("\nReport instance:" + "\n~~~~\n" + report + "\n~~~~\n"
 						+ "was successfuly sent from " + channel.getReporter().getIdentifier() + " to "
 						+ channel.getRequester().getIdentifier() + "\n");
@@ -289,6 +313,7 @@ public class PropositionNode extends Node implements Serializable {
 		String nodeIdent = getIdentifier();
 		System.out.println("PropositionNode " + nodeIdent + " just received a request.");
 		/* END - Helpful Prints */
+		InferenceProfiler.requestReceived(this, channel.getRequester());
 		Runner.addToLowQueue(this);
 		channel.setRequestProcessed(true);
 	}
@@ -302,6 +327,7 @@ public class PropositionNode extends Node implements Serializable {
 		String nodeIdent = getIdentifier();
 		System.out.println("PropositionNode " + nodeIdent + " just received a report.");
 		/* END - Helpful Prints */
+		InferenceProfiler.reportReceived(this, channel.getReporter());
 		Runner.addToHighQueue(this);
 		channel.setReportProcessed(true);
 	}
@@ -374,6 +400,11 @@ public class PropositionNode extends Node implements Serializable {
 	 * previously sent in order not to re-send redundant requests -- ruleType gets
 	 * applied on Andor or Thresh part.
 	 *
+	 * Only the requests sent by the reporter of currentChannel are compared, so a
+	 * match is skipped when that same requester already asked for something at
+	 * least as general. Requests sent by other nodes never cause a match to be
+	 * skipped, as each requester needs its own channel to receive the reports.
+	 *
 	 * @param matchingNodes
 	 * @param currentChannel
 	 * @param ruleType
@@ -384,16 +415,10 @@ public class PropositionNode extends Node implements Serializable {
 		for (Match sourceMatch : matchingNodes) {
 			Node sourceNode = sourceMatch.getNode();
 			if (sourceNode instanceof PropositionNode) {
-				boolean conditionMet = true;
 				Substitutions currentChannelFilterSubs = currentChannel.getFilter().getSubstitutions();
-				ChannelSet outgoingChannels = ((PropositionNode) sourceNode).getOutgoingChannels();
-				// ChannelSet filteredChannelsSet =
-				// outgoingChannels.getFilteredRequestChannels(true);
-				for (Channel outgoingChannel : outgoingChannels) {
-					Substitutions processedChannelFilterSubs = outgoingChannel.getFilter().getSubstitutions();
-					conditionMet &= !processedChannelFilterSubs.isSubSet(currentChannelFilterSubs)
-							&& outgoingChannel.getRequester().getId() == currentChannel.getReporter().getId();
-				}
+				RequestSubsumptionIndex requestsIndex = ((PropositionNode) sourceNode).getRequestsIndex();
+				boolean conditionMet = !requestsIndex.hasGeneralizedRequest(currentChannel.getReporter().getId(),
+						currentChannelFilterSubs, null);
 				if (conditionMet)
 					nodesToConsider.add(sourceMatch);
 			}
@@ -407,6 +432,9 @@ public class PropositionNode extends Node implements Serializable {
 	 * not to re-send redundant requests -- ruleType gets applied on Andor or Thresh
 	 * part.
 	 *
+	 * Only the requests sent by the reporter of channel are compared, requests sent
+	 * by other nodes never cause a node to be skipped.
+	 *
 	 * @param node         set on which we will check existing request
 	 * @param channel      current channel handling the current request
 	 * @param toBeCompared subs to be compared over each node
@@ -427,13 +455,9 @@ public class PropositionNode extends Node implements Serializable {
 				/* END - Helpful Prints */
 				boolean conditionMet = !ruleType || sourceNode.getId() != channel.getRequester().getId();
 				if (conditionMet) {
-					ChannelSet outgoingChannels = ((PropositionNode) sourceNode).getOutgoingChannels();
-//					ChannelSet filteredChannelsSet = outgoingChannels.getFilteredRequestChannels(true);
-					for (Channel outgoingChannel : outgoingChannels) {
-						Substitutions processedChannelFilterSubs = outgoingChannel.getFilter().getSubstitutions();
-						conditionMet &= !processedChannelFilterSubs.isSubSet(toBeCompared)
-								&& outgoingChannel.getRequester().getId() == channel.getReporter().getId();
-					}
+					RequestSubsumptionIndex requestsIndex = ((PropositionNode) sourceNode).getRequestsIndex();
+					conditionMet = !requestsIndex.hasGeneralizedRequest(channel.getReporter().getId(), toBeCompared,
+							null);
 					if (conditionMet) {
 						nodesToConsider.addNode(sourceNode);
 						/* BEGIN - Helpful Prints */
@@ -469,16 +493,36 @@ public class PropositionNode extends Node implements Serializable {
 		return outgoingChannels;
 	}
 
+	/***
+	 * Replaces the outgoing channels of this node, and indexes the requests of
+	 * the new channels only, so the requestsIndex never reports a request of a
+	 * channel that was dropped.
+	 *
+	 * @param outgoingChannels
+	 */
 	public void setOutgoingChannels(ChannelSet outgoingChannels) {
 		this.outgoingChannels = outgoingChannels;
+		requestsIndex.clear();
+		for (Channel channel : outgoingChannels)
+			requestsIndex.insert(channel.getRequester().getId(), channel);
 	}
 
 	public ChannelSet getIncomingChannels() {
 		return incomingChannels;
 	}
 
+	/***
+	 * Replaces the incoming channels of this node, and indexes the processed
+	 * requests of the new channels only in the processedRequestsIndex.
+	 *
+	 * @param incomingChannels
+	 */
 	public void setIncomingChannels(ChannelSet incomingChannels) {
 		this.incomingChannels = incomingChannels;
+		processedRequestsIndex.clear();
+		for (Channel channel : incomingChannels)
+			if (channel.isRequestProcessed())
+				processedRequestsIndex.insert(RequestSubsumptionIndex.ANY_REQUESTER, channel);
 	}
 
 	public KnownInstances getKnownInstances() {
@@ -499,6 +543,14 @@ public class PropositionNode extends Node implements Serializable {
 		return basicSupport.getJustificationSupport();
 	}
 
+	public Collection<PropositionSet> getAssumptions() {
+		return basicSupport.getAssumptions();
+	}
+
+	public Collection<PropositionSet> getJustifications() {
+		return basicSupport.getJustifications();
+	}
+
 	public void addJustificationBasedSupport(PropositionSet propSet)
 			throws NodeNotFoundInPropSetException, NotAPropositionNodeException, NodeNotFoundInNetworkException,
 			DuplicatePropositionException, CannotInsertJustificationSupportException {
@@ -631,6 +683,15 @@ public class PropositionNode extends Node implements Serializable {
 
 	public void addToOutgoingChannels(Channel channel) {
 		outgoingChannels.addChannel(channel);
+		requestsIndex.insert(channel.getRequester().getId(), channel);
+	}
+
+	public RequestSubsumptionIndex getRequestsIndex() {
+		return requestsIndex;
+	}
+
+	public RequestSubsumptionIndex getProcessedRequestsIndex() {
+		return processedRequestsIndex;
 	}
 
 	public void addToIncomingChannels(Channel channel) {
@@ -657,13 +718,14 @@ public class PropositionNode extends Node implements Serializable {
 	 */
 	public boolean isWhQuestion(Substitutions filterSubs) {
 		VariableNodeStats currentNodeStats = computeNodeStats(filterSubs);
+		boolean whQuestion = currentNodeStats.getNodeFreeVariables().size() > 0
+				&& !currentNodeStats.areAllVariablesBound();
 		/* BEGIN - Helpful Prints */
 		System.out.println("\n\u2022 Testing if " + getIdentifier() + " is a Wh-Question:");
 		System.out.println(currentNodeStats.toString());
-		System.out.println("> Result: "
-				+ (currentNodeStats.getNodeFreeVariables().size() > 0 && !currentNodeStats.areAllVariablesBound()));
+		System.out.println("> Result: " + whQuestion);
 		/* END - Helpful Prints */
-		return currentNodeStats.getNodeFreeVariables().size() > 0 && !currentNodeStats.areAllVariablesBound();
+		return whQuestion;
 	}
 
 	/***
@@ -672,20 +734,34 @@ public class PropositionNode extends Node implements Serializable {
 	 * them with the instance freeVariables, stating whether over a given
 	 * substitutions the node will have all its freeVariables bound and also
 	 * filtering the input substitutions to match the free variables (not including
-	 * extra irrelevant filters)
+	 * extra irrelevant filters). The bound check is a mask operation between the
+	 * free variables mask of the term and the bound variables mask of the input
+	 * substitutions, which is cheap enough not to be cached.
 	 *
 	 * @param filterSubs Substitutions the given substitutions on which bindings
 	 *                   check will occur
 	 * @return VariableNodeStats
 	 */
 	public VariableNodeStats computeNodeStats(Substitutions filterSubs) {
+		VariableNodeStats toBeReturned;
 		VariableSet freeVariables = new VariableSet();
-		if (term instanceof Open)
+		BitSet freeVariablesMask = new BitSet();
+		if (term instanceof Open) {
 			freeVariables = ((Open) term).getFreeVariables();
-		VariableNodeStats toBeReturned = filterSubs.extractBoundStatus(freeVariables);
+			freeVariablesMask = ((Open) term).getFreeVariablesMask();
+		}
+		BitSet unboundVariablesMask = (BitSet) freeVariablesMask.clone();
+		unboundVariablesMask.andNot(filterSubs.getBoundVariablesMask());
+		Substitutions extractedFilterSubs = new LinearSubstitutions();
+		for (int i = 0; i < filterSubs.cardinality(); i++) {
+			Binding binding = filterSubs.getBinding(i);
+			if (freeVariablesMask.get(binding.getVariable().getId()))
+				extractedFilterSubs.putIn(binding);
+		}
+		toBeReturned = new VariableNodeStats(unboundVariablesMask.isEmpty(), extractedFilterSubs, filterSubs,
+				freeVariables);
 		toBeReturned.setNodeId(getId());
 		return toBeReturned;
-
 	}
 
 	private Report attemptAddingReportToKnownInstances(Channel channel, Report report) {
@@ -715,42 +791,149 @@ public class PropositionNode extends Node implements Serializable {
 	}
 
 	public void deduce() {
-		/* BEGIN - Helpful Prints */
-		System.out.println("deduce() method initated.");
-		System.out.println("-------------------------\n");
-		/* END - Helpful Prints */
-		Runner.initiate();
-		String currentContextName = Controller.getCurrentContextName();
-		/* BEGIN - Helpful Prints */
-		System.out.println("\nSending to rule nodes during deduce()\n");
-		/* END - Helpful Prints */
-		getNodesToSendRequest(ChannelTypes.RuleCons, currentContextName, null);
-		/* BEGIN - Helpful Prints */
-		System.out.println("\nSending to matching nodes during deduce()\n");
-		/* BEGIN - Helpful Prints */
-		getNodesToSendRequest(ChannelTypes.MATCHED, currentContextName, null);
-		// what to return here ?
-		Runner.run();
-		System.out.println(knownInstances.toString());
+		deduce(new InferenceBudget());
+	}
+
+	/***
+	 * Deduces instances of this node while keeping inference within the given
+	 * budget. Once a limit is reached the Runner stops and the answers collected so
+	 * far are returned as a partial result.
+	 *
+	 * @param budget limits on activations, reports, time and answers
+	 * @return InferenceResult holding the answers and a completeness flag
+	 */
+	public InferenceResult deduce(InferenceBudget budget) {
+		return deduce(budget, null);
+	}
+
+	/***
+	 * Streams the answers of a budgeted deduce. Inference starts once a subscriber
+	 * is attached to the returned publisher.
+	 *
+	 * @param budget limits on activations, reports, time and answers
+	 * @return AnswerPublisher emitting answers as they reach this node
+	 */
+	public AnswerPublisher deduceStream(InferenceBudget budget) {
+		return new AnswerPublisher(this, budget);
+	}
+
+	/***
+	 * Budgeted deduce whose answers are also offered to the given publisher as soon
+	 * as they are added to the known instances of this node.
+	 *
+	 * @param budget    limits on activations, reports, time and answers
+	 * @param publisher publisher streaming the answers, can be null
+	 * @return InferenceResult holding the answers and a completeness flag
+	 */
+	public InferenceResult deduce(InferenceBudget budget, AnswerPublisher publisher) {
+		return deduce(budget, publisher, null);
+	}
+
+	/***
+	 * Budgeted deduce of the instances of this node that are compatible with the
+	 * given filter, the requests sent to the matching and dominating rule nodes
+	 * carrying the filter.
+	 *
+	 * @param budget     limits on activations, reports, time and answers
+	 * @param publisher  publisher streaming the answers, can be null
+	 * @param filterSubs bindings the answers have to agree with, can be null
+	 * @return InferenceResult holding the answers and a completeness flag
+	 */
+	public InferenceResult deduce(InferenceBudget budget, AnswerPublisher publisher, Substitutions filterSubs) {
+		synchronized (Runner.LOCK) {
+			/* BEGIN - Helpful Prints */
+			System.out.println("deduce() method initated.");
+			System.out.println("-------------------------\n");
+			/* END - Helpful Prints */
+			long startTime = System.nanoTime();
+			String currentContextName = Controller.getCurrentContextName();
+			String cacheKey = publisher == null ? AnswerCache.keyOf(getId(), filterSubs, currentContextName) : null;
+			InferenceResult cached = AnswerCache.get(cacheKey, budget);
+			if (cached != null)
+				return cached;
+			Runner.initiate(budget, this, publisher, filterSubs);
+			if (publisher != null)
+				for (Report knownInstance : knownInstances)
+					if (filterSubs == null || knownInstance.getSubstitutions().isCompatible(filterSubs))
+						publisher.offer(knownInstance);
+			knownInstances.setReportListener(report -> {
+				if (Runner.answerAdded(report) && publisher != null)
+					publisher.offer(report);
+			});
+			/* BEGIN - Helpful Prints */
+			System.out.println("\nSending to rule nodes during deduce()\n");
+			/* END - Helpful Prints */
+			getNodesToSendRequest(ChannelTypes.RuleCons, currentContextName, filterSubs);
+			/* BEGIN - Helpful Prints */
+			System.out.println("\nSending to matching nodes during deduce()\n");
+			/* BEGIN - Helpful Prints */
+			getNodesToSendRequest(ChannelTypes.MATCHED, currentContextName, filterSubs);
+			String sequence;
+			try {
+				sequence = Runner.run();
+			} finally {
+				knownInstances.setReportListener(null);
+			}
+			ArrayList<Report> answers = new ArrayList<Report>();
+			for (Report answer : knownInstances)
+				if (filterSubs == null || answer.getSubstitutions().isCompatible(filterSubs))
+					answers.add(answer);
+			if (Runner.isComplete() && publisher == null)
+				AnswerCache.put(AnswerCache.keyOf(getId(), filterSubs, currentContextName), answers, sequence);
+			InferenceResult result = new InferenceResult(AnswerCache.firstAnswers(answers, budget), Runner.isComplete(),
+					sequence);
+			InferenceMetrics.deduceCompleted(System.nanoTime() - startTime, knownInstances.size());
+			/* BEGIN - Helpful Prints */
+			System.out.println(knownInstances.toString());
+			System.out.println("Inference complete: " + result.isComplete());
+			/* END - Helpful Prints */
+			return result;
+		}
 	}
 
 	public void add() {
-		/* BEGIN - Helpful Prints */
-		System.out.println("add() method initated.\n");
-		System.out.println("-------------------------");
-		/* END - Helpful Prints */
-		Runner.initiate();
-		String currentContextName = Controller.getCurrentContextName();
-		boolean reportSign = Controller.isNegated(this);
-		/* BEGIN - Helpful Prints */
-		System.out.println("\nSending to rule nodes during add()\n");
-		/* END - Helpful Prints */
-		getNodesToSendReport(ChannelTypes.RuleAnt, currentContextName, null, reportSign, InferenceTypes.FORWARD);
-		/* BEGIN - Helpful Prints */
-		System.out.println("\nSending to matching nodes during add()\n");
-		/* END - Helpful Prints */
-		getNodesToSendReport(ChannelTypes.MATCHED, currentContextName, null, reportSign, InferenceTypes.FORWARD);
-		System.out.println(Runner.run());
+		synchronized (Runner.LOCK) {
+			/* BEGIN - Helpful Prints */
+			System.out.println("add() method initated.\n");
+			System.out.println("-------------------------");
+			/* END - Helpful Prints */
+			Runner.initiate();
+			String currentContextName = Controller.getCurrentContextName();
+			boolean reportSign = Controller.isNegated(this);
+			if (ReteNetwork.isEnabled()) {
+				ReteNetwork.addAssertion(this, currentContextName, reportSign);
+				if (this instanceof RuleNode && ReteNetwork.getBetaMemory(getId()) == null)
+					getNodesToSendReport(ChannelTypes.RuleAnt, currentContextName, null, reportSign,
+							InferenceTypes.FORWARD);
+				System.out.println(Runner.run());
+				return;
+			}
+			/* BEGIN - Helpful Prints */
+			System.out.println("\nSending to rule nodes during add()\n");
+			/* END - Helpful Prints */
+			getNodesToSendReport(ChannelTypes.RuleAnt, currentContextName, null, reportSign, InferenceTypes.FORWARD);
+			/* BEGIN - Helpful Prints */
+			System.out.println("\nSending to matching nodes during add()\n");
+			/* END - Helpful Prints */
+			getNodesToSendReport(ChannelTypes.MATCHED, currentContextName, null, reportSign, InferenceTypes.FORWARD);
+			System.out.println(Runner.run());
+		}
+	}
+
+	/***
+	 * Sends a report propagated by the compiled network over channels to the
+	 * nodes matching this node and to the rules this node is an antecedent of
+	 * that the compiled network does not join on.
+	 *
+	 * @param report      the report to be sent
+	 * @param contextName context the report was derived in
+	 */
+	public void sendForwardReport(Report report, String contextName) {
+		List<Match> matchesReturned = Matcher.match(this);
+		if (matchesReturned != null)
+			sendReportToMatches(matchesReturned, report, contextName);
+		sendReportToNodeSet(ReteNetwork.uncompiledRules(getUpAntNodeSet()), report, contextName,
+				ChannelTypes.RuleAnt);
 	}
 
 	public void processRequests() {
@@ -848,7 +1031,7 @@ public class PropositionNode extends Node implements Serializable {
 						List<Match> matchesReturned = Matcher.match(this);
 						sendReportToMatches(matchesReturned, currentReport, currentChannelContextName);
 					}
-					NodeSet dominatingRules = getUpAntNodeSet();
+					NodeSet dominatingRules = ReteNetwork.uncompiledRules(getUpAntNodeSet());
 					sendReportToNodeSet(dominatingRules, currentReport, currentChannelContextName,
 							ChannelTypes.RuleAnt);
 				} else
@@ -1,6 +1,7 @@
 package sneps.network.classes.setClasses;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Vector;
 
@@ -23,6 +24,16 @@ public class NodeSet implements Iterable<Node>, Serializable {
 			this.nodes.add(node);
 	}
 
+	/**
+	 * Appends nodes known not to be in this set yet, without checking each of
+	 * them for membership as addNode does.
+	 *
+	 * @param newNodes distinct nodes that are not members of this set.
+	 */
+	public void addNewNodes(Collection<? extends Node> newNodes) {
+		this.nodes.addAll(newNodes);
+	}
+
 	public int size() {
 		return this.nodes.size();
 	}
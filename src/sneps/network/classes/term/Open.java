@@ -1,6 +1,7 @@
 package sneps.network.classes.term;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.Enumeration;
 
 import sneps.network.cables.DownCable;
@@ -11,6 +12,7 @@ import sneps.network.classes.setClasses.VariableSet;
 
 public class Open extends Molecular implements Serializable{
 	protected VariableSet variables;
+	protected BitSet freeVariablesMask;
 
 	/**
 	 * The constructor of this class.
@@ -24,12 +26,21 @@ public class Open extends Molecular implements Serializable{
 	public Open(String identifier, DownCableSet dCableSet) {
 		super(identifier, dCableSet);
 		this.variables = new VariableSet();
+		this.freeVariablesMask = new BitSet();
 		this.updateFreeVariables();
 	}
 	public VariableSet getFreeVariables() {
 		return variables;
 	}
 
+	/**
+	 * @return a mask holding the ids of the variable nodes free in this
+	 * 	node. It is computed once together with the free variables.
+	 */
+	public BitSet getFreeVariablesMask() {
+		return freeVariablesMask;
+	}
+
 	/**
 	 * The method that populate the list of free variables by the 
 	 * 	free variables dominated by the current node.
@@ -44,8 +55,10 @@ public class Open extends Molecular implements Serializable{
 			for (int j = 0; j < ns.size(); j++){
 				// if node is variable node
 				String nodeType = ns.getNode(j).getSyntacticType();
-				if (nodeType.equals("Variable") && !r.isQuantifier())
+				if (nodeType.equals("Variable") && !r.isQuantifier()) {
 					this.variables.addVariable((Variable)ns.getNode(j).getTerm());
+					this.freeVariablesMask.set(ns.getNode(j).getId());
+				}
 				// if node is pattern node (means it dominates free variables)
 				if (nodeType.equals("Open")){
 					Open open = (Open) ns.getNode(j).getTerm();
@@ -61,6 +74,7 @@ public class Open extends Molecular implements Serializable{
 					}
 					
 					this.variables.addAll(patternFVars);
+					this.freeVariablesMask.or(open.getFreeVariablesMask());
 				}
 			}
 		}
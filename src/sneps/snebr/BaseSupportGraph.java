@@ -1,283 +1,276 @@
 package sneps.snebr;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Hashtable;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Set;
 
 import sneps.exceptions.NodeNotFoundInNetworkException;
 import sneps.exceptions.NotAPropositionNodeException;
 import sneps.network.Network;
-import sneps.network.Node;
 import sneps.network.PropositionNode;
 import sneps.network.classes.setClasses.PropositionSet;
 
+/**
+ * The base support graph of the justification supports of the Network: a
+ * bipartite directed graph having an edge from a proposition to each support it
+ * is a member of, and an edge from a support to each proposition it justifies.
+ *
+ * Vertices are ints, the propositions come first in ascending order of their
+ * node ids, followed by the distinct supports. The edges are stored in
+ * compressed sparse row form, every vertex owning a sorted slice of a single
+ * targets array for its outgoing edges, and another one for its incoming edges.
+ * Vertices are only marked removed, so trimming never rebuilds the arrays.
+ */
 public class BaseSupportGraph {
-	
-//	Adjacency lists representing the graph
-//	2 lists because it is a bipartite graph
-	private LinkedList<LinkedList<GraphNode>> hypsAdjList;
-	private LinkedList<LinkedList<GraphNode>> supportsAdjList;
-	private LinkedList<PropositionSet> allSupports;
-	
-	
-	@SuppressWarnings("unchecked")
+	private int[] propIds;
+	private PropositionSet[] supports;
+	private int[] outOffsets;
+	private int[] outTargets;
+	private int[] inOffsets;
+	private int[] inTargets;
+	private boolean[] removed;
+	private int size;
+
+	/**
+	 * Constructs the base support graph of all the proposition nodes of the
+	 * Network.
+	 */
 	public BaseSupportGraph() throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
-		int noOfNodes = (Network.getPropositionNodes()).size();
-		hypsAdjList = new LinkedList<LinkedList<GraphNode>>();
-		
-	    for (int i = 0; i < noOfNodes; i++){
-	    	hypsAdjList.add(new LinkedList<GraphNode>());
-	    }
-		Hashtable<String, PropositionNode> propositionNodes = Network.getPropositionNodes();
-		allSupports = new LinkedList<PropositionSet>();
-		Set<String> nodeKeys = propositionNodes.keySet();
-		int i = 0;
-    	for(String key: nodeKeys){
-    		LinkedList<GraphNode> currentNodeRow = hypsAdjList.get(i);
-    		currentNodeRow.add(new GraphNode(new PropositionSet(propositionNodes.get(key).getId()),0)); // adding the node in the 1st column
-    		Hashtable<String, PropositionSet> justificationSupport = propositionNodes.get(key).getJustificationSupport();
-    		Set<String> supportKeys = justificationSupport.keySet();
-    		int j = 0;
-    		for(String supportKey: supportKeys){
-    			//hypsAdjList[i].add(justificationSupport.get(supportKey));
-    			GraphNode currSupport = new GraphNode(justificationSupport.get(supportKey),1);
-    			if(!(contains(allSupports, currSupport.getPropositionSet()))){
-    				allSupports.add(currSupport.getPropositionSet());
-    				supportsAdjList.add(new LinkedList<GraphNode>());
-    				LinkedList<GraphNode> currentSupportRow = supportsAdjList.get(j);
-    				currentSupportRow.add(currSupport);
-    				currentSupportRow.add(new GraphNode(new PropositionSet(propositionNodes.get(key).getId()),0));
-    				j++;
-    			} else {
-    				int suppIndex = indexOfSupportRow(currSupport);
-    				LinkedList<GraphNode> currentSupportRow = supportsAdjList.get(suppIndex);
-    				currentSupportRow.add(new GraphNode(new PropositionSet(propositionNodes.get(key).getId()),0));
-    			}
-    		}
-    		i++;
-    	}
-    	for(Iterator iter = hypsAdjList.iterator(); iter.hasNext();){
-    		LinkedList<GraphNode> currentHypList = (LinkedList<GraphNode>) iter.next();
-    		GraphNode currHyp = currentHypList.peekFirst();
-        	for (Iterator it = allSupports.iterator(); it.hasNext();) {
-                GraphNode currentSupport = (GraphNode) it.next();
-                if((currHyp.isSubSet(currentSupport)) && !(currHyp.equals(currentSupport))){
-                	currentHypList.add(currentSupport);
-                }
-             }
-    	}
+		this(justificationsOf(Network.getPropositionNodes().values()));
 	}
-	
 
-	
-	@SuppressWarnings("unchecked")
-	public void removeFromHypList(Object O) throws Exception{
-		GraphNode toBeDeleted = (GraphNode) O;
-		for(Iterator iter = hypsAdjList.iterator(); iter.hasNext();){
-			LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-			if((currentRow.peek()).equals(toBeDeleted)){
-				int propositionNodeId = toBeDeleted.getPropositionNodeId();
-				Node theNode = Network.getNodeById(propositionNodeId);
-				Network.removeNode(theNode);
-				hypsAdjList.remove(currentRow);
-			}
-		}
-		
-		for(Iterator iter = supportsAdjList.iterator(); iter.hasNext();){
-			LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-			
-			GraphNode firstElement = currentRow.removeFirst();
-			boolean exists = currentRow.contains(toBeDeleted);
-			currentRow.addFirst(firstElement);
-			if(exists){
-				if (currentRow.size()>2){
-					currentRow.remove(toBeDeleted);
-				}
-				else {
-					GraphNode suppToBeRemoved = currentRow.getFirst();
-					removeFromSupportList(suppToBeRemoved);
+	/**
+	 * Constructs the base support graph of some propositions.
+	 *
+	 * @param justifications the justification supports of each proposition id,
+	 *                       members of the supports that are not keys are
+	 *                       ignored.
+	 */
+	public BaseSupportGraph(Hashtable<Integer, Collection<PropositionSet>> justifications) {
+		propIds = new int[justifications.size()];
+		int i = 0;
+		for (int id : justifications.keySet())
+			propIds[i++] = id;
+		Arrays.sort(propIds);
+
+		Hashtable<PropositionSet, Integer> supportVertices = new Hashtable<PropositionSet, Integer>();
+		ArrayList<PropositionSet> distinctSupports = new ArrayList<PropositionSet>();
+		ArrayList<int[]> edges = new ArrayList<int[]>();
+		for (int prop = 0; prop < propIds.length; prop++) {
+			for (PropositionSet support : justifications.get(propIds[prop])) {
+				Integer vertex = supportVertices.get(support);
+				if (vertex == null) {
+					vertex = propIds.length + distinctSupports.size();
+					supportVertices.put(support, vertex);
+					distinctSupports.add(support);
+					for (int j = 0; j < support.size(); j++) {
+						int member = Arrays.binarySearch(propIds, support.get(j));
+						if (member >= 0)
+							edges.add(new int[] { member, vertex });
+					}
 				}
+				edges.add(new int[] { vertex, prop });
 			}
 		}
+		supports = distinctSupports.toArray(new PropositionSet[distinctSupports.size()]);
+
+		int vertexCount = propIds.length + supports.length;
+		outOffsets = new int[vertexCount + 1];
+		outTargets = new int[edges.size()];
+		inOffsets = new int[vertexCount + 1];
+		inTargets = new int[edges.size()];
+		toRows(edges, 0, outOffsets, outTargets);
+		toRows(edges, 1, inOffsets, inTargets);
+		removed = new boolean[vertexCount];
+		size = vertexCount;
 	}
-	
-	@SuppressWarnings("unchecked")
-	public void removeFromSupportList(Object O) throws Exception{
-		GraphNode toBeDeleted = (GraphNode) O;
-		for(Iterator iter = supportsAdjList.iterator(); iter.hasNext();){
-			LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-			if((currentRow.peek()).equals(toBeDeleted)){
-				supportsAdjList.remove(currentRow);
-			}
-		}
-		
-		for(Iterator iter = hypsAdjList.iterator(); iter.hasNext();){
-			LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-			
-			GraphNode firstElement = currentRow.removeFirst();
-			boolean exists = currentRow.contains(toBeDeleted);
-			currentRow.addFirst(firstElement);
-			if(exists){
-				if (currentRow.size()>2){
-					currentRow.remove(toBeDeleted);
-				}
-				else {
-					GraphNode propositionNode = currentRow.getFirst();
-					removeFromHypList(propositionNode);
-				}
-			}
-		}
-		
-		
+
+	private static Hashtable<Integer, Collection<PropositionSet>> justificationsOf(Collection<PropositionNode> nodes)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		Hashtable<Integer, Collection<PropositionSet>> justifications = new Hashtable<Integer, Collection<PropositionSet>>();
+		for (PropositionNode node : nodes)
+			justifications.put(node.getId(), new ArrayList<PropositionSet>(node.getJustifications()));
+		return justifications;
 	}
-	
-	public int indexOfSupportRow(GraphNode node) {
-		int index = 0;
-		int i = 0;
-		for(Iterator iter = supportsAdjList.iterator(); iter.hasNext();){
-			GraphNode curr = supportsAdjList.getFirst().getFirst();
-			if(curr.equals(node)){
-				index = i;
-				break;
-			}
-			i++;
-		}
-		return index;
+
+	/**
+	 * Fills the rows of the edges keyed on their from end, sorting each row.
+	 */
+	private static void toRows(ArrayList<int[]> edges, int from, int[] offsets, int[] targets) {
+		for (int[] edge : edges)
+			offsets[edge[from] + 1]++;
+		for (int v = 0; v < offsets.length - 1; v++)
+			offsets[v + 1] += offsets[v];
+		int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+		for (int[] edge : edges)
+			targets[next[edge[from]]++] = edge[1 - from];
+		for (int v = 0; v < offsets.length - 1; v++)
+			Arrays.sort(targets, offsets[v], offsets[v + 1]);
 	}
-	
-	public static boolean contains(LinkedList<PropositionSet> list , PropositionSet propSet){
-		for(Iterator it = list.iterator(); it.hasNext();){
-			PropositionSet curr = (PropositionSet) it.next();
-			if(curr.equals(propSet)){
-				return true;
+
+	/**
+	 * Removes, until none is left, every vertex having no outgoing edge to a
+	 * vertex that is not removed. Each vertex is visited once through a worklist
+	 * of the vertices whose out-degree dropped to zero.
+	 */
+	public void trim() {
+		int[] degree = new int[removed.length];
+		int[] worklist = new int[removed.length];
+		int tail = 0;
+		for (int v = 0; v < removed.length; v++) {
+			if (removed[v])
+				continue;
+			for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++)
+				if (!removed[outTargets[e]])
+					degree[v]++;
+			if (degree[v] == 0)
+				worklist[tail++] = v;
+		}
+		for (int head = 0; head < tail; head++) {
+			int v = worklist[head];
+			removed[v] = true;
+			size--;
+			for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+				int u = inTargets[e];
+				if (!removed[u] && --degree[u] == 0)
+					worklist[tail++] = u;
 			}
 		}
-		return false;
 	}
-	
-	public BaseSupportGraph reverseGraph(){
-		
-		reverseAdjList(this.hypsAdjList);
-		reverseAdjList(this.supportsAdjList);
-		
+
+	/**
+	 * Reverses every edge of the graph, by swapping its outgoing and incoming
+	 * rows.
+	 *
+	 * @return this graph
+	 */
+	public BaseSupportGraph reverseGraph() {
+		int[] offsets = outOffsets;
+		int[] targets = outTargets;
+		outOffsets = inOffsets;
+		outTargets = inTargets;
+		inOffsets = offsets;
+		inTargets = targets;
 		return this;
 	}
-	
-	
-	public static void reverseAdjList(LinkedList<LinkedList<GraphNode>> list) {
-		LinkedList<LinkedList<GraphNode>> tmp = new LinkedList<LinkedList<GraphNode>>();
-		for(int i = 0; i < list.size(); i++){
-			LinkedList<GraphNode> currRow = list.get(i);
-			for(int j = 1; j < currRow.size(); j++){
-				GraphNode currNode = currRow.get(j);
-				if(firstColumnHas(tmp, currNode)) {
-					int index = indexOfGraphNodeInFirstColumn(tmp, currNode);
-					(tmp.get(index)).add(currRow.get(0));
-				} else {
-					LinkedList<GraphNode> newRow = new LinkedList<GraphNode>();
-					newRow.add(currNode);
-					newRow.add(currRow.get(0));
-					tmp.add(newRow);
-				}
-				
-			}
-		}
+
+	/**
+	 * Checks whether the edge from u to v exists, by binary search in the row of u.
+	 */
+	public boolean goesTo(int u, int v) {
+		return Arrays.binarySearch(outTargets, outOffsets[u], outOffsets[u + 1], v) >= 0;
 	}
-	
-	public static boolean firstColumnHas(LinkedList<LinkedList<GraphNode>> list, GraphNode node){
-		for(int i = 0; i < list.size(); i++){
-			if((list.get(i).getFirst()).equals(node)) {
-				return true;
+
+	/**
+	 * Enumerates the chordless cycles of the vertices that are not removed, i.e.
+	 * the directed cycles having no edge, in either direction, between two of
+	 * their vertices that are not consecutive. Every cycle is grown as an induced
+	 * path from its smallest vertex, so it is found exactly once, and a vertex is
+	 * only appended to the path when it is adjacent to no path vertex but the
+	 * last one, which is tracked by a counter per vertex.
+	 *
+	 * @return the proposition node ids of each chordless cycle
+	 */
+	public ArrayList<ArrayList<Integer>> findChordlessCycles() {
+		ArrayList<ArrayList<Integer>> cycles = new ArrayList<ArrayList<Integer>>();
+		int[] path = new int[removed.length];
+		int[] adjacentToPath = new int[removed.length];
+		for (int start = 0; start < removed.length; start++) {
+			if (!removed[start]) {
+				path[0] = start;
+				extendPath(path, 0, adjacentToPath, cycles);
 			}
 		}
-		return false;
+		return cycles;
 	}
-	
-	public static int indexOfGraphNodeInFirstColumn(LinkedList<LinkedList<GraphNode>> list, GraphNode node) {
-		for(int i = 0; i < list.size(); i++){
-			if((list.get(i).getFirst()).equals(node)) {
-				return i;
+
+	/**
+	 * @param path           the induced path, path[0] is its smallest vertex
+	 * @param last           the index of the last vertex of the path
+	 * @param adjacentToPath for every vertex, the number of vertices of the path
+	 *                       but path[0] it is adjacent to.
+	 */
+	private void extendPath(int[] path, int last, int[] adjacentToPath, ArrayList<ArrayList<Integer>> cycles) {
+		int start = path[0];
+		int tail = path[last];
+		for (int e = outOffsets[tail]; e < outOffsets[tail + 1]; e++) {
+			int next = outTargets[e];
+			if (next <= start || removed[next])
+				continue;
+			if (last > 0 && (adjacentToPath[next] != 1 || goesTo(next, tail) || goesTo(start, next)))
+				continue;
+			if (goesTo(next, start)) {
+				ArrayList<Integer> cycle = new ArrayList<Integer>();
+				for (int i = 0; i <= last; i++)
+					if (path[i] < propIds.length)
+						cycle.add(propIds[path[i]]);
+				if (next < propIds.length)
+					cycle.add(propIds[next]);
+				cycles.add(cycle);
+				continue;
 			}
+			path[last + 1] = next;
+			markNeighbours(next, adjacentToPath, 1);
+			extendPath(path, last + 1, adjacentToPath, cycles);
+			markNeighbours(next, adjacentToPath, -1);
 		}
-		return 0;
 	}
-	
-	public boolean goesTo(GraphNode n, GraphNode k){
-		if(n.getType() == 0){
-			int index = indexOfGraphNodeInFirstColumn(hypsAdjList, n);
-			LinkedList<GraphNode> row = hypsAdjList.get(index);
-			for(int i = 0; i < row.size(); i++){
-				if(row.get(i).equals(k)){
-					return true;
-				}
-			}
-		} else {
-				int index = indexOfGraphNodeInFirstColumn(supportsAdjList, n);
-				LinkedList<GraphNode> row = supportsAdjList.get(index);
-				for(int i = 0; i < row.size(); i++){
-					if(row.get(i).equals(k)){
-						return true;
-					}
-				}
-		}
-		return false;
+
+	private void markNeighbours(int v, int[] adjacentToPath, int delta) {
+		for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++)
+			adjacentToPath[outTargets[e]] += delta;
+		for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++)
+			if (!goesTo(v, inTargets[e]))
+				adjacentToPath[inTargets[e]] += delta;
 	}
-	
-	public GraphNode getGraphNodeById(int nodeId){
-		
-		for(int i = 0; i < hypsAdjList.size(); i++) {
-			LinkedList<GraphNode> currRow = hypsAdjList.get(i);
-			for(int j = 0; j < currRow.size(); j++){
-				if(currRow.get(j).getGraphId() == nodeId){
-					return currRow.get(j);
-				}
-			}
-		}
-		
-		for(int i = 0; i < supportsAdjList.size(); i++) {
-			LinkedList<GraphNode> currRow = supportsAdjList.get(i);
-			for(int j = 0; j < currRow.size(); j++){
-				if(currRow.get(j).getGraphId() == nodeId){
-					return currRow.get(j);
-				}
-			}
-		}
-		
-		return null;
-	
+
+	public boolean isRemoved(int v) {
+		return removed[v];
 	}
-	
-	public void printBaseSupportGraph() {
-		System.out.println("Hyps Adj List: ");
-		for (Iterator i = hypsAdjList.iterator(); i.hasNext();){
-			LinkedList<GraphNode> row = (LinkedList<GraphNode>) i.next();
-			System.out.println(row);
-		}
-		
-//		System.out.println("Supps Adj List: ");
-//		for (Iterator i = supportsAdjList.iterator(); i.hasNext();){
-//			LinkedList<GraphNode> row = (LinkedList<GraphNode>) i.next();
-//			System.out.println(row);
-//		}
+
+	public boolean isProposition(int v) {
+		return v < propIds.length;
 	}
 
+	/**
+	 * @param v a proposition vertex
+	 * @return the id of the proposition node of v
+	 */
+	public int getPropositionNodeId(int v) {
+		return propIds[v];
+	}
 
+	/**
+	 * @param v a support vertex
+	 * @return the justification support of v
+	 */
+	public PropositionSet getSupport(int v) {
+		return supports[v - propIds.length];
+	}
 
-	public int getGraphSize() {
-		return (hypsAdjList.size() + supportsAdjList.size());
+	public int getVertexCount() {
+		return removed.length;
 	}
-	
-	
-	public LinkedList<LinkedList<GraphNode>> getHypsAdjList() {
-		return hypsAdjList;
+
+	/**
+	 * @return the number of vertices that are not removed
+	 */
+	public int getGraphSize() {
+		return size;
 	}
-	
 
-	public LinkedList<LinkedList<GraphNode>> getSupportsAdjList() {
-		return supportsAdjList;
+	public void printBaseSupportGraph() {
+		for (int v = 0; v < removed.length; v++) {
+			if (removed[v])
+				continue;
+			StringBuilder row = new StringBuilder(isProposition(v) ? "P" + propIds[v] : "S" + getSupport(v));
+			row.append(" ->");
+			for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++)
+				if (!removed[outTargets[e]])
+					row.append(' ').append(outTargets[e]);
+			System.out.println(row);
+		}
 	}
-	
 
 }
-
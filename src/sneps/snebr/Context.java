@@ -8,30 +8,53 @@ import sneps.network.PropositionNode;
 import sneps.network.classes.setClasses.PropositionSet;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 
 
 public class Context implements Serializable{
-    private PropositionSet hyps;
+    /**
+     * The hyps of this Context as a PropositionSet, built from hypsBitmap, which holds the hyps,
+     * the first time they are asked for.
+     */
+    private transient PropositionSet hyps;
 
     private HashSet<String> names;
 
+    /**
+     * Returns a new BitSet of the hyps of this Context.
+     *
+     * @return BitSet
+     */
     protected BitSet getHypsBitset() {
-        return hypsBitset;
+        return hypsBitmap.toBitSet();
     }
 
-    private BitSet hypsBitset;
+    /**
+     * Returns the hyps of this Context as a compressed bitmap, which is shared with
+     * the Contexts derived from this one.
+     *
+     * @return HypsBitmap
+     */
+    protected HypsBitmap getHypsBitmap() {
+        return hypsBitmap;
+    }
+
+    private HypsBitmap hypsBitmap;
+
+    /**
+     * Cache of the propositions having an assumption support contained in the hyps of this Context,
+     * computed on first use and then maintained as hyps are asserted, retracted and as supports change.
+     */
+    private transient BitSet derivedBeliefs;
 
     /**
      * Constructs a new empty Context
      */
     protected Context() {
         names = new HashSet<String>();
-        this.hyps = new PropositionSet();
-        this.hypsBitset = new BitSet();
+        this.hypsBitmap = HypsBitmap.EMPTY;
     }
 
     /**
@@ -50,9 +73,10 @@ public class Context implements Serializable{
      * @param c the context that the new Context is constructed from
      */
     protected Context(Context c) {
-        this.hyps = c.getHypothesisSet();
+        this.hyps = c.hyps;
         this.names = c.getNames();
-        this.hypsBitset = c.getHypsBitset();
+        this.hypsBitmap = c.getHypsBitmap();
+        this.derivedBeliefs = c.derivedBeliefs == null ? null : (BitSet) c.derivedBeliefs.clone();
     }
 
     /**
@@ -65,9 +89,95 @@ public class Context implements Serializable{
      */
     protected Context(Context c, int hyp) throws NotAPropositionNodeException, DuplicatePropositionException, NodeNotFoundInNetworkException {
         this.names = c.getNames();
-        this.hyps = c.getHypothesisSet().add(hyp);
-        this.hypsBitset = (BitSet) c.getHypsBitset().clone();
-        this.hypsBitset.set(hyp);
+        this.hypsBitmap = withHyp(c, hyp);
+        activateBeliefs(c, hyp);
+    }
+
+    /**
+     * Constructs a new Context named <i>contextName</i> from a Context and asserts a hypothesis <i>hyp</i> in it.
+     * Unlike the other constructors deriving from a Context, the names of <i>c</i> are not shared.
+     *
+     * @param contextName the name of the new Context
+     * @param c           the context to be used for constructing this new Context
+     * @param hyp         the hyp to be asserted in the new Context
+     * @throws DuplicatePropositionException  if the hyp is present in the context c
+     * @throws NodeNotFoundInNetworkException
+     */
+    protected Context(String contextName, Context c, int hyp) throws NotAPropositionNodeException, DuplicatePropositionException, NodeNotFoundInNetworkException {
+        this(contextName);
+        this.hypsBitmap = withHyp(c, hyp);
+        activateBeliefs(c, hyp);
+    }
+
+    /**
+     * Constructs a new Context named <i>contextName</i> from a Context and retracts the hypotheses <i>removedHyps</i> from it.
+     *
+     * @param contextName the name of the new Context
+     * @param c           the context to be used for constructing this new Context
+     * @param removedHyps the hyps to be retracted from the new Context
+     * @throws NodeNotFoundInNetworkException
+     */
+    protected Context(String contextName, Context c, PropositionSet removedHyps) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+        this(contextName);
+        HypsBitmap bitmap = c.getHypsBitmap();
+        for (int i = 0; i < removedHyps.size(); i++)
+            bitmap = bitmap.without(removedHyps.get(i));
+        this.hypsBitmap = bitmap;
+        if (c.derivedBeliefs != null) {
+            derivedBeliefs = (BitSet) c.derivedBeliefs.clone();
+            for (int i = 0; i < removedHyps.size(); i++)
+                for (int dependent : SupportIndex.getAssumptionDependents(removedHyps.get(i)))
+                    if (derivedBeliefs.get(dependent) && !isSupported((PropositionNode) Network.getNodeById(dependent)))
+                        derivedBeliefs.clear(dependent);
+        }
+    }
+
+    private static HypsBitmap withHyp(Context c, int hyp) throws DuplicatePropositionException, NotAPropositionNodeException, NodeNotFoundInNetworkException {
+        if (!(Network.getNodeById(hyp) instanceof PropositionNode))
+            throw new NotAPropositionNodeException();
+        if (c.getHypsBitmap().contains(hyp))
+            throw new DuplicatePropositionException();
+        return c.getHypsBitmap().with(hyp);
+    }
+
+    /**
+     * Derives the cached beliefs of this Context from those of <i>c</i>, only the nodes having an
+     * assumption support that contains the newly asserted <i>hyp</i> can become believed.
+     */
+    private void activateBeliefs(Context c, int hyp) throws NodeNotFoundInNetworkException {
+        if (c.derivedBeliefs == null)
+            return;
+        derivedBeliefs = (BitSet) c.derivedBeliefs.clone();
+        for (int dependent : SupportIndex.getAssumptionDependents(hyp))
+            if (!derivedBeliefs.get(dependent) && isSupported((PropositionNode) Network.getNodeById(dependent)))
+                derivedBeliefs.set(dependent);
+    }
+
+    private BitSet getDerivedBeliefs() {
+        if (derivedBeliefs == null) {
+            derivedBeliefs = new BitSet();
+            for (PropositionNode node : Network.getPropositionNodes().values())
+                if (isSupported(node))
+                    derivedBeliefs.set(node.getId());
+        }
+        return derivedBeliefs;
+    }
+
+    /**
+     * Updates the cached belief of a node whose assumption supports changed.
+     *
+     * @param node
+     * @return <code>false</code> if the node is known to be believed as it was before,
+     * <code>true</code> otherwise.
+     */
+    protected boolean refreshDerivedBelief(PropositionNode node) {
+        if (derivedBeliefs == null)
+            return true;
+        boolean supported = isSupported(node);
+        if (derivedBeliefs.get(node.getId()) == supported)
+            return false;
+        derivedBeliefs.set(node.getId(), supported);
+        return true;
     }
 
     /**
@@ -90,10 +200,48 @@ public class Context implements Serializable{
     protected Context(String contextName, PropositionSet hyps) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
         this(contextName);
         this.hyps = hyps;
-        this.hypsBitset = new BitSet();
-        int [] arr = PropositionSet.getPropsSafely(this.hyps);
-        for (int i = 0; i < arr.length; i++)
-            this.hypsBitset.set(arr[i]);
+        this.hypsBitmap = HypsBitmap.of(hyps);
+    }
+
+    /**
+     * Returns a new Context named <i>contextName</i> whose hyps are set to <i>hyps</i>, deriving its cached
+     * beliefs from those of <i>c</i>, the Context the hyps were changed from. Only the nodes having an
+     * assumption support that contains a hyp asserted or retracted between the two Contexts can change belief.
+     *
+     * @param contextName name of the new Context
+     * @param c           the Context whose hyps were changed
+     * @param hyps        the hyps the new Context's hyps should be set to
+     * @return Context
+     * @throws NotAPropositionNodeException
+     * @throws NodeNotFoundInNetworkException
+     */
+    protected static Context withHyps(String contextName, Context c, PropositionSet hyps) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+        Context changed = new Context(contextName, hyps);
+        if (c.derivedBeliefs == null)
+            return changed;
+        changed.derivedBeliefs = (BitSet) c.derivedBeliefs.clone();
+        BitSet before = c.getHypsBitset();
+        BitSet after = changed.getHypsBitset();
+        BitSet changedHyps = (BitSet) before.clone();
+        changedHyps.xor(after);
+        for (int hyp = changedHyps.nextSetBit(0); hyp >= 0; hyp = changedHyps.nextSetBit(hyp + 1))
+            for (int dependent : SupportIndex.getAssumptionDependents(hyp))
+                changed.derivedBeliefs.set(dependent, changed.isSupported((PropositionNode) Network.getNodeById(dependent)));
+        return changed;
+    }
+
+    /**
+     * Returns a Context named only <i>contextName</i> that shares the hyps of this Context.
+     *
+     * @param contextName
+     * @return Context
+     */
+    protected Context rename(String contextName) {
+        Context renamed = new Context(contextName);
+        renamed.hyps = this.hyps;
+        renamed.hypsBitmap = this.hypsBitmap;
+        renamed.derivedBeliefs = derivedBeliefs == null ? null : (BitSet) derivedBeliefs.clone();
+        return renamed;
     }
 
     /**
@@ -102,6 +250,8 @@ public class Context implements Serializable{
      * @return a PropositionSet containing the hyps of this Context
      */
     public PropositionSet getHypothesisSet() {
+        if (hyps == null)
+            hyps = PropositionSet.fromSortedProps(hypsBitmap.toArray());
         return hyps;
     }
 
@@ -127,18 +277,13 @@ public class Context implements Serializable{
      * @throws NodeNotFoundInNetworkException If the node p doesn't exist in the network.
      */
     public boolean isAsserted(PropositionNode p) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
-        int hyp = p.getId();
-
-        return Arrays.binarySearch(PropositionSet.getPropsSafely(this.hyps), hyp) > 0
-                || isSupported(p);
+        return hypsBitmap.contains(p.getId()) || getDerivedBeliefs().get(p.getId());
     }
 
     public boolean isSupported(PropositionNode node) {
-        Collection<PropositionSet> assumptionSet = node.getBasicSupport()
-                .getAssumptionBasedSupport()
-                .values();
+        Collection<PropositionSet> assumptionSet = node.getAssumptions();
         for (PropositionSet assumptionHyps : assumptionSet) {
-            if (assumptionHyps.isSubSet(this.hyps)) {
+            if (hypsBitmap.containsAll(assumptionHyps)) {
                 return true;
             }
         }
@@ -146,19 +291,7 @@ public class Context implements Serializable{
     }
 
     public PropositionSet allAsserted() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException {
-        Collection<PropositionNode> allPropositionNodes = Network.getPropositionNodes().values();
-        PropositionSet asserted = new PropositionSet();
-        int[] hyps;
-        hyps = PropositionSet.getPropsSafely(this.hyps);
-        for (PropositionNode node : allPropositionNodes) {
-            if (Arrays.binarySearch(hyps, node.getId()) > 0) {
-                asserted = asserted.add(node.getId());
-            } else if (isSupported(node)) {
-                asserted = asserted.add(node.getId());
-            }
-        }
-
-        return asserted;
+        return PropositionSet.fromSortedProps(hypsBitmap.or(HypsBitmap.of(getDerivedBeliefs())).toArray());
     }
 
     /**
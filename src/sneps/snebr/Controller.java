@@ -12,6 +12,8 @@ import sneps.network.classes.Semantic;
 import sneps.network.classes.setClasses.NodeSet;
 import sneps.network.classes.setClasses.PropositionSet;
 import sneps.network.classes.term.Molecular;
+import sneps.snip.AnswerCache;
+import sneps.snip.rete.ReteNetwork;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -21,6 +23,10 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import com.sun.org.apache.bcel.internal.generic.NEWARRAY;
 
@@ -29,10 +35,12 @@ import oracle.jrockit.jfr.tools.ConCatRepository;
 public class Controller {
 	private static String currContext = "default";
 	private static ContextSet contextSet = new ContextSet(currContext);
-	private static ArrayList<BitSet> minimalNoGoods = new ArrayList<>();
+	private static NoGoodStore minimalNoGoods = new NoGoodStore();
 	private static String conflictingContext = null;
 	private static PropositionSet conflictingHyps;
 	private static boolean automaticBR = false;
+	private static Hashtable<Integer, Double> entrenchments = new Hashtable<Integer, Double>();
+	private static boolean exactCulpritSelection = false;
 
 	public static boolean isAutomaticBR() {
 		return automaticBR;
@@ -83,8 +91,11 @@ public class Controller {
 	public static void clearSNeBR() {
 		contextSet.clear();
 		minimalNoGoods.clear();
+		entrenchments.clear();
 		currContext = "default";
 		contextSet.add(new Context(currContext));
+		AnswerCache.clear();
+		ReteNetwork.clearMemories();
 	}
 
 	/**
@@ -100,6 +111,8 @@ public class Controller {
 			return false;
 
 		boolean bool = c.removeName(contextName);
+		AnswerCache.contextChanged(contextName);
+		ReteNetwork.contextChanged(contextName, null);
 		return contextSet.remove(contextName) && bool;
 	}
 
@@ -149,8 +162,12 @@ public class Controller {
 
 		oldContext.removeName(contextName);
 
-		Context temp = new Context(contextName,
-				new PropositionSet(PropositionSet.getPropsSafely(oldContext.getHypothesisSet())));
+		Context temp = oldContext.rename(contextName);
+
+		SNeBREvents.AddPropToContext event = new SNeBREvents.AddPropToContext();
+		event.begin();
+		event.context = contextName;
+		event.hyp = hyp;
 
 		ArrayList<NodeSet> contradictions = checkForContradiction((PropositionNode) Network.getNodeById(hyp), temp,
 				false);
@@ -158,15 +175,18 @@ public class Controller {
 		if (contradictions != null) {
 			conflictingContext = contextName;
 			conflictingHyps = new PropositionSet(new int[] { hyp });
+			event.contradiction = true;
+			event.commit();
 			throw new ContradictionFoundException(contradictions);
 		}
 
 		PropositionNode node = (PropositionNode) Network.getNodeById(hyp);
 		node.setHyp(true);
-		PropositionSet hypSet = oldContext.getHypothesisSet().add(hyp);
 
-		Context newContext = new Context(contextName, hypSet);
+		Context newContext = new Context(contextName, oldContext, hyp);
 
+		event.commit();
+		AnswerCache.contextChanged(contextName);
 		return contextSet.add(newContext);
 	}
 
@@ -191,16 +211,15 @@ public class Controller {
 			throw new ContextNameDoesntExistException(contextName);
 
 		oldContext.removeName(contextName);
-		Context temp = new Context(contextName,
-				new PropositionSet(PropositionSet.getPropsSafely(oldContext.getHypothesisSet())));
+		Context temp = oldContext.rename(contextName);
 		ArrayList<NodeSet> contradictions;
 		int[] hypsArr = PropositionSet.getPropsSafely(hyps);
 		for (int i = 0; i < hypsArr.length; i++) {
 			checkForContradiction((PropositionNode) Network.getNodeById(hypsArr[i]), temp, true);
-			temp = new Context(contextName, temp.getHypothesisSet().add(hypsArr[i]));
+			temp = new Context(contextName, temp, hypsArr[i]);
 		}
 
-		temp = new Context(contextName, temp.getHypothesisSet().remove(hypsArr[hypsArr.length - 1]));
+		temp = Context.withHyps(contextName, temp, temp.getHypothesisSet().remove(hypsArr[hypsArr.length - 1]));
 		contradictions = checkForContradiction((PropositionNode) Network.getNodeById(hypsArr[hypsArr.length - 1]), temp,
 				false);
 
@@ -215,15 +234,209 @@ public class Controller {
 			PropositionNode node = (PropositionNode) Network.getNodeById(hypsArr[i]);
 			node.setHyp(true);
 		}
-		temp = new Context(contextName, oldContext.getHypothesisSet().union(hyps));
+		temp = Context.withHyps(contextName, oldContext, oldContext.getHypothesisSet().union(hyps));
 		contextSet.add(temp);
+		AnswerCache.contextChanged(contextName);
 		return temp;
 	}
 
-	public static ArrayList<BitSet> getMinimalNoGoods() {
+	/**
+	 * Asserts a set of hyps in several existing Contexts at once. The candidate
+	 * nogoods introduced by the hyps are computed in parallel and merged into the
+	 * minimalNoGoods at once, then every Context is checked in parallel against
+	 * them, using a bitset of its hyps, the asserted hyps and their supports.
+	 * The hyps and the Contexts are split into at most one batch per worker of
+	 * the common ForkJoinPool, each batch running as a single task.
+	 *
+	 * The assertion is all or nothing: if asserting the hyps contradicts any of
+	 * the Contexts, none of the Contexts is changed and none of the hyps is set
+	 * as a hyp, even in the Contexts that have no contradiction. The nogoods found
+	 * are kept in the minimalNoGoods either way. Callers that want the Contexts
+	 * without contradictions to be updated call addPropsToContext for each one.
+	 *
+	 * @param contextNames the names of the contexts to assert the hyps in
+	 * @param hyps         the set of hyps to be asserted
+	 * @return a Hashtable mapping each context name to its new Context
+	 * @throws ContextNameDoesntExistException if one of the names is of no Context
+	 *                                         in SNeBr's ContextSet
+	 * @throws ContradictionFoundException     if asserting the hyps in one of the
+	 *                                         Contexts introduces a contradiction,
+	 *                                         the first such Context becomes the
+	 *                                         conflicting one.
+	 * @throws NodeNotFoundInNetworkException
+	 */
+	public static Hashtable<String, Context> addPropsToContexts(Collection<String> contextNames, PropositionSet hyps)
+			throws ContextNameDoesntExistException, NotAPropositionNodeException, NodeNotFoundInNetworkException,
+			ContradictionFoundException, DuplicatePropositionException {
+		ArrayList<String> names = new ArrayList<>(new LinkedHashSet<>(contextNames));
+		ArrayList<Context> oldContexts = new ArrayList<>();
+		for (String contextName : names) {
+			Context oldContext = contextSet.getContext(contextName);
+			if (oldContext == null)
+				throw new ContextNameDoesntExistException(contextName);
+			oldContexts.add(oldContext);
+		}
+
+		int[] hypsArr = PropositionSet.getPropsSafely(hyps);
+		PropositionNode[] nodes = new PropositionNode[hypsArr.length];
+		BitSet hypsSupports = new BitSet();
+		for (int i = 0; i < hypsArr.length; i++) {
+			nodes[i] = (PropositionNode) Network.getNodeById(hypsArr[i]);
+			hypsSupports.set(hypsArr[i]);
+			for (PropositionSet support : nodes[i].getAssumptions())
+				for (int j = 0; j < support.size(); j++)
+					hypsSupports.set(support.get(j));
+		}
+
+		ArrayList<Callable<ArrayList<BitSet>>> noGoodTasks = new ArrayList<>();
+		for (PropositionNode node : nodes)
+			noGoodTasks.add(() -> getContradictorySupports(node));
+		ArrayList<BitSet> noGoods = new ArrayList<>();
+		for (ArrayList<BitSet> nodeNoGoods : invokeInBatches(noGoodTasks))
+			noGoods.addAll(nodeNoGoods);
+		minimalNoGoods.addAllMinimal(noGoods);
+
+		ArrayList<Callable<ArrayList<BitSet>>> contextTasks = new ArrayList<>();
+		for (Context oldContext : oldContexts) {
+			BitSet tempContextBitset = oldContext.getHypsBitset();
+			tempContextBitset.or(hypsSupports);
+			contextTasks.add(() -> getConflictingHypsFromMinimalNoGoods(tempContextBitset));
+		}
+		ArrayList<ArrayList<BitSet>> conflicts = invokeInBatches(contextTasks);
+
+		for (int i = 0; i < names.size(); i++) {
+			if (conflicts.get(i) != null) {
+				conflictingContext = names.get(i);
+				conflictingHyps = hyps;
+				throw new ContradictionFoundException(generateNodeSetsFromBitSets(conflicts.get(i)));
+			}
+		}
+
+		for (PropositionNode node : nodes)
+			node.setHyp(true);
+
+		Hashtable<String, Context> newContexts = new Hashtable<>();
+		for (int i = 0; i < names.size(); i++) {
+			String contextName = names.get(i);
+			Context oldContext = oldContexts.get(i);
+			oldContext.removeName(contextName);
+			Context temp = oldContext.rename(contextName);
+			for (int hyp : hypsArr)
+				if (!temp.getHypsBitmap().contains(hyp))
+					temp = new Context(contextName, temp, hyp);
+			newContexts.put(contextName, contextSet.add(temp));
+			AnswerCache.contextChanged(contextName);
+		}
+		return newContexts;
+	}
+
+	/**
+	 * Splits the given tasks into at most one batch per worker of the common
+	 * ForkJoinPool, runs every batch as a single task that calls its tasks in
+	 * order, and returns the results in the order of the tasks.
+	 */
+	private static <T> ArrayList<T> invokeInBatches(List<Callable<T>> tasks)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<T> results = new ArrayList<>();
+		if (tasks.isEmpty())
+			return results;
+		int batchSize = (tasks.size() + ForkJoinPool.getCommonPoolParallelism() - 1)
+				/ ForkJoinPool.getCommonPoolParallelism();
+		ArrayList<Callable<ArrayList<T>>> batches = new ArrayList<>();
+		for (int from = 0; from < tasks.size(); from += batchSize) {
+			List<Callable<T>> batch = tasks.subList(from, Math.min(from + batchSize, tasks.size()));
+			batches.add(() -> {
+				ArrayList<T> batchResults = new ArrayList<>();
+				for (Callable<T> task : batch)
+					batchResults.add(task.call());
+				return batchResults;
+			});
+		}
+		for (ArrayList<T> batchResults : invokeInParallel(batches))
+			results.addAll(batchResults);
+		return results;
+	}
+
+	/**
+	 * Runs the given tasks on the common ForkJoinPool and returns their results in
+	 * the order of the tasks, rethrowing the checked exceptions of SNeBR thrown by
+	 * any of them.
+	 */
+	private static <T> ArrayList<T> invokeInParallel(Collection<Callable<T>> tasks)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<T> results = new ArrayList<>();
+		for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+			try {
+				results.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof NotAPropositionNodeException)
+					throw (NotAPropositionNodeException) cause;
+				if (cause instanceof NodeNotFoundInNetworkException)
+					throw (NodeNotFoundInNetworkException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw new IllegalStateException(cause);
+			}
+		}
+		return results;
+	}
+
+	public static NoGoodStore getMinimalNoGoods() {
 		return minimalNoGoods;
 	}
 
+	/**
+	 * Called by Support whenever the assumption supports of a node change, so that
+	 * the beliefs cached by the contexts of SNeBR, and the answers cached for them,
+	 * stay up to date. A context whose belief in the node changed has all of its
+	 * answers invalidated, any other context only the answers about the node and
+	 * the nodes justified by it.
+	 *
+	 * @param node the node whose assumption supports changed
+	 */
+	public static void assumptionsChanged(PropositionNode node) {
+		Hashtable<Context, Boolean> beliefChanged = new Hashtable<Context, Boolean>();
+		Set<Integer> dependents = null;
+		for (String contextName : contextSet.getNames()) {
+			Context c = contextSet.getContext(contextName);
+			Boolean changed = beliefChanged.get(c);
+			if (changed == null) {
+				changed = c.refreshDerivedBelief(node);
+				beliefChanged.put(c, changed);
+			}
+			if (changed)
+				AnswerCache.contextChanged(contextName);
+			else {
+				if (dependents == null)
+					dependents = getJustifiedBy(node.getId());
+				AnswerCache.nodesChanged(contextName, dependents);
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of a node together with the ids of the nodes justified by it,
+	 * directly or through other nodes.
+	 *
+	 * @param nodeId
+	 * @return Set<Integer>
+	 */
+	private static Set<Integer> getJustifiedBy(int nodeId) {
+		HashSet<Integer> visited = new HashSet<Integer>();
+		ArrayDeque<Integer> toVisit = new ArrayDeque<Integer>();
+		visited.add(nodeId);
+		toVisit.add(nodeId);
+		while (!toVisit.isEmpty())
+			for (int dependent : SupportIndex.getJustificationDependents(toVisit.poll()))
+				if (visited.add(dependent))
+					toVisit.add(dependent);
+		return visited;
+	}
+
 	/**
 	 * Asserts a hyp in the current Context
 	 *
@@ -309,7 +522,7 @@ public class Controller {
 		boolean first = true;
 		for (Context c : contextSet.getContexts()) {
 			if (first) {
-				p = new PropositionSet(PropositionSet.getPropsSafely(c.getHypothesisSet()));
+				p = c.getHypothesisSet();
 				first = false;
 			} else
 				p = p.union(c.getHypothesisSet());
@@ -384,12 +597,8 @@ public class Controller {
 	 */
 	public static ArrayList<BitSet> getConflictingHypsFromMinimalNoGoods(BitSet contextBitset) {
 		ArrayList<BitSet> conflictingHypsInContext = new ArrayList<>();
-		for (BitSet bitSet : minimalNoGoods) {
-			BitSet temp = (BitSet) bitSet.clone();
-			temp.and(contextBitset);
-			if (temp.equals(bitSet))
-				conflictingHypsInContext.add(temp);
-		}
+		for (BitSet bitSet : minimalNoGoods.getSubsetsOf(contextBitset))
+			conflictingHypsInContext.add((BitSet) bitSet.clone());
 		if (conflictingHypsInContext.size() > 0)
 			return conflictingHypsInContext;
 		return null;
@@ -441,45 +650,12 @@ public class Controller {
 	public static ArrayList<NodeSet> getConflictingHypsCollectionForNegating(PropositionNode negatingNode,
 			DownCable arg, BitSet tempContextBitset)
 			throws NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException {
-		Collection<PropositionSet> negatingPropSupports = negatingNode.getAssumptionBasedSupport().values();
-		Collection<PropositionSet> combinedContradictorySupports = new ArrayList<>();
-
-		for (Node dominatedNode : arg.getNodeSet()) {
-			Collection<PropositionSet> negatedNodeSupports = ((PropositionNode) dominatedNode)
-					.getAssumptionBasedSupport().values();
-			combinedContradictorySupports.addAll(combine(negatingPropSupports, negatedNodeSupports));
-		}
-
 		/* add to minimalNoGoods */
-		Collection<BitSet> combinedContradictorySupportsBitSetCollection = generateBitSetsFromPropositionSets(
-				combinedContradictorySupports);
-
-//        to avoid ConcurrentModificationException
-		ArrayList<BitSet> minimalNoGoodsClone = (ArrayList<BitSet>) minimalNoGoods.clone();
-
-		for (BitSet bitSet : combinedContradictorySupportsBitSetCollection) {
-			boolean intersects = false;
-			for (BitSet bitSet1 : minimalNoGoodsClone) {
-				BitSet temp = (BitSet) bitSet.clone();
-				temp.and(bitSet1);
-				if (temp.equals(bitSet)) {
-					int index = minimalNoGoods.indexOf(bitSet1);
-					if (intersects)
-						minimalNoGoods.remove(index);
-					else {
-						minimalNoGoods.remove(index);
-						minimalNoGoods.add(index, temp);
-						intersects = true;
-					}
-
-				} else if (temp.equals(bitSet1)) {
-					intersects = true;
-					break;
-				}
-			}
-			if (!intersects)
-				minimalNoGoods.add(bitSet);
-		}
+		Collection<BitSet> combinedContradictorySupportsBitSetCollection = getContradictorySupportsForNegating(
+				negatingNode, arg);
+
+		for (BitSet bitSet : combinedContradictorySupportsBitSetCollection)
+			minimalNoGoods.addMinimal(bitSet);
 
 		ArrayList<BitSet> conlifctingHypsInContextCollection = getConflictingHypsFromMinimalNoGoods(tempContextBitset);
 		if (conlifctingHypsInContextCollection != null)
@@ -492,42 +668,12 @@ public class Controller {
 	public static ArrayList<NodeSet> getConflictingHypsCollectionForNegated(PropositionNode negatedNode, UpCable arg,
 			BitSet tempContextBitset)
 			throws NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException {
-		PropositionNode negatingNode = (PropositionNode) arg.getNodeSet().getNode(0);
-		Collection<PropositionSet> negatedPropSupports = negatedNode.getAssumptionBasedSupport().values();
-		Collection<PropositionSet> negatingPropSupports = negatingNode.getAssumptionBasedSupport().values();
-
-		Collection<PropositionSet> combinedContradictorySupports = combine(negatingPropSupports, negatedPropSupports);
-
 		/* add to minimalNoGoods */
-		Collection<BitSet> combinedContradictorySupportsBitSetCollection = generateBitSetsFromPropositionSets(
-				combinedContradictorySupports);
-
-//        to avoid ConcurrentModificationException
-		ArrayList<BitSet> minimalNoGoodsClone = (ArrayList<BitSet>) minimalNoGoods.clone();
-
-		for (BitSet bitSet : combinedContradictorySupportsBitSetCollection) {
-			boolean intersects = false;
-			for (BitSet bitSet1 : minimalNoGoodsClone) {
-				BitSet temp = (BitSet) bitSet.clone();
-				temp.and(bitSet1);
-				if (temp.equals(bitSet)) {
-					int index = minimalNoGoods.indexOf(bitSet1);
-					if (intersects)
-						minimalNoGoods.remove(index);
-					else {
-						minimalNoGoods.remove(index);
-						minimalNoGoods.add(index, temp);
-						intersects = true;
-					}
-
-				} else if (temp.equals(bitSet1)) {
-					intersects = true;
-					break;
-				}
-			}
-			if (!intersects)
-				minimalNoGoods.add(bitSet);
-		}
+		Collection<BitSet> combinedContradictorySupportsBitSetCollection = getContradictorySupportsForNegated(
+				negatedNode, arg);
+
+		for (BitSet bitSet : combinedContradictorySupportsBitSetCollection)
+			minimalNoGoods.addMinimal(bitSet);
 
 		ArrayList<BitSet> conlifctingHypsInContextCollection = getConflictingHypsFromMinimalNoGoods(tempContextBitset);
 		if (conlifctingHypsInContextCollection != null)
@@ -536,6 +682,77 @@ public class Controller {
 			return null;
 	}
 
+	/**
+	 * Combines the supports of a negating node with the supports of each of the
+	 * nodes it negates, without touching the minimalNoGoods.
+	 *
+	 * @param negatingNode
+	 * @param arg          Downcable having the negated nodes.
+	 * @return the combined contradictory supports as BitSets.
+	 * @throws NotAPropositionNodeException
+	 * @throws NodeNotFoundInNetworkException
+	 */
+	private static ArrayList<BitSet> getContradictorySupportsForNegating(PropositionNode negatingNode, DownCable arg)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		Collection<PropositionSet> negatingPropSupports = negatingNode.getAssumptions();
+		Collection<PropositionSet> combinedContradictorySupports = new ArrayList<>();
+
+		for (Node dominatedNode : arg.getNodeSet()) {
+			Collection<PropositionSet> negatedNodeSupports = ((PropositionNode) dominatedNode)
+					.getAssumptions();
+			combinedContradictorySupports.addAll(combine(negatingPropSupports, negatedNodeSupports));
+		}
+		return generateBitSetsFromPropositionSets(combinedContradictorySupports);
+	}
+
+	/**
+	 * Combines the supports of a negated node with the supports of the node
+	 * negating it, without touching the minimalNoGoods.
+	 *
+	 * @param negatedNode
+	 * @param arg         Upcable having the negating node.
+	 * @return the combined contradictory supports as BitSets.
+	 * @throws NotAPropositionNodeException
+	 * @throws NodeNotFoundInNetworkException
+	 */
+	private static ArrayList<BitSet> getContradictorySupportsForNegated(PropositionNode negatedNode, UpCable arg)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		PropositionNode negatingNode = (PropositionNode) arg.getNodeSet().getNode(0);
+		Collection<PropositionSet> negatedPropSupports = negatedNode.getAssumptions();
+		Collection<PropositionSet> negatingPropSupports = negatingNode.getAssumptions();
+
+		return generateBitSetsFromPropositionSets(combine(negatingPropSupports, negatedPropSupports));
+	}
+
+	/**
+	 * Returns the combined supports of a node and every node negating it or negated
+	 * by it, i.e. the candidate nogoods introduced by asserting the node. This only
+	 * reads the Network and the supports, so it is safe to call concurrently for
+	 * different nodes.
+	 *
+	 * @param node
+	 * @return ArrayList of the candidate nogoods as BitSets.
+	 * @throws NotAPropositionNodeException
+	 * @throws NodeNotFoundInNetworkException
+	 */
+	private static ArrayList<BitSet> getContradictorySupports(PropositionNode node)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<BitSet> contradictorySupports = new ArrayList<>();
+		if (node.getTerm() instanceof Molecular) {
+			Hashtable<String, DownCable> downCables = ((Molecular) node.getTerm()).getDownCableSet().getDownCables();
+			DownCable arg = downCables.get("arg");
+			if (negationExists(downCables.get("min"), downCables.get("max"), arg))
+				contradictorySupports.addAll(getContradictorySupportsForNegating(node, arg));
+		}
+		UpCableSet up = node.getUpCableSet();
+		if (up.getUpCables().size() > 0) {
+			UpCable arg = up.getUpCable("arg");
+			if (negationExists(up.getUpCable("min"), up.getUpCable("max"), arg))
+				contradictorySupports.addAll(getContradictorySupportsForNegated(node, arg));
+		}
+		return contradictorySupports;
+	}
+
 	/**
 	 * Checks if some node's addition to a context c introduces a contradiction.
 	 *
@@ -550,22 +767,33 @@ public class Controller {
 	 */
 	public static ArrayList<NodeSet> checkForContradiction(PropositionNode node, Context c, boolean skipCache)
 			throws NodeNotFoundInNetworkException, DuplicatePropositionException, NotAPropositionNodeException {
+		SNeBREvents.CheckForContradiction event = new SNeBREvents.CheckForContradiction();
+		event.begin();
+		ArrayList<NodeSet> contradictions;
 
 		if (c.getNames().contains(conflictingContext)) {
 			checkForContradictionCore(node, c, true);
-			return checkForContradictionCore(node, c, false);
+			contradictions = checkForContradictionCore(node, c, false);
+		} else
+			contradictions = checkForContradictionCore(node, c, skipCache);
+
+		if (event.shouldCommit()) {
+			event.node = node.getId();
+			event.contextHyps = c.getHypsBitmap().cardinality();
+			event.noGoodStoreSize = skipCache ? 0 : minimalNoGoods.size();
+			event.contradictions = contradictions == null ? 0 : contradictions.size();
+			event.commit();
 		}
-
-		return checkForContradictionCore(node, c, skipCache);
+		return contradictions;
 	}
 
 	public static ArrayList<NodeSet> checkForContradictionCore(PropositionNode node, Context c, boolean skipCache)
 			throws NodeNotFoundInNetworkException, DuplicatePropositionException, NotAPropositionNodeException {
 
-		// add prop supports to a clone of the context's bitset
-		BitSet tempContextBitset = (BitSet) c.getHypsBitset().clone();
+		// add prop supports to a copy of the context's bitset
+		BitSet tempContextBitset = c.getHypsBitset();
 
-		Collection<PropositionSet> propsCollection = node.getAssumptionBasedSupport().values();
+		Collection<PropositionSet> propsCollection = node.getAssumptions();
 
 		for (PropositionSet propSet : propsCollection) {
 			int[] props = PropositionSet.getPropsSafely(propSet);
@@ -628,9 +856,17 @@ public class Controller {
      * @throws DuplicatePropositionException
      */
     public static void handleContradiction(PropositionSet hypsToBeRemoved, boolean ignore) throws NodeNotFoundInNetworkException, NotAPropositionNodeException, ContextNameDoesntExistException, NodeNotFoundInPropSetException, DuplicatePropositionException {
+        SNeBREvents.HandleContradiction event = new SNeBREvents.HandleContradiction();
+        event.begin();
+        event.context = conflictingContext;
+        event.ignored = ignore;
+        event.hypsRemoved = ignore || hypsToBeRemoved == null ? 0 : hypsToBeRemoved.size();
         if (ignore) {
-            Context inconsistentContext = new Context(conflictingContext, contextSet.getContext(conflictingContext).getHypothesisSet().union(conflictingHyps));
+            Context conflicting = contextSet.getContext(conflictingContext);
+            Context inconsistentContext = Context.withHyps(conflictingContext, conflicting, conflicting.getHypothesisSet().union(conflictingHyps));
             contextSet.add(inconsistentContext);
+            AnswerCache.contextChanged(conflictingContext);
+            event.commit();
             return;
         }
         else {
@@ -638,13 +874,15 @@ public class Controller {
             if (hypsToBeRemoved != null) {
                 removeHypsFromContext(hypsToBeRemoved, conflictingContext);
                 PropositionSet modifiedHyps = conflictingHyps.removeProps(hypsToBeRemoved);
-                Context resolvedContext = new Context(conflictingContext, contextSet.getContext(conflictingContext).getHypothesisSet().union(modifiedHyps));
+                Context resolved = contextSet.getContext(conflictingContext);
+                Context resolvedContext = Context.withHyps(conflictingContext, resolved, resolved.getHypothesisSet().union(modifiedHyps));
                 contextSet.add(resolvedContext);
+                AnswerCache.contextChanged(conflictingContext);
             }
             conflictingContext = null;
             conflictingHyps = null;
         }
-
+        event.commit();
     }
 
     /**
@@ -659,9 +897,10 @@ public class Controller {
     public static Context removeHypsFromContext(PropositionSet hyps, String contextName) throws ContextNameDoesntExistException, NotAPropositionNodeException, NodeNotFoundInNetworkException{
         Context c = contextSet.getContext(contextName);
         if (c == null) throw new ContextNameDoesntExistException(contextName);
-        PropositionSet propSet = c.getHypothesisSet().removeProps(hyps);
-        c = new Context(contextName, propSet);
-        return contextSet.add(c);
+        c = contextSet.add(new Context(contextName, c, hyps));
+        AnswerCache.contextChanged(contextName);
+        ReteNetwork.contextChanged(contextName, c);
+        return c;
     /*
         c =  contextSet.add(c);
         Network.defineDefaults();
@@ -686,8 +925,11 @@ public class Controller {
     public static void removePropositionFromAllContexts(PropositionNode node) throws NodeNotFoundInPropSetException, NotAPropositionNodeException, NodeNotFoundInNetworkException {
         int hyp = node.getId();
         for (String contextName: contextSet.getNames()) {
-            Context c = new Context(contextName, contextSet.getContext(contextName).getHypothesisSet().remove(hyp));
+            Context old = contextSet.getContext(contextName);
+            Context c = Context.withHyps(contextName, old, old.getHypothesisSet().remove(hyp));
             contextSet.add(c);
+            AnswerCache.contextChanged(contextName);
+            ReteNetwork.contextChanged(contextName, c);
             /*c = contextSet.add(c);
             Network.defineDefaults();
             if (conflictingContext != null && contextName == conflictingContext) {
@@ -750,43 +992,24 @@ public class Controller {
 
     }
 
-    @SuppressWarnings("unchecked")
-	public static BaseSupportGraph GTrim(BaseSupportGraph G) throws Exception {
-    	GTrimHelper(G, G.getGraphSize());
+    /**
+     * Trims a base support graph by repeatedly removing the vertices having no
+     * outgoing edge, in time linear in the size of the graph.
+     * @param G
+     * @return G
+     */
+	public static BaseSupportGraph GTrim(BaseSupportGraph G) {
+    	G.trim();
     	return G;
     }
 
-    @SuppressWarnings("unchecked")
-	public static void GTrimHelper(BaseSupportGraph G, int previousGraphSize) throws Exception{
-
-    	LinkedList<LinkedList<GraphNode>> hypsList = G.getHypsAdjList();
-    	LinkedList<LinkedList<GraphNode>> supportsList = G.getSupportsAdjList();
-
-    	for (Iterator iter = hypsList.iterator(); iter.hasNext();){
-    		LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-    		if(currentRow.size() <= 1){
-    			GraphNode currentNode = currentRow.peek(); // gets the first element of the list (the Node to be removed)
-    			G.removeFromHypList(currentNode);
-    		}
-    	}
-
-    	for (Iterator iter = supportsList.iterator(); iter.hasNext();){
-    		LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-    		if(currentRow.size() <=1){
-    			GraphNode currentSupport = currentRow.peek(); // gets the first element of the list (the Support to be removed)
-    			G.removeFromSupportList(currentSupport);
-    		}
-
-    	}
-
-    	if(G.getGraphSize() == previousGraphSize){
-    		return;
-    	} else {
-    		GTrimHelper(G, G.getGraphSize());
-    	}
-    }
-
-    public static BaseSupportGraph RGTrim(BaseSupportGraph G) throws Exception {
+    /**
+     * Trims a base support graph by repeatedly removing the vertices having no
+     * incoming edge.
+     * @param G
+     * @return G
+     */
+    public static BaseSupportGraph RGTrim(BaseSupportGraph G) {
 
     	return (GTrim(G.reverseGraph())).reverseGraph();
 
@@ -796,21 +1019,19 @@ public class Controller {
     	int[] result = new int[2];
     	int noOfOccurancesInJustifications = 0;
     	int noOfOccurancesInAssumptions = 0;
-    	Hashtable<String, PropositionNode> propositionNodes = Network.getPropositionNodes();
-    	Set<String> nodeKeySet = propositionNodes.keySet();
     	PropositionSet currNode = new PropositionSet(nodeToBeChecked.getId());
-    	for(String key : nodeKeySet){
-    		Hashtable<String, PropositionSet> currJustificationSupport = propositionNodes.get(key).getJustificationSupport();
-    		Set<String> justsKeySet = currJustificationSupport.keySet();
-    		for(String jKey : justsKeySet){
-        		if(currNode.isSubSet(currJustificationSupport.get(jKey))){
+    	for(int parentId : SupportIndex.getJustificationDependents(nodeToBeChecked.getId())){
+    		Collection<PropositionSet> currJustificationSupport = ((PropositionNode) Network.getNodeById(parentId)).getJustifications();
+    		for(PropositionSet justification : currJustificationSupport){
+        		if(currNode.isSubSet(justification)){
         			noOfOccurancesInJustifications++;
         		}
     		}
-    		Hashtable<String, PropositionSet> currAssumptionBasedSupport = propositionNodes.get(key).getAssumptionBasedSupport();
-    		Set<String> assumptionsKeySet = currAssumptionBasedSupport.keySet();
-    		for(String aKey : assumptionsKeySet){
-        		if(currNode.isSubSet(currAssumptionBasedSupport.get(aKey))){
+    	}
+    	for(int dependentId : SupportIndex.getAssumptionDependents(nodeToBeChecked.getId())){
+    		Collection<PropositionSet> currAssumptionBasedSupport = ((PropositionNode) Network.getNodeById(dependentId)).getAssumptions();
+    		for(PropositionSet assumption : currAssumptionBasedSupport){
+        		if(currNode.isSubSet(assumption)){
         			noOfOccurancesInAssumptions++;
         		}
     		}
@@ -853,40 +1074,32 @@ public class Controller {
     				PropositionSet toBeRemovedPropSet = new PropositionSet(toBeRemovedId);
     				if(i == 0) {
     					currParent.setHyp(true);
-    	   				Hashtable<String, PropositionSet> justSupp = currParent.getJustificationSupport();
-        				Set<String> justKeySet = justSupp.keySet();
-        				for(String justKey : justKeySet){
-        					PropositionSet currJust = justSupp.get(justKey);
+        				for(PropositionSet currJust : new ArrayList<PropositionSet>(currParent.getJustifications())){
         					if(toBeRemovedPropSet.isSubSet(currJust)){
-        						if(justSupp.size() > 1 ) {
+        						if(currParent.getJustifications().size() > 1 ) {
             						supportsToBeReplaced.add(currJust);
             						replacerParents.add(currParent.getId());
-            						justSupp.remove(justKey);
+            						currParent.getBasicSupport().removeJustification(currJust);
         						}
         					}
         				}
 
-        				Hashtable<String, PropositionSet> assumpSupp = currParent.getAssumptionBasedSupport();
-        				Set<String> assumpKeySet = assumpSupp.keySet();
-        				for(String assumpKey : assumpKeySet){
-        					PropositionSet currAssump = assumpSupp.get(assumpKey);
+        				for(PropositionSet currAssump : new ArrayList<PropositionSet>(currParent.getAssumptions())){
         					if(toBeRemovedPropSet.isSubSet(currAssump)){
-        						assumpSupp.remove(assumpKey);
+        						currParent.getBasicSupport().removeAssumption(currAssump);
         					}
         				}
     				} else {
-        				Hashtable<String, PropositionSet> assumpSupp = currParent.getAssumptionBasedSupport();
-        				Set<String> assumpKeySet = assumpSupp.keySet();
-        				for(String assumpKey : assumpKeySet){
-        					PropositionSet currAssump = assumpSupp.get(assumpKey);
+        				for(PropositionSet currAssump : new ArrayList<PropositionSet>(currParent.getAssumptions())){
+        					PropositionSet replacedAssump = currAssump;
         					for(int k = 0; k < supportsToBeReplaced.size(); k++){
         						PropositionSet suppToBeReplaced = supportsToBeReplaced.get(k);
-            					if(suppToBeReplaced.isSubSet(currAssump)){
-            						currAssump.removeProps(suppToBeReplaced);
-            						currAssump.add(replacerParents.get(k));
-
+            					if(suppToBeReplaced.isSubSet(replacedAssump)){
+            						replacedAssump = replacedAssump.removeProps(suppToBeReplaced).union(new PropositionSet(replacerParents.get(k)));
             					}
         					}
+        					if(replacedAssump != currAssump)
+        						currParent.getBasicSupport().replaceAssumption(currAssump, replacedAssump);
         				}
     				}
     			}
@@ -923,24 +1136,8 @@ public class Controller {
     }
 
     public static ArrayList<Integer> getDirectParents(PropositionNode child) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
-    	ArrayList<Integer> result = new ArrayList<Integer>();
-    	Hashtable<String, PropositionNode> propositionNodes = Network.getPropositionNodes();
-    	Set<String> nodesKeySet = propositionNodes.keySet();
-    	PropositionSet childPropSet = new PropositionSet(child.getId());
-
-    	for(String NodeKey : nodesKeySet) {
-    		PropositionNode currNode = propositionNodes.get(NodeKey);
-    		Hashtable<String, PropositionSet> currJustSupp = currNode.getJustificationSupport();
-    		Set<String> suppsKeySet = currJustSupp.keySet();
-    		for(String suppKey : suppsKeySet) {
-    			PropositionSet currSet = currJustSupp.get(suppKey);
-    			if(childPropSet.isSubSet(currSet)){
-    				result.add(currNode.getId());
-    				break;
-    			}
-    		}
-    	}
-
+    	ArrayList<Integer> result = new ArrayList<Integer>(SupportIndex.getJustificationDependents(child.getId()));
+    	Collections.sort(result);
 
     	return result;
     }
@@ -955,169 +1152,79 @@ public class Controller {
     }
 
 
-    public static ArrayList<ArrayList<Integer>> findTriplets(BaseSupportGraph G) {
-
-    	ArrayList<ArrayList<Integer>> result = new  ArrayList<ArrayList<Integer>>();
-    	LinkedList<LinkedList<GraphNode>> hypsList = G.getHypsAdjList();
-    	LinkedList<LinkedList<GraphNode>> supportsList = G.getSupportsAdjList();
-
-    	for(Iterator iter = hypsList.iterator(); iter.hasNext();){
-    		ArrayList<Integer> path = new ArrayList<Integer>();
-    		LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-    		GraphNode firstNode = currentRow.getFirst();
-    		int i = 0;
-    		path.add(firstNode.getGraphId());
-    		for(Iterator it = currentRow.iterator(); it.hasNext();){
-    			GraphNode currentSuppNode = (GraphNode) it.next();
-    			if(i > 0){
-    				path.add(currentSuppNode.getGraphId());
-    				for (Iterator iterator = supportsList.iterator(); iterator.hasNext();) {
-    					LinkedList<GraphNode> currSupportRow = (LinkedList<GraphNode>) iterator.next();
-    					GraphNode currSupport = currSupportRow.getFirst();
-    					if(currSupport.equals(currentSuppNode)){
-    						int j = 0;
-    						for (Iterator itr = currSupportRow.iterator(); itr.hasNext();){
-    							GraphNode currPropNode = (GraphNode) itr.next();
-    							if(j>0){
-    								path.add(currPropNode.getGraphId());
-    								result.add(path);
-    								path.remove(path.size()-1);
-    							}
-    							i++;
-    						}
-    						path.remove(path.size()-1);
-    						break;
-    					}
-    				}
-    			}
-    			i++;
-    		}
-
-    	}
-
-    	for(Iterator iter = supportsList.iterator(); iter.hasNext();){
-    		ArrayList<Integer> path = new ArrayList<Integer>();
-    		LinkedList<GraphNode> currentRow = (LinkedList<GraphNode>) iter.next();
-    		GraphNode firstNode = currentRow.getFirst();
-    		int i = 0;
-    		path.add(firstNode.getGraphId());
-    		for(Iterator it = currentRow.iterator(); it.hasNext();){
-    			GraphNode currentPropNode = (GraphNode) it.next();
-    			if(i > 0){
-    				path.add(currentPropNode.getGraphId());
-    				for (Iterator iterator = hypsList.iterator(); iterator.hasNext();) {
-    					LinkedList<GraphNode> currPropRow = (LinkedList<GraphNode>) iterator.next();
-    					GraphNode currProp = currPropRow.getFirst();
-    					if(currProp.equals(currentPropNode)){
-    						int j = 0;
-    						for (Iterator itr = currPropRow.iterator(); itr.hasNext();){
-    							GraphNode currSuppNode = (GraphNode) itr.next();
-    							if(j>0){
-    								path.add(currSuppNode.getGraphId());
-    								result.add(path);
-    								path.remove(path.size()-1);
-    							}
-    							i++;
-    						}
-    						path.remove(path.size()-1);
-    						break;
-    					}
-    				}
-    			}
-    			i++;
-    		}
-
-    	}
-
-		return result;
-
+    public static ArrayList<ArrayList<Integer>> findChordlessCycles(BaseSupportGraph G){
+    	return G.findChordlessCycles();
     }
 
-    public static ArrayList<ArrayList<Integer>> findChordlessCycles(BaseSupportGraph G){
-    	ArrayList<ArrayList<Integer>> paths = findTriplets(G);
-    	ArrayList<ArrayList<Integer>> chs = new ArrayList<ArrayList<Integer>>();
-    	ArrayList<Integer> m;
-
-    	boolean chord;
-
-    	while(!(paths.isEmpty())) {
-    		for(int i = 0; i < paths.size(); i++) {
-    			m = paths.get(i);
-    			paths.remove(i);
-    			LinkedList<GraphNode> adjNodes = getListofAdjacentNodes(G, m.get(m.size()-1));
-    			for(int j = 0; j < adjNodes.size(); i++) {
-    				GraphNode k = adjNodes.get(j);
-    				chord = false;
-    				for(int c = 1 ; c < m.size(); c++){
-    					GraphNode tmpNode = G.getGraphNodeById(m.get(c));
-    					if(G.goesTo(k, tmpNode) || G.goesTo(tmpNode, k)){
-    						chord = true;
-    					}
-    				}
-	    			if (chord == false) {
-	    				m.add(k.getGraphId());
-	    				if(G.goesTo(k, G.getGraphNodeById(m.get(0)))) {
-	    					chs.add(getPropNodesFromPath(G, m));
-	    				} else {
-	    					paths.add(m);
-	    				}
-	    			}
-    			}
+    public static ArrayList<Integer> findHittingSet(ArrayList<ArrayList<Integer>> sets) { //greedy hitting set algorithm
+    	HittingSetSolver solver = new HittingSetSolver(HittingSetSolver.Mode.GREEDY);
+    	for(ArrayList<Integer> set : sets) {
+    		BitSet bits = new BitSet();
+    		for(int element : set) {
+    			bits.set(element);
+    		}
+    		if(!bits.isEmpty()) {
+    			solver.addSet(bits);
     		}
     	}
-
-    	return chs;
+    	ArrayList<Integer> result = new ArrayList<Integer>();
+    	BitSet hittingSet = solver.getHittingSet();
+    	for(int i = hittingSet.nextSetBit(0); i >= 0; i = hittingSet.nextSetBit(i + 1)) {
+    		result.add(i);
+    	}
+    	return result;
     }
 
-    public static LinkedList<GraphNode> getListofAdjacentNodes(BaseSupportGraph G, int node){
-    	GraphNode tmp = G.getGraphNodeById(node);
-    	if(tmp.getType() == 0) {
-    		LinkedList<LinkedList<GraphNode>> list = G.getHypsAdjList();
-    		for (int i = 0; i < list.size(); i++) {
-    			LinkedList<GraphNode> currRow = list.get(i);
-    			if((currRow.getFirst()).equals(tmp)){
-    				return currRow;
-    			}
+    /**
+     * Selects the culprits of a contradiction: a set of hyps, of least total
+     * entrenchment, such that retracting them leaves none of the contradictory
+     * sets of hyps asserted. The culprits are selected greedily unless exact
+     * selection is turned on by setExactCulpritSelection, the exact search is
+     * bounded by HittingSetSolver.DEFAULT_BRANCH_LIMIT branches and falls back to
+     * the best culprits found when it runs out of them.
+     * @param contradictoryHyps the sets of hyps of a ContradictionFoundException.
+     * @return the culprits as a PropositionSet.
+     * @throws NotAPropositionNodeException
+     * @throws NodeNotFoundInNetworkException
+     */
+    public static PropositionSet selectCulprits(ArrayList<NodeSet> contradictoryHyps) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+    	HittingSetSolver solver = new HittingSetSolver(exactCulpritSelection ? HittingSetSolver.Mode.EXACT : HittingSetSolver.Mode.GREEDY, Controller::getEntrenchment);
+    	for(NodeSet hyps : contradictoryHyps) {
+    		BitSet bits = new BitSet();
+    		for(Node hyp : hyps) {
+    			bits.set(hyp.getId());
     		}
-    	} else {
-    		LinkedList<LinkedList<GraphNode>> list = G.getSupportsAdjList();
-    		for (int i = 0; i < list.size(); i++) {
-    			LinkedList<GraphNode> currRow = list.get(i);
-    			if((currRow.getFirst()).equals(tmp)){
-    				return currRow;
-    			}
+    		if(!bits.isEmpty()) {
+    			solver.addSet(bits);
     		}
     	}
-		return null;
-
+    	return new PropositionSet(solver.getHittingSet().stream().toArray());
     }
 
-    public static ArrayList<Integer> getPropNodesFromPath(BaseSupportGraph G, ArrayList<Integer> m) {
-
-    	for(int i = 0; i < m.size(); i++){
-    		GraphNode tmp = G.getGraphNodeById(m.get(i));
-    		if(tmp.getType() == 1){
-    			m.remove(i);
-    		}
+    /**
+     * Sets the entrenchment of a hyp, the cost of retracting it during automatic
+     * belief revision, hyps that were not given one have an entrenchment of 1.
+     * @param hyp
+     * @param entrenchment a positive weight.
+     */
+    public static void setEntrenchment(int hyp, double entrenchment) {
+    	if(!(entrenchment > 0)) {
+    		throw new IllegalArgumentException("Entrenchment must be positive: " + entrenchment);
     	}
-    	return m;
+    	entrenchments.put(hyp, entrenchment);
     }
 
-    public static ArrayList<Integer> findHittingSet(ArrayList<ArrayList<Integer>> sets) { //greedy hitting set algorithm
-    	ArrayList<Integer> result = new ArrayList<Integer>();
-
-    	while(!(sets.isEmpty())){
-    		int mode = mostCommonElement(sets);
-        	for(int i = 0; i < sets.size(); i++) {
-        		if(sets.get(i).contains(mode)) {
-        			sets.remove(i);
-        		}
-        	}
-    		result.add(mode);
-    	}
+    public static double getEntrenchment(int hyp) {
+    	Double entrenchment = entrenchments.get(hyp);
+    	return entrenchment == null ? 1 : entrenchment;
+    }
 
+    public static boolean isExactCulpritSelection() {
+    	return exactCulpritSelection;
+    }
 
-    	return result;
+    public static void setExactCulpritSelection(boolean exactCulpritSelection) {
+    	Controller.exactCulpritSelection = exactCulpritSelection;
     }
 
     public static void BCompression() throws Exception{
@@ -1127,53 +1234,14 @@ public class Controller {
 		ArrayList<ArrayList<Integer>> chordlessCycles = findChordlessCycles(G);
 		ArrayList<Integer> nodesToBeKept = findHittingSet(chordlessCycles);
 
-		Hashtable<String, PropositionNode> propositionNodes = Network.getPropositionNodes();
-		Set<String> keySet = propositionNodes.keySet();
-		for(String key : keySet) {
-			PropositionNode currNode = propositionNodes.get(key);
+		ArrayList<PropositionNode> propositionNodes = new ArrayList<PropositionNode>(Network.getPropositionNodes().values());
+		for(PropositionNode currNode : propositionNodes) {
 			if(!(nodesToBeKept.contains(currNode.getId()))) {
 				Network.removeNode(currNode);
 			}
 		}
     }
 
-    public static int mostCommonElement(ArrayList<ArrayList<Integer>> sets){ //revise //efficiency 0
-    	int maxValue = 0;
-    	ArrayList<Integer> superSet = new ArrayList<Integer>();
-    	for(int i = 0; i < sets.size(); i++) {
-    		ArrayList<Integer> currSet = sets.get(i);
-    		for(int j = 0; j < currSet.size(); j++) {
-    			if(currSet.get(j) > maxValue){
-    				maxValue = currSet.get(j);
-    			}
-    			superSet.add(currSet.get(j));
-    		}
-    	}
-    	int[] maxVals = new int[maxValue];
-
-    	for(int i = 0; i < superSet.size(); i++){
-    		int currElement = superSet.get(i);
-    		for(int j = 0; j < superSet.size(); j++) {
-    			int tmp = superSet.get(i);
-    			if(currElement == tmp){
-    				maxVals[currElement]++;
-    			}
-    		}
-    	}
-    	int maxCount = 0;
-    	int max = 0;
-    	for(int i = 0; i < maxVals.length; i++) {
-    		if(maxVals[i] > maxCount){
-    			maxCount = maxVals[i];
-    			max = i;
-    		}
-    	}
-
-
-    	return max;
-    }
-
-
     public static void save(String f) throws FileNotFoundException, IOException {
     	ObjectOutputStream cos = new ObjectOutputStream(new FileOutputStream(new File(f)));
 		cos.writeObject(contextSet);
@@ -1184,8 +1252,11 @@ public class Controller {
 		ObjectInputStream cis = new ObjectInputStream(new FileInputStream(new File(f)));
 		ContextSet tempSet = (ContextSet) cis.readObject();
 		Controller.contextSet = tempSet;
+		AnswerCache.clear();
+		ReteNetwork.clearMemories();
 		cis.close();
 		tempSet = null;
+		SupportIndex.rebuild();
     }
 
     public static void main(String[] args) throws NotAPropositionNodeException, NodeNotFoundInNetworkException, IllegalIdentifierException {
@@ -0,0 +1,301 @@
+package sneps.snebr;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Hashtable;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Finds a set of hyps hitting (intersecting) every set of a collection of sets,
+ * e.g. the culprits to retract so that none of the minimal nogoods of a context
+ * is asserted anymore. Every hyp has a positive weight, its entrenchment, and the
+ * solver looks for a hitting set of least total weight, either exactly by branch
+ * and bound or approximately by the greedy algorithm. The exact search starts
+ * from the greedy solution and gives up after a limited number of branches,
+ * keeping the best hitting set found so far, so its worst case stays bounded
+ * however many sets and hyps there are.
+ *
+ * Sets are kept as BitSets of hyps, and every hyp is indexed to the BitSet of the
+ * indices of the sets containing it. A solver is meant for one collection, e.g.
+ * the contradictory sets of hyps of a single contradiction: adding a set after
+ * getting a hitting set makes the next call solve the whole collection again.
+ */
+public class HittingSetSolver {
+	private static final double EPSILON = 1e-9;
+	public static final int DEFAULT_BRANCH_LIMIT = 100000;
+
+	public enum Mode {
+		GREEDY, EXACT
+	}
+
+	private final Mode mode;
+	private final IntToDoubleFunction weights;
+	private ArrayList<BitSet> sets = new ArrayList<BitSet>();
+	private Hashtable<Integer, BitSet> occurrences = new Hashtable<Integer, BitSet>();
+	private Hashtable<Integer, Double> weightOf = new Hashtable<Integer, Double>();
+	private BitSet solution = new BitSet();
+	private double cost;
+	private boolean solved = true;
+	private boolean optimal = true;
+	private int branchLimit = DEFAULT_BRANCH_LIMIT;
+	private int branches;
+
+	/**
+	 * Constructs a solver where all hyps weigh the same, so it looks for a hitting
+	 * set of least cardinality.
+	 *
+	 * @param mode
+	 */
+	public HittingSetSolver(Mode mode) {
+		this(mode, hyp -> 1);
+	}
+
+	/**
+	 * @param mode
+	 * @param weights the entrenchment of each hyp, the cost of having it in the
+	 *                hitting set, which must be positive.
+	 */
+	public HittingSetSolver(Mode mode, IntToDoubleFunction weights) {
+		this.mode = mode;
+		this.weights = weights;
+	}
+
+	/**
+	 * Adds a set to be hit.
+	 *
+	 * @param set a non empty BitSet of hyps
+	 * @throws IllegalArgumentException if the set is empty or one of its hyps has a
+	 *                                  weight that is not positive.
+	 */
+	public void addSet(BitSet set) {
+		if (set.isEmpty())
+			throw new IllegalArgumentException("An empty set cannot be hit");
+		int index = sets.size();
+		BitSet copy = (BitSet) set.clone();
+		for (int hyp = copy.nextSetBit(0); hyp >= 0; hyp = copy.nextSetBit(hyp + 1)) {
+			if (!weightOf.containsKey(hyp)) {
+				double weight = weights.applyAsDouble(hyp);
+				if (!(weight > 0))
+					throw new IllegalArgumentException("The weight of hyp " + hyp + " is not positive: " + weight);
+				weightOf.put(hyp, weight);
+				occurrences.put(hyp, new BitSet());
+			}
+			occurrences.get(hyp).set(index);
+		}
+		sets.add(copy);
+		solved = false;
+	}
+
+	public void addSets(Collection<BitSet> sets) {
+		for (BitSet set : sets)
+			addSet(set);
+	}
+
+	public int size() {
+		return sets.size();
+	}
+
+	/**
+	 * Sets the number of branches after which the exact search stops and keeps
+	 * the best hitting set found so far.
+	 *
+	 * @param branchLimit a positive number of branches
+	 */
+	public void setBranchLimit(int branchLimit) {
+		if (branchLimit <= 0)
+			throw new IllegalArgumentException("The branch limit must be positive: " + branchLimit);
+		this.branchLimit = branchLimit;
+	}
+
+	/**
+	 * @return <code>true</code> if the hitting set returned by getHittingSet is
+	 *         known to be of least weight, that is in exact mode unless the search
+	 *         was stopped by the branch limit.
+	 */
+	public boolean isOptimal() {
+		solve();
+		return optimal;
+	}
+
+	/**
+	 * Returns a hitting set of all the sets added so far, irredundant in greedy
+	 * mode and of least weight in exact mode.
+	 *
+	 * @return a new BitSet of the hyps of the hitting set
+	 */
+	public BitSet getHittingSet() {
+		solve();
+		return (BitSet) solution.clone();
+	}
+
+	/**
+	 * @return the total weight of the hitting set returned by getHittingSet
+	 */
+	public double getCost() {
+		solve();
+		return cost;
+	}
+
+	private void solve() {
+		if (solved)
+			return;
+		BitSet greedy = greedy();
+		double greedyCost = costOf(greedy);
+		if (mode == Mode.GREEDY) {
+			optimal = false;
+		} else {
+			best = greedy;
+			bestCost = greedyCost;
+			branches = 0;
+			branch(new BitSet(), 0, allSets(), new BitSet());
+			optimal = branches <= branchLimit;
+			greedy = best;
+			greedyCost = bestCost;
+			best = null;
+		}
+		solution = greedy;
+		cost = greedyCost;
+		solved = true;
+	}
+
+	private double weight(int hyp) {
+		return weightOf.get(hyp);
+	}
+
+	private double costOf(BitSet hyps) {
+		double total = 0;
+		for (int hyp = hyps.nextSetBit(0); hyp >= 0; hyp = hyps.nextSetBit(hyp + 1))
+			total += weight(hyp);
+		return total;
+	}
+
+	private BitSet allSets() {
+		BitSet all = new BitSet();
+		all.set(0, sets.size());
+		return all;
+	}
+
+	private int hits(int hyp, BitSet unhit) {
+		BitSet hit = (BitSet) occurrences.get(hyp).clone();
+		hit.and(unhit);
+		return hit.cardinality();
+	}
+
+	/**
+	 * Picks the hyp hitting the most unhit sets per unit of weight until every set
+	 * is hit, then drops the hyps that became redundant.
+	 */
+	private BitSet greedy() {
+		BitSet chosen = new BitSet();
+		BitSet unhit = allSets();
+		while (!unhit.isEmpty()) {
+			int best = -1;
+			double bestRatio = 0;
+			for (Integer hyp : occurrences.keySet()) {
+				double ratio = hits(hyp, unhit) / weight(hyp);
+				if (ratio > bestRatio || (ratio == bestRatio && ratio > 0 && hyp < best)) {
+					best = hyp;
+					bestRatio = ratio;
+				}
+			}
+			chosen.set(best);
+			unhit.andNot(occurrences.get(best));
+		}
+		return removeRedundant(chosen);
+	}
+
+	private BitSet removeRedundant(BitSet chosen) {
+		int[] hitCount = new int[sets.size()];
+		for (int hyp = chosen.nextSetBit(0); hyp >= 0; hyp = chosen.nextSetBit(hyp + 1)) {
+			BitSet occurrence = occurrences.get(hyp);
+			for (int i = occurrence.nextSetBit(0); i >= 0; i = occurrence.nextSetBit(i + 1))
+				hitCount[i]++;
+		}
+		ArrayList<Integer> byWeight = new ArrayList<Integer>();
+		for (int hyp = chosen.nextSetBit(0); hyp >= 0; hyp = chosen.nextSetBit(hyp + 1))
+			byWeight.add(hyp);
+		byWeight.sort((first, second) -> Double.compare(weight(second), weight(first)));
+		for (int hyp : byWeight) {
+			BitSet occurrence = occurrences.get(hyp);
+			boolean redundant = true;
+			for (int i = occurrence.nextSetBit(0); i >= 0 && redundant; i = occurrence.nextSetBit(i + 1))
+				redundant = hitCount[i] > 1;
+			if (redundant) {
+				chosen.clear(hyp);
+				for (int i = occurrence.nextSetBit(0); i >= 0; i = occurrence.nextSetBit(i + 1))
+					hitCount[i]--;
+			}
+		}
+		return chosen;
+	}
+
+	private BitSet best;
+	private double bestCost;
+
+	/**
+	 * Branches on the unhit set having the fewest hyps left to choose from, the
+	 * hyps tried in earlier branches are excluded from later ones so every subset
+	 * is visited once. Nothing is explored once the branch limit is exceeded.
+	 */
+	private void branch(BitSet chosen, double chosenCost, BitSet unhit, BitSet excluded) {
+		if (++branches > branchLimit)
+			return;
+		if (unhit.isEmpty()) {
+			if (chosenCost < bestCost - EPSILON) {
+				best = (BitSet) chosen.clone();
+				bestCost = chosenCost;
+			}
+			return;
+		}
+		if (chosenCost + lowerBound(unhit, excluded) >= bestCost - EPSILON)
+			return;
+
+		BitSet candidates = null;
+		for (int i = unhit.nextSetBit(0); i >= 0; i = unhit.nextSetBit(i + 1)) {
+			BitSet allowed = (BitSet) sets.get(i).clone();
+			allowed.andNot(excluded);
+			if (allowed.isEmpty())
+				return;
+			if (candidates == null || allowed.cardinality() < candidates.cardinality())
+				candidates = allowed;
+		}
+
+		ArrayList<Integer> byWeight = new ArrayList<Integer>();
+		for (int hyp = candidates.nextSetBit(0); hyp >= 0; hyp = candidates.nextSetBit(hyp + 1))
+			byWeight.add(hyp);
+		byWeight.sort((first, second) -> Double.compare(weight(first), weight(second)));
+
+		BitSet branchExcluded = (BitSet) excluded.clone();
+		for (int hyp : byWeight) {
+			BitSet rest = (BitSet) unhit.clone();
+			rest.andNot(occurrences.get(hyp));
+			chosen.set(hyp);
+			branch(chosen, chosenCost + weight(hyp), rest, (BitSet) branchExcluded.clone());
+			chosen.clear(hyp);
+			branchExcluded.set(hyp);
+		}
+	}
+
+	/**
+	 * Packs pairwise disjoint unhit sets, each of them needs a hyp of its own, so
+	 * the sum of their cheapest allowed hyps is a lower bound on the weight left.
+	 */
+	private double lowerBound(BitSet unhit, BitSet excluded) {
+		BitSet used = new BitSet();
+		double bound = 0;
+		for (int i = unhit.nextSetBit(0); i >= 0; i = unhit.nextSetBit(i + 1)) {
+			BitSet allowed = (BitSet) sets.get(i).clone();
+			allowed.andNot(excluded);
+			if (allowed.intersects(used))
+				continue;
+			double cheapest = Double.MAX_VALUE;
+			for (int hyp = allowed.nextSetBit(0); hyp >= 0; hyp = allowed.nextSetBit(hyp + 1))
+				cheapest = Math.min(cheapest, weight(hyp));
+			bound += cheapest;
+			used.or(allowed);
+		}
+		return bound;
+	}
+
+}
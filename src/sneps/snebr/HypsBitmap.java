@@ -0,0 +1,260 @@
+package sneps.snebr;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import sneps.network.classes.setClasses.PropositionSet;
+
+/**
+ * An immutable compressed bitmap of hyp ids. Ids are split into chunks of 4096 on
+ * their high bits, and every chunk is stored in its own container: a sorted char
+ * array while the chunk is sparse, a long[] bitmap once it gets dense, and nothing
+ * at all when it is empty. Deriving a bitmap with one more or one less hyp copies
+ * the small array of containers and the single container touched, all the other
+ * containers are shared with the bitmap it was derived from.
+ */
+public class HypsBitmap implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int WORDS = CHUNK_SIZE / 64;
+	private static final int ARRAY_LIMIT = WORDS * 4;
+
+	public static final HypsBitmap EMPTY = new HypsBitmap(new Object[0], 0);
+
+	private final Object[] containers;
+	private final int cardinality;
+
+	private HypsBitmap(Object[] containers, int cardinality) {
+		this.containers = containers;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * Creates a bitmap from the set bits of a BitSet.
+	 *
+	 * @param bits
+	 * @return HypsBitmap
+	 */
+	public static HypsBitmap of(BitSet bits) {
+		if (bits.isEmpty())
+			return EMPTY;
+		Object[] containers = new Object[((bits.length() - 1) >>> CHUNK_BITS) + 1];
+		for (int key = 0; key < containers.length; key++) {
+			long[] words = Arrays.copyOf(bits.get(key << CHUNK_BITS, (key + 1) << CHUNK_BITS).toLongArray(), WORDS);
+			containers[key] = compact(words);
+		}
+		return new HypsBitmap(containers, bits.cardinality());
+	}
+
+	/**
+	 * Creates a bitmap from the props of a PropositionSet.
+	 *
+	 * @param props
+	 * @return HypsBitmap
+	 */
+	public static HypsBitmap of(PropositionSet props) {
+		BitSet bits = new BitSet();
+		for (int i = 0; i < props.size(); i++)
+			bits.set(props.get(i));
+		return of(bits);
+	}
+
+	public boolean contains(int id) {
+		int key = id >>> CHUNK_BITS;
+		if (id < 0 || key >= containers.length || containers[key] == null)
+			return false;
+		int low = id & CHUNK_MASK;
+		Object container = containers[key];
+		if (container instanceof long[])
+			return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+		return Arrays.binarySearch((char[]) container, (char) low) >= 0;
+	}
+
+	/**
+	 * Checks whether every prop of the given set is in this bitmap.
+	 *
+	 * @param props
+	 * @return boolean
+	 */
+	public boolean containsAll(PropositionSet props) {
+		if (props.size() > cardinality)
+			return false;
+		for (int i = 0; i < props.size(); i++)
+			if (!contains(props.get(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param id
+	 * @return a bitmap having the ids of this one and id, sharing every container
+	 *         but the one of id.
+	 */
+	public HypsBitmap with(int id) {
+		if (contains(id))
+			return this;
+		int key = id >>> CHUNK_BITS;
+		int low = id & CHUNK_MASK;
+		Object[] copy = Arrays.copyOf(containers, Math.max(containers.length, key + 1));
+		Object container = copy[key];
+		if (container == null) {
+			copy[key] = new char[] { (char) low };
+		} else if (container instanceof long[]) {
+			long[] words = ((long[]) container).clone();
+			words[low >>> 6] |= 1L << low;
+			copy[key] = words;
+		} else {
+			char[] values = (char[]) container;
+			if (values.length >= ARRAY_LIMIT) {
+				long[] words = toWords(values);
+				words[low >>> 6] |= 1L << low;
+				copy[key] = words;
+			} else {
+				int position = -Arrays.binarySearch(values, (char) low) - 1;
+				char[] grown = new char[values.length + 1];
+				System.arraycopy(values, 0, grown, 0, position);
+				grown[position] = (char) low;
+				System.arraycopy(values, position, grown, position + 1, values.length - position);
+				copy[key] = grown;
+			}
+		}
+		return new HypsBitmap(copy, cardinality + 1);
+	}
+
+	/**
+	 * @param id
+	 * @return a bitmap having the ids of this one but id, sharing every container
+	 *         but the one of id.
+	 */
+	public HypsBitmap without(int id) {
+		if (!contains(id))
+			return this;
+		int key = id >>> CHUNK_BITS;
+		int low = id & CHUNK_MASK;
+		Object[] copy = containers.clone();
+		Object container = copy[key];
+		if (container instanceof long[]) {
+			long[] words = ((long[]) container).clone();
+			words[low >>> 6] &= ~(1L << low);
+			copy[key] = compact(words);
+		} else {
+			char[] values = (char[]) container;
+			int position = Arrays.binarySearch(values, (char) low);
+			char[] shrunk = new char[values.length - 1];
+			System.arraycopy(values, 0, shrunk, 0, position);
+			System.arraycopy(values, position + 1, shrunk, position, values.length - position - 1);
+			copy[key] = shrunk.length == 0 ? null : shrunk;
+		}
+		return new HypsBitmap(copy, cardinality - 1);
+	}
+
+	/**
+	 * @param other
+	 * @return the union of this bitmap and other, containers present in only one
+	 *         of them are shared.
+	 */
+	public HypsBitmap or(HypsBitmap other) {
+		if (other.cardinality == 0)
+			return this;
+		if (cardinality == 0)
+			return other;
+		Object[] union = new Object[Math.max(containers.length, other.containers.length)];
+		int count = 0;
+		for (int key = 0; key < union.length; key++) {
+			Object mine = key < containers.length ? containers[key] : null;
+			Object theirs = key < other.containers.length ? other.containers[key] : null;
+			if (mine == null || mine == theirs)
+				union[key] = theirs;
+			else if (theirs == null)
+				union[key] = mine;
+			else {
+				long[] words = toWords(mine);
+				long[] otherWords = toWords(theirs);
+				for (int i = 0; i < WORDS; i++)
+					words[i] |= otherWords[i];
+				union[key] = compact(words);
+			}
+			count += cardinalityOf(union[key]);
+		}
+		return new HypsBitmap(union, count);
+	}
+
+	public int cardinality() {
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	/**
+	 * @return a new BitSet having the ids of this bitmap
+	 */
+	public BitSet toBitSet() {
+		BitSet bits = new BitSet();
+		for (int key = 0; key < containers.length; key++) {
+			Object container = containers[key];
+			int offset = key << CHUNK_BITS;
+			if (container instanceof long[]) {
+				BitSet chunk = BitSet.valueOf((long[]) container);
+				for (int low = chunk.nextSetBit(0); low >= 0; low = chunk.nextSetBit(low + 1))
+					bits.set(offset + low);
+			} else if (container != null) {
+				for (char low : (char[]) container)
+					bits.set(offset + low);
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * @return the ids of this bitmap in ascending order
+	 */
+	public int[] toArray() {
+		return toBitSet().stream().toArray();
+	}
+
+	private static Object compact(long[] words) {
+		int count = 0;
+		for (long word : words)
+			count += Long.bitCount(word);
+		if (count == 0)
+			return null;
+		if (count > ARRAY_LIMIT)
+			return words;
+		char[] values = new char[count];
+		int j = 0;
+		for (int i = 0; i < WORDS; i++) {
+			long word = words[i];
+			while (word != 0) {
+				values[j++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		return values;
+	}
+
+	private static long[] toWords(Object container) {
+		if (container instanceof long[])
+			return ((long[]) container).clone();
+		long[] words = new long[WORDS];
+		for (char low : (char[]) container)
+			words[low >>> 6] |= 1L << low;
+		return words;
+	}
+
+	private static int cardinalityOf(Object container) {
+		if (container == null)
+			return 0;
+		if (container instanceof char[])
+			return ((char[]) container).length;
+		int count = 0;
+		for (long word : (long[]) container)
+			count += Long.bitCount(word);
+		return count;
+	}
+
+}
@@ -0,0 +1,343 @@
+package sneps.snebr;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The store of SNeBR's minimal nogoods. Every nogood is kept in a set-trie over
+ * its hyp ids in ascending order, so finding the nogoods contained in a
+ * context, or the nogoods subsumed by a new one, only visits the trie paths
+ * spelled by hyps of the queried set instead of scanning every nogood, and
+ * removing a nogood only walks its own path.
+ *
+ * The store keeps copies of the nogoods inserted and hands out copies of the
+ * nogoods it holds, so changing a BitSet never corrupts the trie. Queries only
+ * take the read lock of the store, so the contradiction checks run in parallel
+ * by Controller query it concurrently, while insertions and removals take the
+ * write lock.
+ */
+public class NoGoodStore implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private NoGoodNode root;
+	private int size;
+	private transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private static class NoGoodNode implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private Hashtable<Integer, NoGoodNode> children = new Hashtable<Integer, NoGoodNode>();
+		private BitSet noGood;
+		private int count;
+	}
+
+	public NoGoodStore() {
+		root = new NoGoodNode();
+	}
+
+	/**
+	 * Inserts a nogood as it is, without checking the store for subsets or
+	 * supersets of it.
+	 *
+	 * @param noGood the nogood to be inserted
+	 */
+	public void add(BitSet noGood) {
+		lock.writeLock().lock();
+		try {
+			index((BitSet) noGood.clone());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Inserts a nogood while keeping the store minimal: nothing is inserted if a
+	 * subset of the nogood is already stored, otherwise every stored superset of
+	 * the nogood is removed.
+	 *
+	 * @param noGood the nogood to be inserted
+	 * @return <code>true</code> if the nogood was inserted, <code>false</code> if
+	 *         it is subsumed by a stored nogood.
+	 */
+	public boolean addMinimal(BitSet noGood) {
+		lock.writeLock().lock();
+		try {
+			if (containsSubsetOf(noGood))
+				return false;
+			ArrayList<BitSet> supersets = new ArrayList<BitSet>();
+			collectSupersets(root, noGood.stream().toArray(), 0, supersets);
+			for (BitSet superset : supersets)
+				removeAll(superset);
+			add(noGood);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Inserts a batch of nogoods while keeping the store minimal. The store is
+	 * locked once for the whole batch, so batches computed by concurrent
+	 * contradiction checks can be merged safely, and the nogoods are inserted
+	 * smallest first so a nogood subsumed by another one of the same batch is
+	 * rejected instead of being inserted and then removed.
+	 *
+	 * @param noGoods the nogoods to be inserted
+	 * @return the number of nogoods that were inserted
+	 */
+	public int addAllMinimal(Collection<BitSet> noGoods) {
+		lock.writeLock().lock();
+		try {
+			ArrayList<BitSet> sorted = new ArrayList<BitSet>(noGoods);
+			sorted.sort(Comparator.comparingInt(BitSet::cardinality));
+			int inserted = 0;
+			for (BitSet noGood : sorted)
+				if (addMinimal(noGood))
+					inserted++;
+			return inserted;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes one occurrence of a nogood.
+	 *
+	 * @param noGood
+	 * @return <code>true</code> if the nogood was stored.
+	 */
+	public boolean remove(BitSet noGood) {
+		lock.writeLock().lock();
+		try {
+			if (!contains(noGood))
+				return false;
+			unindex(root, noGood, noGood.nextSetBit(0), false);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void removeAll(BitSet noGood) {
+		unindex(root, noGood, noGood.nextSetBit(0), true);
+	}
+
+	public boolean contains(BitSet noGood) {
+		lock.readLock().lock();
+		try {
+			NoGoodNode node = find(noGood);
+			return node != null && node.count > 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of nogoods stored, counting every occurrence of a
+	 *         nogood inserted more than once.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public boolean isEmpty() {
+		lock.readLock().lock();
+		try {
+			return size == 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			root = new NoGoodNode();
+			size = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return copies of the distinct nogoods stored.
+	 */
+	public ArrayList<BitSet> getNoGoods() {
+		lock.readLock().lock();
+		try {
+			ArrayList<BitSet> result = new ArrayList<BitSet>();
+			collectAll(root, result);
+			return copies(result);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns every stored nogood that is a subset of the given set of hyps.
+	 *
+	 * @param hyps BitSet representation of some context's hyps
+	 * @return ArrayList of copies of the stored nogoods contained in hyps
+	 */
+	public ArrayList<BitSet> getSubsetsOf(BitSet hyps) {
+		lock.readLock().lock();
+		try {
+			ArrayList<BitSet> result = new ArrayList<BitSet>();
+			collectSubsets(root, hyps, 0, hyps.cardinality(), result, false);
+			return copies(result);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks whether some stored nogood is a subset of the given set of hyps.
+	 *
+	 * @param hyps BitSet representation of some context's hyps
+	 * @return boolean
+	 */
+	public boolean containsSubsetOf(BitSet hyps) {
+		lock.readLock().lock();
+		try {
+			ArrayList<BitSet> result = new ArrayList<BitSet>();
+			collectSubsets(root, hyps, 0, hyps.cardinality(), result, true);
+			return !result.isEmpty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns every stored nogood that is a superset of the given set of hyps.
+	 *
+	 * @param hyps
+	 * @return ArrayList of copies of the stored nogoods containing hyps
+	 */
+	public ArrayList<BitSet> getSupersetsOf(BitSet hyps) {
+		lock.readLock().lock();
+		try {
+			ArrayList<BitSet> result = new ArrayList<BitSet>();
+			collectSupersets(root, hyps.stream().toArray(), 0, result);
+			return copies(result);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		lock = new ReentrantReadWriteLock();
+	}
+
+	private static ArrayList<BitSet> copies(ArrayList<BitSet> noGoods) {
+		for (int i = 0; i < noGoods.size(); i++)
+			noGoods.set(i, (BitSet) noGoods.get(i).clone());
+		return noGoods;
+	}
+
+	private void collectSubsets(NoGoodNode node, BitSet hyps, int from, int hypsCount, ArrayList<BitSet> result,
+			boolean firstOnly) {
+		if (node.count > 0) {
+			result.add(node.noGood);
+			if (firstOnly)
+				return;
+		}
+		if (node.children.size() <= hypsCount) {
+			for (Map.Entry<Integer, NoGoodNode> child : node.children.entrySet()) {
+				if (hyps.get(child.getKey())) {
+					collectSubsets(child.getValue(), hyps, child.getKey() + 1, hypsCount, result, firstOnly);
+					if (firstOnly && !result.isEmpty())
+						return;
+				}
+			}
+		} else {
+			for (int hyp = hyps.nextSetBit(from); hyp >= 0; hyp = hyps.nextSetBit(hyp + 1)) {
+				NoGoodNode child = node.children.get(hyp);
+				if (child != null) {
+					collectSubsets(child, hyps, hyp + 1, hypsCount, result, firstOnly);
+					if (firstOnly && !result.isEmpty())
+						return;
+				}
+			}
+		}
+	}
+
+	private void collectSupersets(NoGoodNode node, int[] hyps, int index, ArrayList<BitSet> result) {
+		if (index == hyps.length) {
+			collectAll(node, result);
+			return;
+		}
+		for (Map.Entry<Integer, NoGoodNode> child : node.children.entrySet()) {
+			int hyp = child.getKey();
+			if (hyp < hyps[index])
+				collectSupersets(child.getValue(), hyps, index, result);
+			else if (hyp == hyps[index])
+				collectSupersets(child.getValue(), hyps, index + 1, result);
+		}
+	}
+
+	private void collectAll(NoGoodNode node, ArrayList<BitSet> result) {
+		if (node.count > 0)
+			result.add(node.noGood);
+		for (NoGoodNode child : node.children.values())
+			collectAll(child, result);
+	}
+
+	private NoGoodNode find(BitSet noGood) {
+		NoGoodNode current = root;
+		for (int hyp = noGood.nextSetBit(0); hyp >= 0 && current != null; hyp = noGood.nextSetBit(hyp + 1))
+			current = current.children.get(hyp);
+		return current;
+	}
+
+	private void index(BitSet noGood) {
+		NoGoodNode current = root;
+		for (int hyp = noGood.nextSetBit(0); hyp >= 0; hyp = noGood.nextSetBit(hyp + 1)) {
+			NoGoodNode child = current.children.get(hyp);
+			if (child == null) {
+				child = new NoGoodNode();
+				current.children.put(hyp, child);
+			}
+			current = child;
+		}
+		if (current.noGood == null)
+			current.noGood = noGood;
+		current.count++;
+		size++;
+	}
+
+	/**
+	 * Removes one, or every, occurrence of a nogood from the trie below a node,
+	 * pruning the nodes left without nogoods.
+	 *
+	 * @return <code>true</code> if the node is left without nogoods below it.
+	 */
+	private boolean unindex(NoGoodNode node, BitSet noGood, int hyp, boolean all) {
+		if (hyp < 0) {
+			if (node.count > 0) {
+				int removed = all ? node.count : 1;
+				node.count -= removed;
+				size -= removed;
+				if (node.count == 0)
+					node.noGood = null;
+			}
+		} else {
+			NoGoodNode child = node.children.get(hyp);
+			if (child != null && unindex(child, noGood, noGood.nextSetBit(hyp + 1), all))
+				node.children.remove(hyp);
+		}
+		return node.count == 0 && node.children.isEmpty();
+	}
+
+}
@@ -0,0 +1,79 @@
+package sneps.snebr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the belief revision operations, see
+ * NetworkEvents for their cost.
+ */
+public class SNeBREvents {
+
+	@Name("sneps.snebr.CheckForContradiction")
+	@Label("Check For Contradiction")
+	@Category({ "SNePS", "SNeBR" })
+	public static class CheckForContradiction extends Event {
+		@Label("Proposition")
+		public int node;
+
+		@Label("Context Hyps")
+		public int contextHyps;
+
+		@Label("Nogood Store Size")
+		@Description("Size of the minimal nogood store the context was checked against, 0 if it was skipped")
+		public int noGoodStoreSize;
+
+		@Label("Contradictions")
+		public int contradictions;
+	}
+
+	@Name("sneps.snebr.AddPropToContext")
+	@Label("Add Proposition To Context")
+	@Category({ "SNePS", "SNeBR" })
+	public static class AddPropToContext extends Event {
+		@Label("Context")
+		public String context;
+
+		@Label("Hyp")
+		public int hyp;
+
+		@Label("Contradiction Found")
+		public boolean contradiction;
+	}
+
+	@Name("sneps.snebr.HandleContradiction")
+	@Label("Handle Contradiction")
+	@Category({ "SNePS", "SNeBR" })
+	public static class HandleContradiction extends Event {
+		@Label("Context")
+		public String context;
+
+		@Label("Hyps Removed")
+		public int hypsRemoved;
+
+		@Label("Ignored")
+		public boolean ignored;
+	}
+
+	@Name("sneps.snebr.AddJustificationBasedSupport")
+	@Label("Add Justification Based Support")
+	@Category({ "SNePS", "SNeBR" })
+	public static class AddJustificationBasedSupport extends Event {
+		@Label("Proposition")
+		public int node;
+
+		@Label("Justification Size")
+		public int justificationSize;
+
+		@Label("Supports Computed")
+		@Description("Minimal environments computed from the new justification")
+		public int supportsComputed;
+
+		@Label("Assumption Supports")
+		public int assumptionSupports;
+	}
+
+}
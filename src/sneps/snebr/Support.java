@@ -1,10 +1,16 @@
 package sneps.snebr;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.Map;
 
 import sneps.exceptions.CannotInsertJustificationSupportException;
 import sneps.exceptions.DuplicatePropositionException;
@@ -17,10 +23,37 @@ import sneps.network.PropositionNode;
 import sneps.network.classes.Semantic;
 import sneps.network.classes.setClasses.PropositionSet;
 
+/**
+ * The justification and assumption based supports of a proposition node.
+ *
+ * The assumptionBasedSupport of a derived node is its label in the ATMS sense:
+ * the minimal environments, that is sets of hyps, it is derived from, none of
+ * which contains a known minimal nogood. An environment that contains a
+ * nogood can never hold in a consistent context, and one that is a superset of
+ * another environment of the node holds only in contexts where the smaller one
+ * already does, so neither can make a difference to what a consistent context
+ * believes and both are dropped when the supports are computed, instead of
+ * keeping the whole cross product of the supports of the justifications.
+ * Nogoods found later do not remove environments already stored, contexts
+ * containing them are handled by SNeBR's contradiction resolution.
+ *
+ * Both supports are kept as sets of PropositionSets, which hash and compare on
+ * their content, so adding or looking up a support does not build its getHash()
+ * String. The Hashtables keyed by getHash() are only built on demand for
+ * getJustificationSupport() and getAssumptionBasedSupport().
+ *
+ * The serialized form changed with the sets: Supports saved while they were
+ * kept in Hashtables keyed by getHash(), like the PropositionSets in them,
+ * cannot be read back, and such networks have to be rebuilt from their
+ * source. The serialVersionUID is declared from this form on, so that later
+ * compatible changes keep saved networks readable.
+ */
 public class Support implements Serializable{
+	private static final long serialVersionUID = 1L;
 	private int id;
-	private Hashtable<String, PropositionSet> justificationSupport;
-	private Hashtable<String, PropositionSet> assumptionBasedSupport;
+	private HashSet<PropositionSet> justificationSupport;
+	private HashSet<PropositionSet> assumptionBasedSupport;
+	private transient Hashtable<PropositionSet, BitSet> label;
 	private ArrayList<ArrayList<ArrayList<Integer>>> mySupportsTree;
 	private ArrayList<ArrayList<Integer>> intialTreeSet;
 	private ArrayList<Integer> parentNodes;
@@ -39,8 +72,8 @@ public class Support implements Serializable{
      */
 	public Support(int id) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
 		this.id = id;
-		assumptionBasedSupport = new Hashtable<String, PropositionSet>();
-		justificationSupport = new Hashtable<String, PropositionSet>();
+		assumptionBasedSupport = new HashSet<PropositionSet>();
+		justificationSupport = new HashSet<PropositionSet>();
 		mySupportsTree = new ArrayList<ArrayList<ArrayList<Integer>>>();
 		intialTreeSet = new ArrayList<ArrayList<Integer>>();
 		ArrayList<Integer> intialTree = new ArrayList<Integer>();
@@ -57,18 +90,51 @@ public class Support implements Serializable{
      */
 	@Override
 	public String toString() {
-		return "Support [justificationSupport=" + justificationSupport.values() + ", assumptionBasedSupport="
-				+ assumptionBasedSupport.values() + "]";
+		return "Support [justificationSupport=" + justificationSupport + ", assumptionBasedSupport="
+				+ assumptionBasedSupport + "]";
 	}
 
 	/**
      * Returns the justificationsupports of a propositionNode.
+     * The Hashtable is a copy keyed by getHash(), kept for SupportTest and the GUI.
+     * Use getJustifications() everywhere else.
      *
      * @return a Hashtable containing the sets representing the direct supports of this node.
      */
 	public Hashtable<String, PropositionSet> getJustificationSupport() throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
 		
-		return justificationSupport;
+		return byHash(justificationSupport);
+	}
+
+	/**
+	 * Returns the justification supports of this node.
+	 *
+	 * @return an unmodifiable view of the sets representing the direct supports of this node.
+	 */
+	public Collection<PropositionSet> getJustifications() {
+		return Collections.unmodifiableSet(justificationSupport);
+	}
+
+	/**
+	 * Removes a justification support of this node, and re-indexes its justifications.
+	 *
+	 * @param justification
+	 * @return a boolean indicating whether the justification was a support of this node.
+	 */
+	public boolean removeJustification(PropositionSet justification) {
+		if (!justificationSupport.remove(justification))
+			return false;
+		setHasChildren(!justificationSupport.isEmpty());
+		setTreeComputed(false);
+		SupportIndex.justificationsChanged(id, justificationSupport);
+		return true;
+	}
+
+	private Hashtable<String, PropositionSet> byHash(Collection<PropositionSet> sets) {
+		Hashtable<String, PropositionSet> result = new Hashtable<String, PropositionSet>();
+		for (PropositionSet set : sets)
+			result.put(isHyp && set.size() == 1 && set.get(0) == id ? Integer.toString(id) : set.getHash(), set);
+		return result;
 	}
 
 	/**
@@ -80,10 +146,13 @@ public class Support implements Serializable{
 	 * By valid i mean that each node must be either a hypothesis (user asserted) therefore no supports needed,
 	 * or supported by one or more valid sets
      *
+     * All the invalid sets are removed in a single pass.
+     *
      * @return a boolean indicating whether the node is restrucured correctly or no.
      */
 	public boolean reStructureJustifications() throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
-		Iterator<PropositionSet> it = justificationSupport.values().iterator();
+		boolean valid = true;
+		Iterator<PropositionSet> it = justificationSupport.iterator();
 		while(it.hasNext()){
 			PropositionSet anSupport = it.next();
 			int[] anSupportNodes = PropositionSet.getPropsSafely(anSupport);
@@ -92,23 +161,21 @@ public class Support implements Serializable{
 				if(aNode.HasChildren()){
 					aNode.reStructureJustifications();
 				}else{
-					Hashtable<String, PropositionSet> assumptionBasedSupport = aNode.getAssumptionBasedSupport();
+					Collection<PropositionSet> assumptionBasedSupport = aNode.getAssumptions();
 					PropositionSet intialSet = new PropositionSet(aNode.getId());
 					if(!(assumptionBasedSupport.contains(intialSet)) && !isHyp()){
-						justificationSupport.remove(anSupport.getHash());
-						boolean Empty = justificationSupport.isEmpty();
-						setHasChildren(!Empty);
-						if(isHyp() && Empty){
-							assumptionBasedSupport = new Hashtable<String, PropositionSet>();
-							PropositionSet intialSet2 = new PropositionSet(id);
-							assumptionBasedSupport.put(Integer.toString(id), intialSet2);
-						}
-						return false;
+						it.remove();
+						valid = false;
+						break;
 					}
 				}
 			}
 		}
-		return true;
+		if(!valid){
+			setHasChildren(!justificationSupport.isEmpty());
+			SupportIndex.justificationsChanged(id, justificationSupport);
+		}
+		return valid;
 	}
 
 	/**
@@ -161,22 +228,28 @@ public class Support implements Serializable{
 	 * Moreover,  this method takes care of both direct cycles by throwing 
 	 * an exception"CannotInsertJustificationSupportException",  and  in-direct  cycles  by  neglecting the path
 	 *  having cycles when computing assumptionBasedSupport. 
+	 * The cross product is computed over BitSets, environments that contain a known minimal nogood
+	 * or that are subsumed by another environment are pruned as they are produced, and only the
+	 * environments that made it into the assumptionBasedSupport are then propagated to the nodes this
+	 * node supports (see propagateEnvironments()).
      *
      * @param a propSet representing the newly support of a node.
      */
 	public void addJustificationBasedSupport(PropositionSet propSet)
 			throws NodeNotFoundInPropSetException, NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException, CannotInsertJustificationSupportException {
+		SNeBREvents.AddJustificationBasedSupport event = new SNeBREvents.AddJustificationBasedSupport();
+		event.begin();
 		
 		if (!HasChildren()) {
-			assumptionBasedSupport = new Hashtable<String, PropositionSet>();
+			assumptionBasedSupport = new HashSet<PropositionSet>();
 		}
-		String hash = propSet.getHash();
-		if (!justificationSupport.containsKey(hash)) {
+		if (!justificationSupport.contains(propSet)) {
 			
 			if((new PropositionSet(this.getId())).isSubSet(propSet))
 				throw new CannotInsertJustificationSupportException("This PropositionSet contain a Cyclic Supports in the node " + propSet.toString() + this.getId());
 			
-			justificationSupport.put(hash, propSet);
+			justificationSupport.add(PropositionSet.intern(propSet));
+			SupportIndex.justificationsChanged(id, justificationSupport);
 			setHasChildren(true);
 			setTreeComputed(false);
 			int[] nodes = PropositionSet.getPropsSafely(propSet);
@@ -184,49 +257,184 @@ public class Support implements Serializable{
 				PropositionNode node = (PropositionNode) Network.getNodeById(nodes[i]);
 				node.addParentNode(id);
 			}
-			PropositionSet setSofar = new PropositionSet();
-			int idx = 1;
-			PropositionNode node = (PropositionNode) Network.getNodeById(nodes[0]);
-			if(node.getId() == this.getId()){
-				node = (PropositionNode) Network.getNodeById(nodes[1]);
-				idx++;
+			ArrayList<BitSet> environments = combineEnvironments(nodes, -1, null);
+			event.supportsComputed = environments.size();
+			propagateEnvironments(addEnvironments(environments));
+			assumptionsChanged();
+		}
+		event.node = id;
+		event.justificationSize = propSet.size();
+		event.assumptionSupports = assumptionBasedSupport.size();
+		event.commit();
+	}
+
+	/**
+	 * Computes the cross product of the assumption supports of the nodes of a justification support.
+	 * Environments containing this node are neglected (in-direct cycles), and partial environments
+	 * are pruned as soon as they contain a known minimal nogood or are subsumed by another partial
+	 * environment, since no extension of them can end up in a minimal assumption support.
+	 * If changedNode is one of the nodes, only its changedEnvironments are used instead of its whole
+	 * assumption support, which gives the environments that are new because of that change.
+	 *
+	 * @param nodes               the ids of a justification support of this node.
+	 * @param changedNode         the id of the node whose environments changed, or -1.
+	 * @param changedEnvironments the new environments of changedNode.
+	 * @return ArrayList<BitSet> the resulting minimal environments.
+	 */
+	private ArrayList<BitSet> combineEnvironments(int[] nodes, int changedNode, ArrayList<BitSet> changedEnvironments)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<BitSet> partial = new ArrayList<BitSet>();
+		partial.add(new BitSet());
+		for (int i = 0; i < nodes.length && !partial.isEmpty(); i++) {
+			if (nodes[i] == id)
+				return new ArrayList<BitSet>();
+			Collection<BitSet> environments;
+			if (nodes[i] == changedNode)
+				environments = changedEnvironments;
+			else
+				environments = ((PropositionNode) Network.getNodeById(nodes[i])).getBasicSupport().getLabel().values();
+			ArrayList<BitSet> next = new ArrayList<BitSet>();
+			for (BitSet sofar : partial) {
+				for (BitSet environment : environments) {
+					if (environment.get(id))
+						continue;
+					BitSet union = (BitSet) sofar.clone();
+					union.or(environment);
+					if (!Controller.getMinimalNoGoods().containsSubsetOf(union))
+						addMinimal(next, union);
+				}
 			}
-			Hashtable<String, PropositionSet> NodeAssumptions = node.getAssumptionBasedSupport();
-			Iterator<PropositionSet> it = NodeAssumptions.values().iterator();
+			partial = next;
+		}
+		return partial;
+	}
 
+	/**
+	 * Adds the given environments to the assumptionBasedSupport of this node. An environment is
+	 * neglected if it is subsumed by one already there, otherwise the ones it subsumes are removed.
+	 *
+	 * @param environments
+	 * @return ArrayList<BitSet> the environments that were actually added.
+	 */
+	private ArrayList<BitSet> addEnvironments(ArrayList<BitSet> environments)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<BitSet> added = new ArrayList<BitSet>();
+		Hashtable<PropositionSet, BitSet> label = getLabel();
+		for (BitSet environment : environments) {
+			boolean subsumed = false;
+			for (BitSet existing : label.values()) {
+				if (isSubsetOf(existing, environment)) {
+					subsumed = true;
+					break;
+				}
+			}
+			if (subsumed)
+				continue;
+			Iterator<Map.Entry<PropositionSet, BitSet>> it = label.entrySet().iterator();
 			while (it.hasNext()) {
-				setSofar = it.next();
-				if(!((new PropositionSet(this.getId())).isSubSet(setSofar))){
-				computeAssumptionRec(nodes, setSofar, idx);
+				Map.Entry<PropositionSet, BitSet> existing = it.next();
+				if (isSubsetOf(environment, existing.getValue())) {
+					assumptionBasedSupport.remove(existing.getKey());
+					it.remove();
 				}
 			}
-			
+			PropositionSet set = PropositionSet.intern(PropositionSet.fromSortedProps(environment.stream().toArray()));
+			assumptionBasedSupport.add(set);
+			label.put(set, environment);
+			added.add(environment);
+			setTreeComputed(false);
 		}
+		if (!added.isEmpty())
+			assumptionsChanged();
+		return added;
 	}
 
 	/**
-	 * This is a recursive method for computing the assumption support of a node.
-	 * It is a private method since only the method "addJustificationBasedSupport" can use it
-     */
-	private void computeAssumptionRec(int[] nodes, PropositionSet setSofar, int idx)
-			throws NodeNotFoundInNetworkException, NotAPropositionNodeException {
-		if (idx == nodes.length) {
-			assumptionBasedSupport.put(setSofar.getHash(), setSofar);
-			return;
-		}
-		PropositionNode node = (PropositionNode) Network.getNodeById(nodes[idx]);
-		if(node.getId() == this.getId()){
-			return;
-		}
-		Hashtable<String, PropositionSet> NodeAssumptions = node.getAssumptionBasedSupport();
-		Iterator<PropositionSet> it = NodeAssumptions.values().iterator();
-		idx += 1;
-		while (it.hasNext()) {
-			PropositionSet thisSet = it.next();
-			if(!((new PropositionSet(this.getId())).isSubSet(thisSet))){
-			computeAssumptionRec(nodes, setSofar.union(thisSet), idx);
+	 * Re-indexes the assumptionBasedSupport of this node and lets the contexts update their cached beliefs.
+	 */
+	private void assumptionsChanged() throws NodeNotFoundInNetworkException {
+		SupportIndex.assumptionsChanged(id, assumptionBasedSupport);
+		Controller.assumptionsChanged((PropositionNode) Network.getNodeById(id));
+	}
+
+	/**
+	 * Indexes both supports of this node in the SupportIndex.
+	 */
+	void reindex() {
+		SupportIndex.assumptionsChanged(id, assumptionBasedSupport);
+		SupportIndex.justificationsChanged(id, justificationSupport);
+	}
+
+	/**
+	 * Propagates newly added environments upward through the parentNodes graph.
+	 * Every parent having a justification support that contains the changed node only combines
+	 * the new environments with the assumption supports of the other nodes of that justification,
+	 * and the environments the parent actually gained are propagated in turn.
+	 *
+	 * @param added the environments just added to this node's assumptionBasedSupport.
+	 */
+	private void propagateEnvironments(ArrayList<BitSet> added)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayDeque<Support> changedSupports = new ArrayDeque<Support>();
+		ArrayDeque<ArrayList<BitSet>> changedEnvironments = new ArrayDeque<ArrayList<BitSet>>();
+		changedSupports.add(this);
+		changedEnvironments.add(added);
+		while (!changedSupports.isEmpty()) {
+			Support changed = changedSupports.poll();
+			ArrayList<BitSet> delta = changedEnvironments.poll();
+			if (delta.isEmpty())
+				continue;
+			for (int parentId : new ArrayList<Integer>(SupportIndex.getJustificationDependents(changed.getId()))) {
+				Support parent = ((PropositionNode) Network.getNodeById(parentId)).getBasicSupport();
+				ArrayList<BitSet> parentDelta = new ArrayList<BitSet>();
+				for (PropositionSet justification : parent.justificationSupport) {
+					int[] nodes = PropositionSet.getPropsSafely(justification);
+					if (Arrays.binarySearch(nodes, changed.getId()) >= 0)
+						parentDelta.addAll(parent.combineEnvironments(nodes, changed.getId(), delta));
+				}
+				changedSupports.add(parent);
+				changedEnvironments.add(parent.addEnvironments(parentDelta));
+			}
 		}
+	}
+
+	/**
+	 * Returns the assumptionBasedSupport of this node as BitSets, which addEnvironments keeps up to
+	 * date as it adds environments. It is only built again when the environments were changed
+	 * otherwise, as by removing a node from the supports.
+	 *
+	 * @return Hashtable<PropositionSet, BitSet> the environments keyed by their PropositionSets.
+	 */
+	private Hashtable<PropositionSet, BitSet> getLabel() throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		if (label == null || !label.keySet().equals(assumptionBasedSupport))
+			label = toBitSets(assumptionBasedSupport);
+		return label;
+	}
+
+	private static Hashtable<PropositionSet, BitSet> toBitSets(Collection<PropositionSet> sets)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		Hashtable<PropositionSet, BitSet> bitSets = new Hashtable<PropositionSet, BitSet>();
+		for (PropositionSet set : sets) {
+			BitSet bitSet = new BitSet();
+			for (int prop : PropositionSet.getPropsSafely(set))
+				bitSet.set(prop);
+			bitSets.put(set, bitSet);
 		}
+		return bitSets;
+	}
+
+	private static void addMinimal(ArrayList<BitSet> environments, BitSet environment) {
+		for (BitSet existing : environments)
+			if (isSubsetOf(existing, environment))
+				return;
+		environments.removeIf(existing -> isSubsetOf(environment, existing));
+		environments.add(environment);
+	}
+
+	private static boolean isSubsetOf(BitSet subset, BitSet superset) {
+		BitSet difference = (BitSet) subset.clone();
+		difference.andNot(superset);
+		return difference.isEmpty();
 	}
 
 	/**
@@ -244,7 +452,7 @@ public class Support implements Serializable{
 		mySupportsTree = new ArrayList<ArrayList<ArrayList<Integer>>>();
 		intialTreeSet = new ArrayList<ArrayList<Integer>>();
 		
-		Iterator<PropositionSet> it = assumptionBasedSupport.values().iterator();
+		Iterator<PropositionSet> it = assumptionBasedSupport.iterator();
 		while(it.hasNext()){
 			int[] nodes = PropositionSet.getPropsSafely(it.next());
 			
@@ -265,10 +473,51 @@ public class Support implements Serializable{
 	
 	/**
 	 * Returns the set (assumptionBasedSupport) of this proposition node.
+	 * The Hashtable is a copy keyed by getHash(), kept for SupportTest and the GUI.
+	 * Use getAssumptions() everywhere else.
 	 * @return Hashtable<String, PropositionSet> representing the assumptions of this node.
 	 */
 	public Hashtable<String, PropositionSet> getAssumptionBasedSupport() {
-		return assumptionBasedSupport;
+		return byHash(assumptionBasedSupport);
+	}
+
+	/**
+	 * Returns the assumption supports of this node.
+	 *
+	 * @return an unmodifiable view of the sets of hyps this node is derived from.
+	 */
+	public Collection<PropositionSet> getAssumptions() {
+		return Collections.unmodifiableSet(assumptionBasedSupport);
+	}
+
+	/**
+	 * Removes an assumption support of this node, re-indexes its assumptions and lets
+	 * the contexts update their cached beliefs.
+	 *
+	 * @param assumption
+	 * @return a boolean indicating whether the assumption was a support of this node.
+	 */
+	public boolean removeAssumption(PropositionSet assumption) throws NodeNotFoundInNetworkException {
+		return replaceAssumption(assumption, null);
+	}
+
+	/**
+	 * Replaces an assumption support of this node by another one, re-indexes its
+	 * assumptions and lets the contexts update their cached beliefs.
+	 *
+	 * @param assumption
+	 * @param replacement the new assumption support, or null to only remove assumption.
+	 * @return a boolean indicating whether assumption was a support of this node.
+	 */
+	public boolean replaceAssumption(PropositionSet assumption, PropositionSet replacement)
+			throws NodeNotFoundInNetworkException {
+		if (!assumptionBasedSupport.remove(assumption))
+			return false;
+		if (replacement != null)
+			assumptionBasedSupport.add(PropositionSet.intern(replacement));
+		setTreeComputed(false);
+		assumptionsChanged();
+		return true;
 	}
 
 	/**
@@ -284,12 +533,13 @@ public class Support implements Serializable{
 	 */
 	public void removeNodeFromSupports(PropositionNode propNode) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
 		PropositionSet removeSet = new PropositionSet(propNode.getId());
-		ArrayList<String> willBeRemoved = new ArrayList<String>();
-		Iterator<PropositionSet> it = justificationSupport.values().iterator();
-		while(it.hasNext()){
+		ArrayList<PropositionSet> willBeRemoved = new ArrayList<PropositionSet>();
+		Iterator<PropositionSet> it = justificationSupport.iterator();
+		boolean justified = SupportIndex.getJustificationDependents(propNode.getId()).contains(id);
+		while(justified && it.hasNext()){
 			PropositionSet thisSet = it.next();
 			if(removeSet.isSubSet(thisSet)){
-				willBeRemoved.add(thisSet.getHash());
+				willBeRemoved.add(thisSet);
 				setTreeComputed(false);
 			}
 		}
@@ -297,27 +547,32 @@ public class Support implements Serializable{
 			justificationSupport.remove(willBeRemoved.get(0));
 			willBeRemoved.remove(0);
 		}
+		if(justified)
+			SupportIndex.justificationsChanged(id, justificationSupport);
 		
-		Iterator<PropositionSet>  it2 = assumptionBasedSupport.values().iterator();
-		while(it2.hasNext()){
+		Iterator<PropositionSet>  it2 = assumptionBasedSupport.iterator();
+		boolean assumed = SupportIndex.getAssumptionDependents(propNode.getId()).contains(id);
+		while(assumed && it2.hasNext()){
 			PropositionSet thisSet = it2.next();
 			if(removeSet.isSubSet(thisSet)){
-				willBeRemoved.add(thisSet.getHash());
+				willBeRemoved.add(thisSet);
 				setTreeComputed(false);
 			}
 		}
 		if(propNode.HasChildren()){
-		Iterator<PropositionSet>  it3 = propNode.getAssumptionBasedSupport().values().iterator();
+		Iterator<PropositionSet>  it3 = propNode.getAssumptions().iterator();
 		while(it3.hasNext()){
 			PropositionSet set = it3.next();
 			int [] setnodes = PropositionSet.getPropsSafely(set);
 			for (int i = 0; i < setnodes.length; i++) {
+				if(!SupportIndex.getAssumptionDependents(setnodes[i]).contains(id))
+					continue;
 				PropositionSet removeSetNew = new PropositionSet(setnodes[i]);
-				it2 = assumptionBasedSupport.values().iterator();
+				it2 = assumptionBasedSupport.iterator();
 				while(it2.hasNext()){
 					PropositionSet thisSet = it2.next();
 					if(removeSetNew.isSubSet(thisSet)){
-						willBeRemoved.add(thisSet.getHash());
+						willBeRemoved.add(thisSet);
 						setTreeComputed(false);
 					}
 				}
@@ -340,6 +595,7 @@ public class Support implements Serializable{
 			reStrucured = reStructureJustifications();
 		}
 		TreeComputed = false;
+		assumptionsChanged();
 		
 	}
 
@@ -373,7 +629,7 @@ public class Support implements Serializable{
 	public void addParentNode(int id) throws NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException {
 		if(this.getId() != id){
 		parentNodes.add(id);
-		Iterator<PropositionSet> it = justificationSupport.values().iterator();
+		Iterator<PropositionSet> it = justificationSupport.iterator();
 		while(it.hasNext()){
 			int[] nodes = PropositionSet.getPropsSafely(it.next());
 			for (int i = 0; i < nodes.length; i++) {
@@ -404,10 +660,11 @@ public class Support implements Serializable{
 	public void setHyp(boolean isHyp) throws NotAPropositionNodeException, NodeNotFoundInNetworkException{
 		this.isHyp = isHyp;
 		if(isHyp){
-		assumptionBasedSupport = new Hashtable<String, PropositionSet>();
-		PropositionSet intialSet = new PropositionSet(id);
-		assumptionBasedSupport.put(Integer.toString(id), intialSet);
+		assumptionBasedSupport = new HashSet<PropositionSet>();
+		PropositionSet intialSet = PropositionSet.intern(new PropositionSet(id));
+		assumptionBasedSupport.add(intialSet);
 		}
+		assumptionsChanged();
 	}
 	/**
 	 * Main method contains the run time testing approach for the supports class.
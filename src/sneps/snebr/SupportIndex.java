@@ -0,0 +1,161 @@
+package sneps.snebr;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Set;
+
+import sneps.network.Network;
+import sneps.network.PropositionNode;
+import sneps.network.classes.setClasses.PropositionSet;
+
+/**
+ * Inverted indexes from a proposition to the proposition nodes having an
+ * assumption support, or a justification support, that contains it. They are
+ * updated by Support whenever the supports of a node change, so the nodes whose
+ * belief may change when a hyp is asserted or retracted, and the supports
+ * affected by removing a proposition, are found without visiting every
+ * proposition node.
+ */
+public class SupportIndex {
+	private static Hashtable<Integer, HashSet<Integer>> assumptionDependents = new Hashtable<Integer, HashSet<Integer>>();
+	private static Hashtable<Integer, BitSet> indexedAssumptionHyps = new Hashtable<Integer, BitSet>();
+	private static Hashtable<Integer, HashSet<Integer>> justificationDependents = new Hashtable<Integer, HashSet<Integer>>();
+	private static Hashtable<Integer, BitSet> indexedJustificationProps = new Hashtable<Integer, BitSet>();
+
+	/**
+	 * Re-indexes a node after its assumptionBasedSupport changed.
+	 *
+	 * @param nodeId      the id of the node whose assumptions changed.
+	 * @param assumptions the current assumption supports of the node.
+	 */
+	public static void assumptionsChanged(int nodeId, Collection<PropositionSet> assumptions) {
+		reindex(nodeId, assumptions, assumptionDependents, indexedAssumptionHyps);
+	}
+
+	/**
+	 * Re-indexes a node after its justificationSupport changed.
+	 *
+	 * @param nodeId         the id of the node whose justifications changed.
+	 * @param justifications the current justification supports of the node.
+	 */
+	public static void justificationsChanged(int nodeId, Collection<PropositionSet> justifications) {
+		reindex(nodeId, justifications, justificationDependents, indexedJustificationProps);
+	}
+
+	private static void reindex(int nodeId, Collection<PropositionSet> supports,
+			Hashtable<Integer, HashSet<Integer>> dependentsIndex, Hashtable<Integer, BitSet> indexedProps) {
+		BitSet props = new BitSet();
+		for (PropositionSet support : supports)
+			for (int i = 0; i < support.size(); i++)
+				props.set(support.get(i));
+		BitSet old = indexedProps.get(nodeId);
+		if (old == null)
+			old = new BitSet();
+
+		BitSet removed = (BitSet) old.clone();
+		removed.andNot(props);
+		for (int prop = removed.nextSetBit(0); prop >= 0; prop = removed.nextSetBit(prop + 1)) {
+			HashSet<Integer> dependents = dependentsIndex.get(prop);
+			if (dependents != null) {
+				dependents.remove(nodeId);
+				if (dependents.isEmpty())
+					dependentsIndex.remove(prop);
+			}
+		}
+
+		BitSet added = (BitSet) props.clone();
+		added.andNot(old);
+		for (int prop = added.nextSetBit(0); prop >= 0; prop = added.nextSetBit(prop + 1)) {
+			HashSet<Integer> dependents = dependentsIndex.get(prop);
+			if (dependents == null) {
+				dependents = new HashSet<Integer>();
+				dependentsIndex.put(prop, dependents);
+			}
+			dependents.add(nodeId);
+		}
+
+		if (props.isEmpty())
+			indexedProps.remove(nodeId);
+		else
+			indexedProps.put(nodeId, props);
+	}
+
+	/**
+	 * Drops a node removed from the Network from the index, both as a node
+	 * having supports and as a proposition in the supports of other nodes, so
+	 * its id is never returned as a dependent again.
+	 *
+	 * @param nodeId the id of the removed node.
+	 */
+	public static void nodeRemoved(int nodeId) {
+		reindex(nodeId, Collections.<PropositionSet>emptyList(), assumptionDependents, indexedAssumptionHyps);
+		reindex(nodeId, Collections.<PropositionSet>emptyList(), justificationDependents, indexedJustificationProps);
+		forget(nodeId, assumptionDependents, indexedAssumptionHyps);
+		forget(nodeId, justificationDependents, indexedJustificationProps);
+	}
+
+	private static void forget(int prop, Hashtable<Integer, HashSet<Integer>> dependentsIndex,
+			Hashtable<Integer, BitSet> indexedProps) {
+		HashSet<Integer> dependents = dependentsIndex.remove(prop);
+		if (dependents == null)
+			return;
+		for (int dependent : dependents) {
+			BitSet props = indexedProps.get(dependent);
+			if (props != null) {
+				props.clear(prop);
+				if (props.isEmpty())
+					indexedProps.remove(dependent);
+			}
+		}
+	}
+
+	/**
+	 * Returns the ids of the nodes having an assumption support that contains
+	 * the given hyp.
+	 *
+	 * @param hyp
+	 * @return Set<Integer>
+	 */
+	public static Set<Integer> getAssumptionDependents(int hyp) {
+		HashSet<Integer> dependents = assumptionDependents.get(hyp);
+		if (dependents == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(dependents);
+	}
+
+	/**
+	 * Returns the ids of the nodes having a justification support that contains
+	 * the given proposition, i.e. the direct parents of the proposition.
+	 *
+	 * @param prop
+	 * @return Set<Integer>
+	 */
+	public static Set<Integer> getJustificationDependents(int prop) {
+		HashSet<Integer> dependents = justificationDependents.get(prop);
+		if (dependents == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(dependents);
+	}
+
+	/**
+	 * Rebuilds the index from the supports of all the proposition nodes of the
+	 * Network, used after the Network was loaded.
+	 */
+	public static void rebuild() {
+		clear();
+		for (PropositionNode node : Network.getPropositionNodes().values())
+			if (node.getBasicSupport() != null)
+				node.getBasicSupport().reindex();
+	}
+
+	public static void clear() {
+		assumptionDependents.clear();
+		indexedAssumptionHyps.clear();
+		justificationDependents.clear();
+		indexedJustificationProps.clear();
+	}
+
+}
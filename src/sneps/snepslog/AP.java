@@ -11,23 +11,25 @@
 package sneps.snepslog;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.Set;
 
+import java_cup.runtime.Scanner;
 import java_cup.runtime.Symbol;
 import sneps.exceptions.CannotBuildNodeException;
 import sneps.exceptions.CannotFindCaseFrameException;
 import sneps.exceptions.CaseFrameCannotBeRemovedException;
 import sneps.exceptions.CaseFrameMissMatchException;
 import sneps.exceptions.CaseFrameWithSetOfRelationsNotFoundException;
+import sneps.exceptions.ContextNameDoesntExistException;
 import sneps.exceptions.ContradictionFoundException;
 import sneps.exceptions.DuplicateContextNameException;
 import sneps.exceptions.DuplicatePropositionException;
@@ -96,6 +98,12 @@ public class AP {
 	 */
 	private static String printingMode = "normal";
 
+	/**
+	 * An ArrayList which, while a query is compiled, holds the nodes the ask
+	 * commands were to deduce instead of deducing them. It is null otherwise.
+	 */
+	private static ArrayList<Node> capturedQueries = null;
+
 	/**
 	 * @return A Hashtable representing the field modeThreeCaseFrames.
 	 */
@@ -955,29 +963,31 @@ public class AP {
 	 * @return A String representing the output of the commands in this file.
 	 */
 	protected static String loadFile(String path) {
-		ArrayList<String> commands = new ArrayList<String>();
-		try {
-			BufferedReader br = new BufferedReader(new FileReader(path));
-			String line = null;
-			while ((line = br.readLine()) != null) {
-				commands.add(line);
-			}
-			br.close();
-		} catch (IOException e) {
+		StringWriter output = new StringWriter();
+		if (!loadFile(path, output))
 			return "Error reading the file at: " + path;
+		StringBuffer buffer = output.getBuffer();
+		if (buffer.length() != 0) {
+			buffer.setLength(buffer.length() - 1);
 		}
-		String output = "";
-		for (int i = 0; i < commands.size(); i++) {
-			try {
-				output += "$" + commands.get(i) + "\n" + executeSnepslogCommand(commands.get(i)) + '\n';
-			} catch (Exception e) {
-				return "Error executing the command: " + commands.get(i);
-			}
-		}
-		if (output.length() != 0) {
-			output = output.substring(0, output.length() - 1);
+		return buffer.toString();
+	}
+
+	/**
+	 * Loads a SNePSLOG file through a PipelinedLoader, streaming the output of
+	 * its commands to out.
+	 *
+	 * @param path the path of the file
+	 * @param out  where the output of the commands is written
+	 * @return <code>false</code> if the file could not be read
+	 */
+	public static boolean loadFile(String path, Writer out) {
+		try {
+			new PipelinedLoader().load(Paths.get(path), out);
+			return true;
+		} catch (IOException | InvalidPathException e) {
+			return false;
 		}
-		return output;
 	}
 
 	// TODO A wrapper for defineSemantic
@@ -1015,6 +1025,10 @@ public class AP {
 	// TODO A wrapper for deduce
 	protected static ArrayList<Node> deduce(Node node, String type, int i, int j) {
 		ArrayList<Node> output = new ArrayList<Node>();
+		if (capturedQueries != null) {
+			capturedQueries.add(node);
+			return output;
+		}
 		switch (type) {
 		case "ask":
 			break;
@@ -1063,9 +1077,36 @@ public class AP {
 		cfsDescriptions.clear();
 		nodesDescriptions.clear();
 		modeThreeCaseFrames.clear();
+		PreparedQuery.clearPlans();
 		Network.defineDefaults();
 	}
 
+	/**
+	 * This method is used to compile an ask command: the command is parsed, which
+	 * builds the node of its wff, but that node is returned instead of being
+	 * deduced.
+	 *
+	 * @param command A String holding an ask, askifnot, askwh or askwhnot command.
+	 *
+	 * @return the node the command asks about.
+	 *
+	 * @throws InvalidArgumentsException if the command is not an ask command or
+	 *                                   cannot be parsed.
+	 */
+	static Node compileQuery(String command) throws InvalidArgumentsException {
+		ArrayList<Node> captured = new ArrayList<Node>();
+		capturedQueries = captured;
+		String output;
+		try {
+			output = executeSnepslogCommand(command);
+		} finally {
+			capturedQueries = null;
+		}
+		if (captured.size() != 1)
+			throw new InvalidArgumentsException("Cannot compile the query '" + command + "': " + output);
+		return captured.get(0);
+	}
+
 	/**
 	 * This method is used to execute a SNePSLOG command.
 	 *
@@ -1075,18 +1116,68 @@ public class AP {
 	 *
 	 */
 	public static String executeSnepslogCommand(String command) {
+		return executeSnepslogCommand(command, null);
+	}
+
+	/**
+	 * Executes a snepslog command whose tokens are read from a scanner.
+	 *
+	 * @param command the command, as given by the user
+	 * @param scanner the tokens of the command
+	 * @return A String representing the output of that command.
+	 */
+	static String executeSnepslogCommand(String command, Scanner scanner) {
+		SnepslogParser parser = SnepslogParser.borrow();
+		try {
+			return executeSnepslogCommand(parser, command, scanner);
+		} finally {
+			SnepslogParser.release(parser);
+		}
+	}
+
+	/**
+	 * Executes several snepslog commands, one per line, with the same parser.
+	 * Every command is written to out as "$command" followed by its output, as
+	 * loadFile() does.
+	 *
+	 * @param commands the commands, one per line
+	 * @param out      where the output of the commands is written
+	 * @return the number of commands executed
+	 * @throws IOException if the commands cannot be read or the output written
+	 */
+	public static int executeSnepslogCommands(Reader commands, Writer out) throws IOException {
+		BufferedReader reader = new BufferedReader(commands);
+		SnepslogParser parser = SnepslogParser.borrow();
+		int executed = 0;
+		try {
+			String command;
+			while ((command = reader.readLine()) != null) {
+				out.write("$" + command + "\n" + executeSnepslogCommand(parser, command, null) + "\n");
+				executed++;
+			}
+		} finally {
+			SnepslogParser.release(parser);
+			out.flush();
+		}
+		return executed;
+	}
+
+	/**
+	 * @param scanner the tokens of the command, or <code>null</code> to have the
+	 *                Lexer of the parser read them from the command
+	 */
+	private static String executeSnepslogCommand(SnepslogParser parser, String command, Scanner scanner) {
 		try {
-			InputStream is = new ByteArrayInputStream(command.getBytes(StandardCharsets.UTF_8));
-			DataInputStream dis = new DataInputStream(is);
-			parser parser = new parser(new Lexer(dis));
-			parser.command = command;
 			Symbol res;
-			res = parser.parse();
+			if (scanner == null)
+				res = parser.parse(command);
+			else
+				res = parser.parse(command, scanner);
 			String output = (String) res.value;
-			is.close();
-			dis.close();
 			return output;
 		} catch (ContradictionFoundException e) {
+			if (Controller.isAutomaticBR())
+				return resolveContradiction(e);
 			Main.userAction(e.getContradictoryHyps());
 			return "The GUI is used to handle the contradiction!";
 		} catch (Exception e) {
@@ -1094,6 +1185,23 @@ public class AP {
 		}
 	}
 
+	/**
+	 * Resolves a contradiction in automatic belief revision mode by retracting
+	 * the culprits selected by SNeBR.
+	 *
+	 * @param e
+	 * @return a String describing the retracted hyps.
+	 */
+	private static String resolveContradiction(ContradictionFoundException e) {
+		try {
+			PropositionSet culprits = Controller.selectCulprits(e.getContradictoryHyps());
+			Controller.handleContradiction(culprits, false);
+			return "Contradiction resolved automatically by retracting " + culprits;
+		} catch (ContextNameDoesntExistException | Exception ex) {
+			return ex.getMessage();
+		}
+	}
+
 	public static void main(String[] args) {
 		Network.defineDefaults();
 		System.out.println(AP.executeSnepslogCommand("set-mode-3."));
@@ -16,6 +16,25 @@ class Lexer implements java_cup.runtime.Scanner {
 	private final int YY_EOF = 129;
 
 //initialize  variables to be used by class
+
+	/**
+	 * Points this lexer at new input, keeping its tables and buffer, which are
+	 * costly to build.
+	 */
+	void yyreset(java.io.Reader reader) {
+		yy_reader = new java.io.BufferedReader(reader);
+		yy_buffer_read = 0;
+		yy_buffer_index = 0;
+		yy_buffer_start = 0;
+		yy_buffer_end = 0;
+		yychar = 0;
+		yyline = 0;
+		yy_at_bol = true;
+		yy_lexical_state = YYINITIAL;
+		yy_eof_done = false;
+		yy_last_was_cr = false;
+	}
+	
 	private java.io.BufferedReader yy_reader;
 	private int yy_buffer_index;
 	private int yy_buffer_read;
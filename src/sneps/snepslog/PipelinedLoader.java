@@ -0,0 +1,172 @@
+package sneps.snepslog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * Loads SNePSLOG files through a pipeline of three stages:
+ * <ul>
+ * <li>the lines are streamed from the file through NIO,</li>
+ * <li>each line is tokenized on the common ForkJoinPool, by a Lexer reset for
+ * every line and kept per worker thread,</li>
+ * <li>the tokenized commands are parsed and executed one at a time, in the
+ * order of the file, and their output is written as soon as it is
+ * produced.</li>
+ * </ul>
+ * The parser runs the commands from its semantic actions, which build and
+ * assert nodes in the Network as they are reduced, so parsing is part of the
+ * ordered stage and only the tokenizing runs in parallel. At most window
+ * commands are held between the first and the last stage, which bounds the
+ * memory used whatever the size of the file.
+ */
+public class PipelinedLoader {
+	public static final int DEFAULT_WINDOW = 1024;
+
+	private static final ThreadLocal<Lexer> lexers = new ThreadLocal<Lexer>() {
+		@Override
+		protected Lexer initialValue() {
+			return new Lexer(new StringReader(""));
+		}
+	};
+
+	private int window;
+
+	public PipelinedLoader() {
+		this(DEFAULT_WINDOW);
+	}
+
+	/**
+	 * @param window the maximum number of commands tokenized ahead of the one
+	 *               being executed.
+	 */
+	public PipelinedLoader(int window) {
+		this.window = Math.max(1, window);
+	}
+
+	/**
+	 * A command and its tokens, the EOF token excluded.
+	 */
+	private static class LexedCommand {
+		String command;
+		ArrayList<Symbol> tokens;
+		IOException error;
+	}
+
+	/**
+	 * Replays the tokens of a command to the parser.
+	 */
+	private static class TokenReplay implements Scanner {
+		private ArrayList<Symbol> tokens;
+		private int next = 0;
+
+		TokenReplay(ArrayList<Symbol> tokens) {
+			this.tokens = tokens;
+		}
+
+		@Override
+		public Symbol next_token() {
+			if (next < tokens.size())
+				return tokens.get(next++);
+			return new Symbol(sym.EOF, "");
+		}
+	}
+
+	/**
+	 * Loads the file at path, writing "$command" followed by the output of the
+	 * command for every line of the file, as AP.loadFile does. Loading stops at
+	 * the first line that cannot be tokenized.
+	 *
+	 * @param path the SNePSLOG file
+	 * @param out  where the output of the commands is written
+	 * @return the number of commands executed
+	 * @throws IOException if the file cannot be read or the output written
+	 */
+	public int load(Path path, Writer out) throws IOException {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		ArrayDeque<Future<LexedCommand>> inFlight = new ArrayDeque<Future<LexedCommand>>();
+		int executed = 0;
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String command = line;
+				inFlight.add(pool.submit(() -> lex(command)));
+				if (inFlight.size() >= window) {
+					if (!apply(inFlight.poll(), out))
+						return executed;
+					executed++;
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				if (!apply(inFlight.poll(), out))
+					return executed;
+				executed++;
+			}
+			return executed;
+		} finally {
+			for (Future<LexedCommand> pending : inFlight)
+				pending.cancel(false);
+			out.flush();
+		}
+	}
+
+	private static LexedCommand lex(String command) {
+		LexedCommand lexed = new LexedCommand();
+		lexed.command = command;
+		lexed.tokens = new ArrayList<Symbol>();
+		try {
+			Lexer lexer = lexers.get();
+			lexer.yyreset(new StringReader(command));
+			for (Symbol token = lexer.next_token(); token.sym != sym.EOF; token = lexer.next_token())
+				lexed.tokens.add(token);
+		} catch (IOException e) {
+			lexed.error = e;
+		} catch (Error e) {
+			// the generated Lexer reports unmatched input by throwing a plain Error
+			if (e.getClass() != Error.class)
+				throw e;
+			lexed.error = new IOException(e.getMessage(), e);
+		} catch (IndexOutOfBoundsException e) {
+			// and characters outside of its tables by overrunning them
+			lexed.error = new IOException("Lexical Error: Unmatched Input.", e);
+		}
+		return lexed;
+	}
+
+	/**
+	 * Executes a tokenized command and writes its output.
+	 *
+	 * @return <code>false</code> if loading has to stop
+	 */
+	private static boolean apply(Future<LexedCommand> future, Writer out) throws IOException {
+		LexedCommand lexed;
+		try {
+			lexed = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading", e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		if (lexed.error != null) {
+			out.write("Error executing the command: " + lexed.command + "\n");
+			return false;
+		}
+		out.write("$" + lexed.command + "\n"
+				+ AP.executeSnepslogCommand(lexed.command, new TokenReplay(lexed.tokens)) + "\n");
+		return true;
+	}
+
+}
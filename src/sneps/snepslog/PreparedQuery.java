@@ -0,0 +1,178 @@
+package sneps.snepslog;
+
+import java.util.Hashtable;
+
+import sneps.exceptions.InvalidArgumentsException;
+import sneps.exceptions.NodeNotFoundInNetworkException;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.VariableNode;
+import sneps.network.classes.term.Open;
+import sneps.network.classes.term.Variable;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceResult;
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.LinearSubstitutions;
+import sneps.snip.matching.Substitutions;
+
+/**
+ * An ask or askwh query compiled once and executed many times with different
+ * constants. The wff of the query is parsed once into its pattern node, some
+ * of its variables being parameters that are bound to the constants of every
+ * execution. An execution deduces the pattern node with the parameters bound
+ * in the filter of its requests, so it neither parses the query nor builds
+ * any node, and the channels the pattern node opened are found again by the
+ * executions requesting the same bindings.
+ *
+ * Compiled queries are kept in a plan cache, keyed on the query and its
+ * parameters, which is cleared with the knowledge base.
+ */
+public class PreparedQuery {
+	private static Hashtable<String, PreparedQuery> plans = new Hashtable<String, PreparedQuery>();
+
+	private String type;
+	private String wff;
+	private PropositionNode pattern;
+	private VariableNode[] parameters;
+
+	private PreparedQuery(String type, String wff, PropositionNode pattern, VariableNode[] parameters) {
+		this.type = type;
+		this.wff = wff;
+		this.pattern = pattern;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Compiles a query, or returns the plan already compiled for it.
+	 *
+	 * @param type       "ask" for yes/no questions or "askwh" for wh-questions.
+	 * @param wff        the wff of the query, as written after ask or askwh.
+	 * @param parameters the names of the variables of the wff that are bound on
+	 *                   execution, with or without their leading '?'.
+	 * @return the compiled query.
+	 * @throws InvalidArgumentsException if the query cannot be compiled or a
+	 *                                   parameter is not a free variable of it.
+	 */
+	public static PreparedQuery prepare(String type, String wff, String... parameters)
+			throws InvalidArgumentsException {
+		if (!type.equals("ask") && !type.equals("askwh"))
+			throw new InvalidArgumentsException("Only ask and askwh queries can be prepared");
+		String key = type + " " + wff + " " + String.join(",", parameters);
+		PreparedQuery plan = plans.get(key);
+		if (plan != null && plan.isValid())
+			return plan;
+		plan = compile(type, wff, parameters);
+		plans.put(key, plan);
+		return plan;
+	}
+
+	private static PreparedQuery compile(String type, String wff, String[] parameters)
+			throws InvalidArgumentsException {
+		Node node = AP.compileQuery(type + " " + wff);
+		if (!(node instanceof PropositionNode))
+			throw new InvalidArgumentsException("The wff of the query '" + wff + "' is not a proposition");
+		VariableNode[] variables = new VariableNode[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			String name = parameters[i].startsWith("?") ? parameters[i].substring(1) : parameters[i];
+			Node variable = Network.getNodes().get(name);
+			if (!(variable instanceof VariableNode) || !(node.getTerm() instanceof Open)
+					|| !((Open) node.getTerm()).getFreeVariables().contains((Variable) variable.getTerm()))
+				throw new InvalidArgumentsException(
+						"'" + parameters[i] + "' is not a free variable of the query '" + wff + "'");
+			variables[i] = (VariableNode) variable;
+		}
+		return new PreparedQuery(type, wff, (PropositionNode) node, variables);
+	}
+
+	/**
+	 * @return <code>true</code> if the nodes of the plan are still in the
+	 *         Network.
+	 */
+	private boolean isValid() {
+		if (Network.getNodes().get(pattern.getIdentifier()) != pattern)
+			return false;
+		for (VariableNode parameter : parameters)
+			if (Network.getNodes().get(parameter.getIdentifier()) != parameter)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Drops all the compiled queries.
+	 */
+	public static void clearPlans() {
+		plans.clear();
+	}
+
+	/**
+	 * @return the number of compiled queries in the plan cache.
+	 */
+	public static int getPlansCount() {
+		return plans.size();
+	}
+
+	/**
+	 * Executes the query with no limit other than stopping at the first answer
+	 * of a yes/no question.
+	 *
+	 * @param arguments the nodes bound to the parameters, in their order.
+	 * @return the answers of the query.
+	 */
+	public InferenceResult execute(Node... arguments) {
+		InferenceBudget budget = new InferenceBudget();
+		budget.setStopAfterFirstAnswer(type.equals("ask"));
+		return execute(budget, arguments);
+	}
+
+	/**
+	 * Executes the query with the constants of the given names bound to the
+	 * parameters.
+	 *
+	 * @param arguments the identifiers of the nodes bound to the parameters, in
+	 *                  their order.
+	 * @return the answers of the query.
+	 * @throws NodeNotFoundInNetworkException if there is no node with one of the
+	 *                                        identifiers.
+	 */
+	public InferenceResult executeWithIdentifiers(String... arguments) throws NodeNotFoundInNetworkException {
+		Node[] nodes = new Node[arguments.length];
+		for (int i = 0; i < arguments.length; i++)
+			nodes[i] = Network.getNode(arguments[i]);
+		return execute(nodes);
+	}
+
+	/**
+	 * Executes the query within a budget.
+	 *
+	 * @param budget    limits on activations, reports, time and answers.
+	 * @param arguments the nodes bound to the parameters, in their order.
+	 * @return the answers of the query.
+	 */
+	public InferenceResult execute(InferenceBudget budget, Node... arguments) {
+		if (arguments.length != parameters.length)
+			throw new IllegalArgumentException(
+					"The query takes " + parameters.length + " arguments, " + arguments.length + " were given");
+		Substitutions filterSubs = new LinearSubstitutions();
+		for (int i = 0; i < parameters.length; i++)
+			filterSubs.putIn(new Binding(parameters[i], arguments[i]));
+		return pattern.deduce(budget, null, filterSubs);
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getWff() {
+		return wff;
+	}
+
+	public PropositionNode getPattern() {
+		return pattern;
+	}
+
+	public VariableNode[] getParameters() {
+		return parameters;
+	}
+
+}
@@ -0,0 +1,61 @@
+package sneps.snepslog;
+
+import java.io.StringReader;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * A parser and its Lexer that are reset for every command instead of being
+ * built again, the Lexer unpacking its transition tables whenever it is built.
+ * Parsers are borrowed from a pool and released once the command is executed,
+ * since a command, such as load, may execute other commands while it is being
+ * parsed.
+ */
+class SnepslogParser {
+	private static ConcurrentLinkedDeque<SnepslogParser> pool = new ConcurrentLinkedDeque<SnepslogParser>();
+
+	private Lexer lexer;
+	private parser parser;
+
+	private SnepslogParser() {
+		lexer = new Lexer(new StringReader(""));
+		parser = new parser(lexer);
+	}
+
+	/**
+	 * @return a parser that is not used by any other command
+	 */
+	static SnepslogParser borrow() {
+		SnepslogParser parser = pool.pollFirst();
+		return parser == null ? new SnepslogParser() : parser;
+	}
+
+	static void release(SnepslogParser parser) {
+		pool.offerFirst(parser);
+	}
+
+	/**
+	 * Parses, and thus executes, a command.
+	 *
+	 * @return the symbol whose value is the output of the command
+	 */
+	Symbol parse(String command) throws Exception {
+		lexer.yyreset(new StringReader(command));
+		return parse(command, lexer);
+	}
+
+	/**
+	 * Parses, and thus executes, a command whose tokens are read from a scanner.
+	 *
+	 * @return the symbol whose value is the output of the command
+	 */
+	Symbol parse(String command, Scanner scanner) throws Exception {
+		parser.setScanner(scanner);
+		parser.command = command;
+		parser.warning = "";
+		return parser.parse();
+	}
+
+}
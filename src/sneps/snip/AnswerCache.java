@@ -0,0 +1,240 @@
+package sneps.snip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import sneps.network.Node;
+import sneps.network.RuleNode;
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.Substitutions;
+
+/**
+ * Caches the answers of complete deduces, so that asking the same query again
+ * in an unchanged context does not run backward inference again. Answers are
+ * keyed on the query node, the filter substitutions of the query, and the
+ * context together with its version and the version of the node in it. The
+ * version of a context is increased by SNeBR whenever hyps are added to or
+ * removed from it, or a support change alters what the context believes, while
+ * a support change that alters no belief only increases the versions of the
+ * nodes depending on the changed node in every context. Every context is
+ * invalidated when a rule node is built or removed. The least recently used
+ * answers are evicted once the cache holds capacity entries.
+ *
+ * Deduces cut off by their budget are not cached, and a cached deduce answers
+ * later budgets with its first answers only. A deduce is cached under the key
+ * taken when its run ended, since the supports its derivations add may
+ * invalidate it while it runs. Answers of an older version are never found
+ * again and are the first evicted.
+ */
+public class AnswerCache {
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static boolean enabled = true;
+	private static int capacity = DEFAULT_CAPACITY;
+	private static long generation = 0;
+	private static Hashtable<String, Long> contextVersions = new Hashtable<String, Long>();
+	private static Hashtable<String, Long> nodeVersions = new Hashtable<String, Long>();
+	private static LinkedHashMap<String, InferenceResult> answers = new LinkedHashMap<String, InferenceResult>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, InferenceResult> eldest) {
+			if (size() <= capacity)
+				return false;
+			InferenceMetrics.answerCacheEvicted();
+			return true;
+		}
+	};
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/***
+	 * Enables or disables the cache, disabling it drops the cached answers.
+	 *
+	 * @param enable
+	 */
+	public static void setEnabled(boolean enable) {
+		enabled = enable;
+		if (!enable)
+			clear();
+	}
+
+	public static int getCapacity() {
+		return capacity;
+	}
+
+	/***
+	 * Sets the maximum number of cached answers, evicting the least recently used
+	 * answers above it.
+	 *
+	 * @param capacity
+	 */
+	public static synchronized void setCapacity(int capacity) {
+		AnswerCache.capacity = Math.max(0, capacity);
+		while (answers.size() > AnswerCache.capacity) {
+			answers.remove(answers.keySet().iterator().next());
+			InferenceMetrics.answerCacheEvicted();
+		}
+	}
+
+	public static synchronized int size() {
+		return answers.size();
+	}
+
+	/***
+	 * The key of a query in its context as it is now, computed to look the
+	 * query up before it is deduced and again to cache its answers once the
+	 * deduce ended.
+	 *
+	 * @param nodeId      the id of the query node
+	 * @param filterSubs  the filter substitutions of the query, can be null
+	 * @param contextName the name of the context the query is asked in
+	 * @return the key, or <code>null</code> if the cache is disabled
+	 */
+	public static synchronized String keyOf(int nodeId, Substitutions filterSubs, String contextName) {
+		if (!enabled)
+			return null;
+		Long version = contextVersions.get(contextName);
+		Long nodeVersion = nodeVersions.get(nodeId + "|" + contextName);
+		return nodeId + "|" + subsKey(filterSubs) + "|" + contextName + "|" + generation + "."
+				+ (version == null ? 0 : version) + "." + (nodeVersion == null ? 0 : nodeVersion);
+	}
+
+	/***
+	 * Builds the part of a key standing for the filter substitutions of a query
+	 * out of its bindings sorted by variable id, so that the same bindings make
+	 * the same key whatever order they were bound in.
+	 */
+	private static String subsKey(Substitutions filterSubs) {
+		int size = filterSubs == null ? 0 : filterSubs.cardinality();
+		Binding[] bindings = new Binding[size];
+		for (int i = 0; i < size; i++)
+			bindings[i] = filterSubs.getBinding(i);
+		Arrays.sort(bindings, new Comparator<Binding>() {
+			public int compare(Binding b1, Binding b2) {
+				return Integer.compare(b1.getVariable().getId(), b2.getVariable().getId());
+			}
+		});
+		StringBuilder key = new StringBuilder();
+		for (Binding binding : bindings)
+			key.append(binding.getVariable().getId()).append('=').append(binding.getNode().getId()).append(',');
+		return key.toString();
+	}
+
+	/***
+	 * @param key    the key of the query
+	 * @param budget the budget of the query, limiting the answers returned
+	 * @return the cached answers of the query, or <code>null</code> if they are
+	 *         not cached
+	 */
+	public static synchronized InferenceResult get(String key, InferenceBudget budget) {
+		if (key == null)
+			return null;
+		InferenceResult cached = answers.get(key);
+		if (cached == null) {
+			InferenceMetrics.answerCacheMissed();
+			return null;
+		}
+		InferenceMetrics.answerCacheHit();
+		return new InferenceResult(firstAnswers(cached.getAnswers(), budget), true, cached.getSequence());
+	}
+
+	/***
+	 * Caches all the answers of a complete deduce.
+	 *
+	 * @param key      the key of the query, computed once it was deduced
+	 * @param answers  all the answers of the query
+	 * @param sequence the sequence of nodes the Runner processed
+	 */
+	public static synchronized void put(String key, ArrayList<Report> answers, String sequence) {
+		if (key == null || capacity == 0)
+			return;
+		AnswerCache.answers.put(key, new InferenceResult(new ArrayList<Report>(answers), true, sequence));
+	}
+
+	/***
+	 * @param answers all the answers of a query
+	 * @param budget  the budget of the query
+	 * @return the answers within the maximum number of answers of the budget
+	 */
+	public static ArrayList<Report> firstAnswers(ArrayList<Report> answers, InferenceBudget budget) {
+		int max = budget.getMaxAnswers();
+		if (max < 0 || answers.size() <= max)
+			return new ArrayList<Report>(answers);
+		return new ArrayList<Report>(answers.subList(0, max));
+	}
+
+	/***
+	 * Hook called by SNeBR whenever the hyps of a context change.
+	 *
+	 * @param contextName the name of the context
+	 */
+	public static synchronized void contextChanged(String contextName) {
+		Long version = contextVersions.get(contextName);
+		contextVersions.put(contextName, version == null ? 1 : version + 1);
+		InferenceMetrics.answerCacheInvalidated();
+	}
+
+	/***
+	 * Hook called by SNeBR whenever the supports of a node change without
+	 * changing what a context believes, invalidating the answers about the nodes
+	 * depending on it in that context.
+	 *
+	 * @param contextName the name of the context
+	 * @param nodeIds     the ids of the changed node and of the nodes depending
+	 *                    on it
+	 */
+	public static synchronized void nodesChanged(String contextName, Collection<Integer> nodeIds) {
+		for (int nodeId : nodeIds) {
+			String nodeKey = nodeId + "|" + contextName;
+			Long version = nodeVersions.get(nodeKey);
+			nodeVersions.put(nodeKey, version == null ? 1 : version + 1);
+		}
+		InferenceMetrics.answerCacheInvalidated();
+	}
+
+	/***
+	 * Invalidates the answers of every context.
+	 */
+	public static synchronized void invalidateAll() {
+		generation++;
+		answers.clear();
+		InferenceMetrics.answerCacheInvalidated();
+	}
+
+	/***
+	 * Hook called by Network whenever a new molecular node is built, a new rule
+	 * may derive new answers.
+	 *
+	 * @param node the newly built node
+	 */
+	public static void nodeBuilt(Node node) {
+		if (node instanceof RuleNode)
+			invalidateAll();
+	}
+
+	/***
+	 * Hook called by Network whenever a node is removed.
+	 *
+	 * @param node the removed node
+	 */
+	public static void nodeRemoved(Node node) {
+		invalidateAll();
+	}
+
+	public static synchronized void clear() {
+		generation++;
+		answers.clear();
+		contextVersions.clear();
+		nodeVersions.clear();
+	}
+
+}
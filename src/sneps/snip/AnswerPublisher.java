@@ -0,0 +1,223 @@
+package sneps.snip;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import sneps.network.PropositionNode;
+
+/**
+ * Streams the answers of a deduce as soon as they reach the known instances of
+ * the query node. Inference runs on a thread of a shared daemon pool once a
+ * subscriber is attached, and the Runner is paused before its next activation
+ * whenever answers are pending that the subscriber has not requested yet. All
+ * signals to the subscriber are sent from the inference thread.
+ *
+ * The inference thread holds the Runner lock for the whole deduce, paused or
+ * not, since the Runner state is static and cannot be handed over to another
+ * inference. A paused deduce thus waits for demand at most the demand timeout,
+ * after which the Runner is stopped, the lock is released and the subscriber is
+ * signalled a TimeoutException, so a stalled subscriber never freezes every
+ * other deduce and add.
+ */
+public class AnswerPublisher implements Flow.Publisher<Report> {
+	public static final long DEFAULT_DEMAND_TIMEOUT_MILLIS = 30000;
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+	private static final ExecutorService inferenceExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "deduce-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private PropositionNode queryNode;
+	private InferenceBudget budget;
+	private Flow.Subscriber<? super Report> subscriber;
+	private ArrayDeque<Report> pending;
+	private long demand;
+	private boolean cancelled;
+	private Throwable failure;
+	private InferenceResult result;
+	private long demandTimeoutMillis = DEFAULT_DEMAND_TIMEOUT_MILLIS;
+
+	public AnswerPublisher(PropositionNode queryNode, InferenceBudget budget) {
+		this.queryNode = queryNode;
+		this.budget = budget;
+		pending = new ArrayDeque<Report>();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super Report> newSubscriber) {
+		synchronized (this) {
+			if (subscriber != null) {
+				newSubscriber.onSubscribe(new Flow.Subscription() {
+					public void request(long n) {
+					}
+
+					public void cancel() {
+					}
+				});
+				newSubscriber.onError(new IllegalStateException("Answers of a deduce can only be streamed once"));
+				return;
+			}
+			subscriber = newSubscriber;
+		}
+		subscriber.onSubscribe(new AnswerSubscription());
+		inferenceExecutor.execute(new Runnable() {
+			public void run() {
+				runQuery();
+			}
+		});
+	}
+
+	public synchronized long getDemandTimeout() {
+		return demandTimeoutMillis;
+	}
+
+	/***
+	 * Sets how long the paused Runner waits for the subscriber to request pending
+	 * answers before the stream fails.
+	 *
+	 * @param timeout
+	 * @param unit
+	 */
+	public synchronized void setDemandTimeout(long timeout, TimeUnit unit) {
+		demandTimeoutMillis = Math.max(1, unit.toMillis(timeout));
+	}
+
+	private void runQuery() {
+		try {
+			result = queryNode.deduce(budget, this);
+			if (awaitDrained()) {
+				subscriber.onComplete();
+				return;
+			}
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				if (failure == null && !cancelled)
+					failure = e;
+			}
+		}
+		if (failure != null)
+			subscriber.onError(failure);
+	}
+
+	/***
+	 * Called on the inference thread whenever a new answer reaches the query node.
+	 *
+	 * @param answer
+	 */
+	public void offer(Report answer) {
+		synchronized (this) {
+			if (cancelled)
+				return;
+			pending.add(answer);
+		}
+		drain();
+	}
+
+	/***
+	 * Called by the Runner before every activation. Blocks while the subscriber has
+	 * not requested the answers already pending, at most the demand timeout.
+	 *
+	 * @return <code>false</code> if the subscription was cancelled, or timed out,
+	 *         and inference should stop.
+	 */
+	public boolean awaitDemand() {
+		return awaitDemand(true);
+	}
+
+	private boolean awaitDemand(boolean timed) {
+		drain();
+		synchronized (this) {
+			long deadline = System.currentTimeMillis() + demandTimeoutMillis;
+			while (!cancelled && demand == 0 && !pending.isEmpty()) {
+				long remaining = timed ? deadline - System.currentTimeMillis() : 0;
+				if (timed && remaining <= 0) {
+					failure = new TimeoutException("No answers of " + queryNode + " were requested within "
+							+ demandTimeoutMillis + " ms");
+					cancelled = true;
+					break;
+				}
+				try {
+					wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					cancelled = true;
+				}
+			}
+		}
+		drain();
+		return !isCancelled();
+	}
+
+	/***
+	 * Waits, once inference has finished and the Runner lock is released, until
+	 * the subscriber requested every pending answer.
+	 */
+	private boolean awaitDrained() {
+		while (awaitDemand(false)) {
+			synchronized (this) {
+				if (pending.isEmpty())
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private void drain() {
+		while (true) {
+			Report next;
+			synchronized (this) {
+				if (cancelled || demand == 0 || pending.isEmpty())
+					return;
+				next = pending.poll();
+				demand--;
+			}
+			subscriber.onNext(next);
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/***
+	 * @return the result of the deduce once inference has finished, null before
+	 */
+	public InferenceResult getResult() {
+		return result;
+	}
+
+	private class AnswerSubscription implements Flow.Subscription {
+
+		@Override
+		public void request(long n) {
+			synchronized (AnswerPublisher.this) {
+				if (n <= 0) {
+					failure = new IllegalArgumentException("Requested a non-positive number of answers: " + n);
+					cancelled = true;
+				} else
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				AnswerPublisher.this.notifyAll();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (AnswerPublisher.this) {
+				cancelled = true;
+				AnswerPublisher.this.notifyAll();
+			}
+		}
+
+	}
+
+}
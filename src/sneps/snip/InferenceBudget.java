@@ -0,0 +1,82 @@
+package sneps.snip;
+
+/**
+ * Limits honoured by the Runner while answering a query. A negative limit
+ * means the corresponding resource is unbounded.
+ */
+public class InferenceBudget {
+	public static final int UNBOUNDED = -1;
+
+	private int maxActivations;
+	private int maxReports;
+	private long maxTime;
+	private int maxAnswers;
+	private boolean stopAfterFirstAnswer;
+
+	public InferenceBudget() {
+		this(UNBOUNDED, UNBOUNDED, UNBOUNDED, UNBOUNDED, false);
+	}
+
+	/***
+	 * @param maxActivations       maximum number of nodes the Runner may process
+	 * @param maxReports           maximum number of reports that may be sent
+	 * @param maxTime              maximum wall-clock time in milliseconds
+	 * @param maxAnswers           maximum number of answers to be collected
+	 * @param stopAfterFirstAnswer whether to stop as soon as the query node has
+	 *                             one answer, used by yes/no questions
+	 */
+	public InferenceBudget(int maxActivations, int maxReports, long maxTime, int maxAnswers,
+			boolean stopAfterFirstAnswer) {
+		this.maxActivations = maxActivations;
+		this.maxReports = maxReports;
+		this.maxTime = maxTime;
+		this.maxAnswers = maxAnswers;
+		this.stopAfterFirstAnswer = stopAfterFirstAnswer;
+	}
+
+	public int getMaxActivations() {
+		return maxActivations;
+	}
+
+	public void setMaxActivations(int maxActivations) {
+		this.maxActivations = maxActivations;
+	}
+
+	public int getMaxReports() {
+		return maxReports;
+	}
+
+	public void setMaxReports(int maxReports) {
+		this.maxReports = maxReports;
+	}
+
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	public void setMaxTime(long maxTime) {
+		this.maxTime = maxTime;
+	}
+
+	public int getMaxAnswers() {
+		return stopAfterFirstAnswer ? 1 : maxAnswers;
+	}
+
+	public void setMaxAnswers(int maxAnswers) {
+		this.maxAnswers = maxAnswers;
+	}
+
+	public boolean isStopAfterFirstAnswer() {
+		return stopAfterFirstAnswer;
+	}
+
+	public void setStopAfterFirstAnswer(boolean stopAfterFirstAnswer) {
+		this.stopAfterFirstAnswer = stopAfterFirstAnswer;
+	}
+
+	public String toString() {
+		return "InferenceBudget [activations=" + maxActivations + ", reports=" + maxReports + ", time=" + maxTime
+				+ ", answers=" + getMaxAnswers() + "]";
+	}
+
+}
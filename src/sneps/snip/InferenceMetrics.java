@@ -0,0 +1,310 @@
+package sneps.snip;
+
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import sneps.snip.channels.AntecedentToRuleChannel;
+import sneps.snip.channels.Channel;
+import sneps.snip.channels.MatchChannel;
+import sneps.snip.channels.RuleToConsequentChannel;
+
+/**
+ * Counters and histograms of the inference runs, kept in LongAdders so that
+ * recording stays cheap enough to be always on. The metrics are cumulative
+ * since the last reset(), they can be pulled through getInstance() or
+ * getSnapshot(), and are exposed through JMX as {@value #OBJECT_NAME}.
+ */
+public class InferenceMetrics implements InferenceMetricsMBean {
+	public static final String OBJECT_NAME = "sneps.snip:type=InferenceMetrics";
+
+	private static final InferenceMetrics instance = new InferenceMetrics();
+
+	private final LongAdder highQueueActivations = new LongAdder();
+	private final LongAdder lowQueueActivations = new LongAdder();
+	private final LongAdder actQueueActivations = new LongAdder();
+	private final LongAdder matchChannelsCreated = new LongAdder();
+	private final LongAdder antecedentToRuleChannelsCreated = new LongAdder();
+	private final LongAdder ruleToConsequentChannelsCreated = new LongAdder();
+	private final LongAdder reportsSent = new LongAdder();
+	private final LongAdder reportsFiltered = new LongAdder();
+	private final LongAdder reportsDuplicated = new LongAdder();
+	private final LongAdder knownInstancesAdded = new LongAdder();
+	private final LongAdder answerCacheHits = new LongAdder();
+	private final LongAdder answerCacheMisses = new LongAdder();
+	private final LongAdder answerCacheEvictions = new LongAdder();
+	private final LongAdder answerCacheInvalidations = new LongAdder();
+	private final LatencyHistogram deduceLatency = new LatencyHistogram();
+	private final LatencyHistogram knownInstancesSizes = new LatencyHistogram();
+
+	static {
+		registerMBean();
+	}
+
+	private InferenceMetrics() {
+	}
+
+	public static InferenceMetrics getInstance() {
+		return instance;
+	}
+
+	/***
+	 * Registers the metrics with the platform MBean server, if not already
+	 * registered.
+	 *
+	 * @return <code>true</code> if the metrics are registered
+	 */
+	public static boolean registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+			return true;
+		} catch (InstanceAlreadyExistsException e) {
+			return true;
+		} catch (JMException | SecurityException e) {
+			return false;
+		}
+	}
+
+	public static void highQueueActivated() {
+		instance.highQueueActivations.increment();
+	}
+
+	public static void lowQueueActivated() {
+		instance.lowQueueActivations.increment();
+	}
+
+	public static void actQueueActivated() {
+		instance.actQueueActivations.increment();
+	}
+
+	public static void channelCreated(Channel channel) {
+		if (channel instanceof MatchChannel)
+			instance.matchChannelsCreated.increment();
+		else if (channel instanceof AntecedentToRuleChannel)
+			instance.antecedentToRuleChannelsCreated.increment();
+		else if (channel instanceof RuleToConsequentChannel)
+			instance.ruleToConsequentChannelsCreated.increment();
+	}
+
+	public static void reportSent() {
+		instance.reportsSent.increment();
+	}
+
+	/***
+	 * Counts a report that did not pass the filter of its channel, or whose
+	 * support is not asserted in the context of the channel.
+	 */
+	public static void reportFiltered() {
+		instance.reportsFiltered.increment();
+	}
+
+	/***
+	 * Counts a report that was already among the known instances of its node.
+	 */
+	public static void reportDuplicated() {
+		instance.reportsDuplicated.increment();
+	}
+
+	public static void knownInstanceAdded() {
+		instance.knownInstancesAdded.increment();
+	}
+
+	/***
+	 * @param nanos          the duration of a deduce
+	 * @param knownInstances the size of the known instances of the query node
+	 *                       afterwards
+	 */
+	public static void deduceCompleted(long nanos, int knownInstances) {
+		instance.deduceLatency.record(nanos);
+		instance.knownInstancesSizes.record(knownInstances);
+	}
+
+	public static void answerCacheHit() {
+		instance.answerCacheHits.increment();
+	}
+
+	public static void answerCacheMissed() {
+		instance.answerCacheMisses.increment();
+	}
+
+	public static void answerCacheEvicted() {
+		instance.answerCacheEvictions.increment();
+	}
+
+	public static void answerCacheInvalidated() {
+		instance.answerCacheInvalidations.increment();
+	}
+
+	/***
+	 * @return the values of all the metrics, keyed by their MBean attribute names
+	 */
+	public static Hashtable<String, Number> getSnapshot() {
+		Hashtable<String, Number> snapshot = new Hashtable<String, Number>();
+		snapshot.put("HighQueueActivations", instance.getHighQueueActivations());
+		snapshot.put("LowQueueActivations", instance.getLowQueueActivations());
+		snapshot.put("ActQueueActivations", instance.getActQueueActivations());
+		snapshot.put("MatchChannelsCreated", instance.getMatchChannelsCreated());
+		snapshot.put("AntecedentToRuleChannelsCreated", instance.getAntecedentToRuleChannelsCreated());
+		snapshot.put("RuleToConsequentChannelsCreated", instance.getRuleToConsequentChannelsCreated());
+		snapshot.put("ReportsSent", instance.getReportsSent());
+		snapshot.put("ReportsFiltered", instance.getReportsFiltered());
+		snapshot.put("ReportsDuplicated", instance.getReportsDuplicated());
+		snapshot.put("KnownInstancesAdded", instance.getKnownInstancesAdded());
+		snapshot.put("DeduceCount", instance.getDeduceCount());
+		snapshot.put("DeduceLatencyMeanNanos", instance.getDeduceLatencyMeanNanos());
+		snapshot.put("DeduceLatencyP50Nanos", instance.getDeduceLatencyP50Nanos());
+		snapshot.put("DeduceLatencyP99Nanos", instance.getDeduceLatencyP99Nanos());
+		snapshot.put("DeduceLatencyMaxNanos", instance.getDeduceLatencyMaxNanos());
+		snapshot.put("KnownInstancesSizeMean", instance.getKnownInstancesSizeMean());
+		snapshot.put("KnownInstancesSizeMax", instance.getKnownInstancesSizeMax());
+		snapshot.put("AnswerCacheHits", instance.getAnswerCacheHits());
+		snapshot.put("AnswerCacheMisses", instance.getAnswerCacheMisses());
+		snapshot.put("AnswerCacheEvictions", instance.getAnswerCacheEvictions());
+		snapshot.put("AnswerCacheInvalidations", instance.getAnswerCacheInvalidations());
+		snapshot.put("AnswerCacheSize", instance.getAnswerCacheSize());
+		return snapshot;
+	}
+
+	public LatencyHistogram getDeduceLatency() {
+		return deduceLatency;
+	}
+
+	public LatencyHistogram getKnownInstancesSizes() {
+		return knownInstancesSizes;
+	}
+
+	@Override
+	public long getHighQueueActivations() {
+		return highQueueActivations.sum();
+	}
+
+	@Override
+	public long getLowQueueActivations() {
+		return lowQueueActivations.sum();
+	}
+
+	@Override
+	public long getActQueueActivations() {
+		return actQueueActivations.sum();
+	}
+
+	@Override
+	public long getMatchChannelsCreated() {
+		return matchChannelsCreated.sum();
+	}
+
+	@Override
+	public long getAntecedentToRuleChannelsCreated() {
+		return antecedentToRuleChannelsCreated.sum();
+	}
+
+	@Override
+	public long getRuleToConsequentChannelsCreated() {
+		return ruleToConsequentChannelsCreated.sum();
+	}
+
+	@Override
+	public long getReportsSent() {
+		return reportsSent.sum();
+	}
+
+	@Override
+	public long getReportsFiltered() {
+		return reportsFiltered.sum();
+	}
+
+	@Override
+	public long getReportsDuplicated() {
+		return reportsDuplicated.sum();
+	}
+
+	@Override
+	public long getKnownInstancesAdded() {
+		return knownInstancesAdded.sum();
+	}
+
+	@Override
+	public long getDeduceCount() {
+		return deduceLatency.getCount();
+	}
+
+	@Override
+	public double getDeduceLatencyMeanNanos() {
+		return deduceLatency.getMean();
+	}
+
+	@Override
+	public long getDeduceLatencyP50Nanos() {
+		return deduceLatency.getQuantile(0.5);
+	}
+
+	@Override
+	public long getDeduceLatencyP99Nanos() {
+		return deduceLatency.getQuantile(0.99);
+	}
+
+	@Override
+	public long getDeduceLatencyMaxNanos() {
+		return deduceLatency.getMax();
+	}
+
+	@Override
+	public double getKnownInstancesSizeMean() {
+		return knownInstancesSizes.getMean();
+	}
+
+	@Override
+	public long getKnownInstancesSizeMax() {
+		return knownInstancesSizes.getMax();
+	}
+
+	@Override
+	public long getAnswerCacheHits() {
+		return answerCacheHits.sum();
+	}
+
+	@Override
+	public long getAnswerCacheMisses() {
+		return answerCacheMisses.sum();
+	}
+
+	@Override
+	public long getAnswerCacheEvictions() {
+		return answerCacheEvictions.sum();
+	}
+
+	@Override
+	public long getAnswerCacheInvalidations() {
+		return answerCacheInvalidations.sum();
+	}
+
+	@Override
+	public int getAnswerCacheSize() {
+		return AnswerCache.size();
+	}
+
+	@Override
+	public void reset() {
+		highQueueActivations.reset();
+		lowQueueActivations.reset();
+		actQueueActivations.reset();
+		matchChannelsCreated.reset();
+		antecedentToRuleChannelsCreated.reset();
+		ruleToConsequentChannelsCreated.reset();
+		reportsSent.reset();
+		reportsFiltered.reset();
+		reportsDuplicated.reset();
+		knownInstancesAdded.reset();
+		answerCacheHits.reset();
+		answerCacheMisses.reset();
+		answerCacheEvictions.reset();
+		answerCacheInvalidations.reset();
+		deduceLatency.reset();
+		knownInstancesSizes.reset();
+	}
+
+}
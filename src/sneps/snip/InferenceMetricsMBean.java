@@ -0,0 +1,55 @@
+package sneps.snip;
+
+/**
+ * The JMX view of the inference metrics, registered as
+ * {@value InferenceMetrics#OBJECT_NAME}.
+ */
+public interface InferenceMetricsMBean {
+
+	public long getHighQueueActivations();
+
+	public long getLowQueueActivations();
+
+	public long getActQueueActivations();
+
+	public long getMatchChannelsCreated();
+
+	public long getAntecedentToRuleChannelsCreated();
+
+	public long getRuleToConsequentChannelsCreated();
+
+	public long getReportsSent();
+
+	public long getReportsFiltered();
+
+	public long getReportsDuplicated();
+
+	public long getKnownInstancesAdded();
+
+	public long getDeduceCount();
+
+	public double getDeduceLatencyMeanNanos();
+
+	public long getDeduceLatencyP50Nanos();
+
+	public long getDeduceLatencyP99Nanos();
+
+	public long getDeduceLatencyMaxNanos();
+
+	public double getKnownInstancesSizeMean();
+
+	public long getKnownInstancesSizeMax();
+
+	public long getAnswerCacheHits();
+
+	public long getAnswerCacheMisses();
+
+	public long getAnswerCacheEvictions();
+
+	public long getAnswerCacheInvalidations();
+
+	public int getAnswerCacheSize();
+
+	public void reset();
+
+}
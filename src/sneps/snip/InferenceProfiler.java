@@ -0,0 +1,308 @@
+package sneps.snip;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Map;
+
+import sneps.network.Node;
+import sneps.network.RuleNode;
+
+/**
+ * Profiling mode of the Runner, attributing the time spent and the reports,
+ * rule use infos and channels to the nodes responsible for them. Every
+ * activation of the Runner is timed from the dispatch to processReports(),
+ * processRequests() or processIntends(), and the rule use infos created or
+ * combined meanwhile are charged to the activated node.
+ *
+ * Every node also remembers the node that last queued it, by sending it a
+ * report or a request, so the time of an activation is recorded against the
+ * chain of nodes that led to it as well. Those chains are written as collapsed
+ * stacks, the input format of flame graph tools, the frame name of every node
+ * being computed once and cached until reset().
+ *
+ * The profiler is disabled by default and costs a single check per hook when
+ * disabled.
+ */
+public class InferenceProfiler {
+	private static final int MAX_STACK_DEPTH = 64;
+
+	private static volatile boolean enabled = false;
+	private static Hashtable<Integer, NodeProfile> profiles = new Hashtable<Integer, NodeProfile>();
+	private static Hashtable<Integer, Node> causes = new Hashtable<Integer, Node>();
+	private static Hashtable<String, Long> collapsedStacks = new Hashtable<String, Long>();
+	private static Hashtable<Integer, String> frames = new Hashtable<Integer, String>();
+	private static Node current;
+	private static long enterTime;
+
+	/**
+	 * What the profiler recorded about a single node.
+	 */
+	public static class NodeProfile {
+		private Node node;
+		private long nanos;
+		private long activations;
+		private long reportsReceived;
+		private long reportsSent;
+		private long requestsReceived;
+		private long ruisCreated;
+		private long ruisCombined;
+		private long channelsOpened;
+
+		NodeProfile(Node node) {
+			this.node = node;
+		}
+
+		public Node getNode() {
+			return node;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		public long getActivations() {
+			return activations;
+		}
+
+		public long getReportsReceived() {
+			return reportsReceived;
+		}
+
+		public long getReportsSent() {
+			return reportsSent;
+		}
+
+		public long getRequestsReceived() {
+			return requestsReceived;
+		}
+
+		public long getRuisCreated() {
+			return ruisCreated;
+		}
+
+		public long getRuisCombined() {
+			return ruisCombined;
+		}
+
+		public long getChannelsOpened() {
+			return channelsOpened;
+		}
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/***
+	 * Enables or disables profiling, what was recorded so far is kept until
+	 * reset().
+	 *
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		InferenceProfiler.enabled = enabled;
+	}
+
+	public static synchronized void reset() {
+		profiles = new Hashtable<Integer, NodeProfile>();
+		causes = new Hashtable<Integer, Node>();
+		collapsedStacks = new Hashtable<String, Long>();
+		frames = new Hashtable<Integer, String>();
+		current = null;
+	}
+
+	private static NodeProfile profileOf(Node node) {
+		NodeProfile profile = profiles.get(node.getId());
+		if (profile == null) {
+			profile = new NodeProfile(node);
+			profiles.put(node.getId(), profile);
+		}
+		return profile;
+	}
+
+	/***
+	 * Called by the Runner before activating a node.
+	 */
+	public static void enter(Node node) {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			current = node;
+			enterTime = System.nanoTime();
+		}
+	}
+
+	/***
+	 * Called by the Runner once the activation of the node entered last returned.
+	 */
+	public static void exit() {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			if (current == null)
+				return;
+			long nanos = System.nanoTime() - enterTime;
+			NodeProfile profile = profileOf(current);
+			profile.nanos += nanos;
+			profile.activations++;
+			String stack = stackOf(current);
+			Long total = collapsedStacks.get(stack);
+			collapsedStacks.put(stack, total == null ? nanos : total + nanos);
+			current = null;
+		}
+	}
+
+	/***
+	 * @param receiver the node receiving the report
+	 * @param sender   the node that sent it
+	 */
+	public static void reportReceived(Node receiver, Node sender) {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			profileOf(receiver).reportsReceived++;
+			causes.put(receiver.getId(), sender);
+		}
+	}
+
+	/***
+	 * @param receiver the node receiving the request
+	 * @param sender   the node that sent it
+	 */
+	public static void requestReceived(Node receiver, Node sender) {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			profileOf(receiver).requestsReceived++;
+			causes.put(receiver.getId(), sender);
+		}
+	}
+
+	public static void reportSent(Node sender) {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			profileOf(sender).reportsSent++;
+		}
+	}
+
+	public static void channelOpened(Node requester) {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			profileOf(requester).channelsOpened++;
+		}
+	}
+
+	/***
+	 * Charges a rule use info creation to the node being activated.
+	 */
+	public static void ruiCreated() {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			if (current == null)
+				return;
+			profileOf(current).ruisCreated++;
+		}
+	}
+
+	/***
+	 * Charges the combination of two rule use infos to the node being activated.
+	 */
+	public static void ruisCombined() {
+		if (!enabled)
+			return;
+		synchronized (InferenceProfiler.class) {
+			if (current == null)
+				return;
+			profileOf(current).ruisCombined++;
+		}
+	}
+
+	/***
+	 * The chain of nodes that led to the activation of node, following the node
+	 * that last queued each of them, the first one first. The chain stops at a
+	 * node that was queued by none, or that is already on it.
+	 */
+	private static String stackOf(Node node) {
+		ArrayList<String> stack = new ArrayList<String>();
+		HashSet<Integer> visited = new HashSet<Integer>();
+		for (Node n = node; n != null && stack.size() < MAX_STACK_DEPTH
+				&& visited.add(n.getId()); n = causes.get(n.getId()))
+			stack.add(frameOf(n));
+		Collections.reverse(stack);
+		return String.join(";", stack);
+	}
+
+	private static String frameOf(Node node) {
+		String frame = frames.get(node.getId());
+		if (frame == null) {
+			String type = node instanceof RuleNode ? node.getClass().getSimpleName() : "Node";
+			frame = (type + ":" + node.getIdentifier()).replaceAll("[;\\s]", "_");
+			frames.put(node.getId(), frame);
+		}
+		return frame;
+	}
+
+	/***
+	 * @return the profiles of all the nodes, the most time consuming first
+	 */
+	public static synchronized ArrayList<NodeProfile> getProfiles() {
+		ArrayList<NodeProfile> sorted = new ArrayList<NodeProfile>(profiles.values());
+		sorted.sort((p1, p2) -> Long.compare(p2.nanos, p1.nanos));
+		return sorted;
+	}
+
+	/***
+	 * @return the profiles of the rule nodes, the most time consuming first
+	 */
+	public static ArrayList<NodeProfile> getHotRules() {
+		ArrayList<NodeProfile> rules = new ArrayList<NodeProfile>();
+		for (NodeProfile profile : getProfiles())
+			if (profile.node instanceof RuleNode)
+				rules.add(profile);
+		return rules;
+	}
+
+	/***
+	 * A table of the rule nodes that took the most time.
+	 *
+	 * @param limit the maximum number of rows, negative for all of them
+	 * @return String
+	 */
+	public static String getHotRulesReport(int limit) {
+		StringBuilder report = new StringBuilder(String.format("%-24s %12s %8s %8s %8s %8s %8s %8s%n", "rule",
+				"time (us)", "runs", "rep in", "rep out", "ruis", "combined", "channels"));
+		int rows = 0;
+		for (NodeProfile profile : getHotRules()) {
+			if (limit >= 0 && rows++ >= limit)
+				break;
+			report.append(String.format("%-24s %12d %8d %8d %8d %8d %8d %8d%n", frameOf(profile.node),
+					profile.nanos / 1000, profile.activations, profile.reportsReceived, profile.reportsSent,
+					profile.ruisCreated, profile.ruisCombined, profile.channelsOpened));
+		}
+		return report.toString();
+	}
+
+	/***
+	 * Writes the time recorded against every chain of nodes, one
+	 * "frame;frame;frame nanoseconds" line per chain, which flame graph tools
+	 * render directly.
+	 *
+	 * @param path
+	 * @throws IOException
+	 */
+	public static synchronized void writeCollapsedStacks(String path) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+			for (Map.Entry<String, Long> stack : collapsedStacks.entrySet())
+				writer.println(stack.getKey() + " " + stack.getValue());
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package sneps.snip;
+
+import java.util.ArrayList;
+
+/**
+ * The outcome of a budgeted deduce: the answers collected at the query node and
+ * whether inference ran to completion or was cut off by its InferenceBudget.
+ */
+public class InferenceResult {
+	private ArrayList<Report> answers;
+	private boolean complete;
+	private String sequence;
+
+	public InferenceResult(ArrayList<Report> answers, boolean complete, String sequence) {
+		this.answers = answers;
+		this.complete = complete;
+		this.sequence = sequence;
+	}
+
+	public ArrayList<Report> getAnswers() {
+		return answers;
+	}
+
+	/***
+	 * @return <code>true</code> if the Runner emptied its queues, and
+	 *         <code>false</code> if the answers are partial because a budget limit
+	 *         was reached.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	public String getSequence() {
+		return sequence;
+	}
+
+	public String toString() {
+		return "InferenceResult [complete=" + complete + ", answers=" + answers + "]";
+	}
+
+}
@@ -6,30 +6,56 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import sneps.snip.channels.Channel;
 import sneps.snip.matching.Substitutions;
 
 public class KnownInstances implements Iterable<Report> {
 	Hashtable<Substitutions, Set<Report>> instances;
+	private Consumer<Report> reportListener;
 
 	public KnownInstances() {
 		instances = new Hashtable<Substitutions, Set<Report>>();
 	}
 
-	public void addReport(Report report) {
+	public boolean addReport(Report report) {
 		Substitutions reportSubs = report.getSubstitutions();
 		Set<Report> reportsSet = instances.remove(reportSubs);
 		if (reportsSet == null)
 			reportsSet = new HashSet<Report>();
-		reportsSet.add(report);
+		boolean added = reportsSet.add(report);
 		instances.put(reportSubs, reportsSet);
+		if (added)
+			InferenceMetrics.knownInstanceAdded();
+		else
+			InferenceMetrics.reportDuplicated();
+		if (added && reportListener != null)
+			reportListener.accept(report);
+		return added;
+	}
+
+	/***
+	 * Registers a listener notified with every report newly added to these known
+	 * instances, null removes the current listener.
+	 *
+	 * @param listener
+	 */
+	public void setReportListener(Consumer<Report> listener) {
+		reportListener = listener;
 	}
 
 	public Set<Report> getReportBySubstitutions(Substitutions subs) {
 		return instances.get(subs);
 	}
 
+	public int size() {
+		int size = 0;
+		for (Set<Report> set : instances.values())
+			size += set.size();
+		return size;
+	}
+
 	public Iterator<Report> iterator() {
 		Set<Report> allMergedReports = new HashSet<Report>();
 		Collection<Set<Report>> collectionOfSets = instances.values();
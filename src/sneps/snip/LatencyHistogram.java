@@ -0,0 +1,93 @@
+package sneps.snip;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, nanoseconds usually, recorded into
+ * power-of-two buckets: bucket b counts the values v such that
+ * 2^(b-1) <= v < 2^b, bucket 0 counting zero. Every bucket is a LongAdder, so
+ * recording is cheap and never blocks, and reading gives an approximate
+ * snapshot while values are being recorded.
+ */
+public class LatencyHistogram {
+	public static final int BUCKETS = 64;
+
+	private final LongAdder[] buckets;
+	private final LongAdder count;
+	private final LongAdder sum;
+	private final LongAccumulator max;
+
+	public LatencyHistogram() {
+		buckets = new LongAdder[BUCKETS];
+		for (int b = 0; b < BUCKETS; b++)
+			buckets[b] = new LongAdder();
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	}
+
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+		buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : (double) getSum() / n;
+	}
+
+	/***
+	 * @param quantile between 0 and 1
+	 * @return an upper bound of the given quantile, the upper bound of the bucket
+	 *         it falls in, capped by the maximum recorded value.
+	 */
+	public long getQuantile(double quantile) {
+		long[] counts = getBucketCounts();
+		long total = 0;
+		for (long c : counts)
+			total += c;
+		if (total == 0)
+			return 0;
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += counts[b];
+			if (seen >= rank && counts[b] > 0)
+				return Math.min(b == 0 ? 0 : b == 63 ? Long.MAX_VALUE : (1L << b) - 1, getMax());
+		}
+		return getMax();
+	}
+
+	public long[] getBucketCounts() {
+		long[] counts = new long[BUCKETS];
+		for (int b = 0; b < BUCKETS; b++)
+			counts[b] = buckets[b].sum();
+		return counts;
+	}
+
+	public void reset() {
+		for (LongAdder bucket : buckets)
+			bucket.reset();
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+
+}
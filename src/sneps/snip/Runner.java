@@ -6,45 +6,149 @@ import java.util.Queue;
 
 import sneps.network.ActNode;
 import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.snip.matching.Substitutions;
 
 public class Runner {
+
+	/***
+	 * The Runner, like the Network and SNeBR state it reads, is static, so every
+	 * deduce and add holds this lock while it uses the Runner. Inference started
+	 * on other threads, as by an AnswerPublisher, thus waits for the inference in
+	 * progress instead of interleaving with it.
+	 */
+	public static final Object LOCK = new Object();
 	
 	private static Queue<Node> highQueue;
 	private static Queue<Node> lowQueue;
 	private static Deque<ActNode> actQueue;
+	private static InferenceBudget budget;
+	private static PropositionNode queryNode;
+	private static int activations;
+	private static int reportsSent;
+	private static long startTime;
+	private static AnswerPublisher answerPublisher;
+	private static int answers;
+	private static Substitutions answerFilter;
 	
 	public static void initiate() {
 		highQueue = new ArrayDeque<Node>();
 		lowQueue = new ArrayDeque<Node>();
 		actQueue = new ArrayDeque<ActNode>();
+		budget = new InferenceBudget();
+		queryNode = null;
+		activations = 0;
+		reportsSent = 0;
+		startTime = System.currentTimeMillis();
+		answerPublisher = null;
+		answers = 0;
+		answerFilter = null;
+	}
+
+	/***
+	 * Initiates the Runner for a query whose inference has to be kept within the
+	 * given budget.
+	 *
+	 * @param inferenceBudget limits to be honoured by run()
+	 * @param query           node whose known instances are the answers
+	 */
+	public static void initiate(InferenceBudget inferenceBudget, PropositionNode query) {
+		initiate();
+		budget = inferenceBudget;
+		queryNode = query;
+	}
+
+	/***
+	 * Initiates the Runner for a query whose answers are streamed, the Runner then
+	 * pauses whenever the publisher has answers its subscriber did not request yet.
+	 *
+	 * @param inferenceBudget limits to be honoured by run()
+	 * @param query           node whose known instances are the answers
+	 * @param publisher       publisher streaming the answers
+	 */
+	public static void initiate(InferenceBudget inferenceBudget, PropositionNode query, AnswerPublisher publisher) {
+		initiate(inferenceBudget, query);
+		answerPublisher = publisher;
+	}
+
+	/***
+	 * Initiates the Runner for a query whose answers have to agree with a filter,
+	 * only the answers compatible with the filter counting against the budget.
+	 *
+	 * @param inferenceBudget limits to be honoured by run()
+	 * @param query           node whose known instances are the answers
+	 * @param publisher       publisher streaming the answers, can be null
+	 * @param filter          bindings the answers have to agree with, can be null
+	 */
+	public static void initiate(InferenceBudget inferenceBudget, PropositionNode query, AnswerPublisher publisher,
+			Substitutions filter) {
+		initiate(inferenceBudget, query, publisher);
+		answerFilter = filter;
+	}
+
+	/***
+	 * Called whenever a report is newly added to the known instances of the query
+	 * node, the answers of the current run being counted against the budget.
+	 *
+	 * @param answer the report added
+	 * @return <code>true</code> if the report is compatible with the filter of the
+	 *         query, and so is an answer
+	 */
+	public static boolean answerAdded(Report answer) {
+		if (answerFilter != null && !answer.getSubstitutions().isCompatible(answerFilter))
+			return false;
+		answers++;
+		return true;
+	}
+
+	public static int getAnswers() {
+		return answers;
 	}
 
 	public static String run() {
 		String sequence = "";
 		main: while(!highQueue.isEmpty() || !lowQueue.isEmpty() || !actQueue.isEmpty()) {
 			while(!highQueue.isEmpty()) {
+				if(shouldStop())
+					break main;
 				System.out.println("\n\n");
 				System.out.println(" AT HIGH QUEUE ");
 				Node toRunNext = highQueue.poll();
 				System.out.println(toRunNext);
 				System.out.println("\n\n");
+				InferenceProfiler.enter(toRunNext);
 				toRunNext.processReports();
+				InferenceProfiler.exit();
+				activations++;
+				InferenceMetrics.highQueueActivated();
 				sequence += 'H';
 			}
 			while(!lowQueue.isEmpty()) {
+				if(shouldStop())
+					break main;
 				System.out.println("in");
 				Node toRunNext = lowQueue.poll();
+				InferenceProfiler.enter(toRunNext);
 				toRunNext.processRequests();
+				InferenceProfiler.exit();
+				activations++;
+				InferenceMetrics.lowQueueActivated();
 				sequence += 'L';
 				if(!highQueue.isEmpty())
 					continue main;
 			}
 			while(!actQueue.isEmpty()) {
+				if(shouldStop())
+					break main;
 				System.out.println("AT ACT QUEUE");
 				ActNode toRunNext = actQueue.removeLast();
 				System.out.println(toRunNext + " agenda: " + toRunNext.getAgenda());
 				System.out.println("\n\n");
+				InferenceProfiler.enter(toRunNext);
 				toRunNext.processIntends();
+				InferenceProfiler.exit();
+				activations++;
+				InferenceMetrics.actQueueActivated();
 				sequence += 'A';
 				if(!highQueue.isEmpty() || !lowQueue.isEmpty()) {
 					continue main;
@@ -53,6 +157,63 @@ public class Runner {
 		}
 		return sequence;
 	}
+
+	private static boolean shouldStop() {
+		if (answerPublisher != null && !answerPublisher.awaitDemand())
+			return true;
+		return isBudgetExhausted();
+	}
+
+	/***
+	 * Checks the limits of the current budget, it is checked before every
+	 * activation so a running inference is cut off cooperatively.
+	 *
+	 * @return boolean
+	 */
+	public static boolean isBudgetExhausted() {
+		if (budget.getMaxActivations() >= 0 && activations >= budget.getMaxActivations())
+			return true;
+		if (budget.getMaxReports() >= 0 && reportsSent >= budget.getMaxReports())
+			return true;
+		if (budget.getMaxTime() >= 0 && System.currentTimeMillis() - startTime >= budget.getMaxTime())
+			return true;
+		if (budget.getMaxAnswers() >= 0 && queryNode != null && answers >= budget.getMaxAnswers())
+			return true;
+		return false;
+	}
+
+	/***
+	 * @return <code>true</code> if all the queues were emptied by the last run()
+	 */
+	public static boolean isComplete() {
+		return highQueue.isEmpty() && lowQueue.isEmpty() && actQueue.isEmpty();
+	}
+
+	public static void reportSent() {
+		reportsSent++;
+	}
+
+	/***
+	 * Turns the profiling mode on or off, see InferenceProfiler for what is
+	 * recorded.
+	 *
+	 * @param profiling
+	 */
+	public static void setProfiling(boolean profiling) {
+		InferenceProfiler.setEnabled(profiling);
+	}
+
+	public static boolean isProfiling() {
+		return InferenceProfiler.isEnabled();
+	}
+
+	public static int getActivations() {
+		return activations;
+	}
+
+	public static int getReportsSent() {
+		return reportsSent;
+	}
 	
 	public static void addToHighQueue(Node node) {
 		highQueue.add(node);
@@ -4,7 +4,6 @@ import sneps.exceptions.NodeNotFoundInNetworkException;
 import sneps.exceptions.NotAPropositionNodeException;
 import sneps.network.Node;
 import sneps.network.PropositionNode;
-import sneps.network.classes.setClasses.ChannelSet;
 import sneps.network.classes.setClasses.ReportSet;
 import sneps.snebr.Context;
 import sneps.snebr.Controller;
@@ -100,6 +99,14 @@ public abstract class Channel {
 	}
 
 	public void setRequestProcessed(boolean requestProcessed) {
+		if (requestProcessed != this.requestProcessed && requester instanceof PropositionNode) {
+			RequestSubsumptionIndex processedRequestsIndex = ((PropositionNode) requester)
+					.getProcessedRequestsIndex();
+			if (requestProcessed)
+				processedRequestsIndex.insert(RequestSubsumptionIndex.ANY_REQUESTER, this);
+			else
+				processedRequestsIndex.remove(RequestSubsumptionIndex.ANY_REQUESTER, this);
+		}
 		this.requestProcessed = requestProcessed;
 	}
 
@@ -120,18 +127,9 @@ public abstract class Channel {
 	}
 
 	public boolean processedGeneralizedRequest(Substitutions currentChannelFilterSubs) {
-		ChannelSet filteredChannelsSet = ((PropositionNode) requester).getIncomingChannels()
-				.getFilteredRequestChannels(true);
-		for (Channel incomingChannel : filteredChannelsSet) {
-			if (incomingChannel != this) {
-				Substitutions processedChannelFilterSubs = incomingChannel.getFilter().getSubstitutions();
-				if (processedChannelFilterSubs.isSubSet(currentChannelFilterSubs)) {
-					return true;
-				}
-			}
-		}
-		return false;
-
+		RequestSubsumptionIndex processedRequestsIndex = ((PropositionNode) requester).getProcessedRequestsIndex();
+		return processedRequestsIndex.hasGeneralizedRequest(RequestSubsumptionIndex.ANY_REQUESTER,
+				currentChannelFilterSubs, this);
 	}
 
 	public void setReportsBuffer(ReportSet reportsBuffer) {
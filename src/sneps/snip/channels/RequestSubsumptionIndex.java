@@ -0,0 +1,125 @@
+package sneps.snip.channels;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Hashtable;
+
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.Substitutions;
+
+/**
+ * A per node index over the filter substitutions of the requests a node is
+ * working on. Requests are grouped by requester and every group is a trie whose
+ * edges are bindings ordered by variable id, so checking whether a request at
+ * least as general as a given one (its filter bindings are a subset of the
+ * given filter bindings) is already active only walks the paths spelled by the
+ * given bindings instead of comparing against every channel.
+ *
+ * Subsumption is only checked within a requester: a request of one node never
+ * makes a request of another node redundant. The owning node rebuilds the index
+ * whenever its channels are replaced, so it holds the requests of its current
+ * channels only.
+ */
+public class RequestSubsumptionIndex implements Serializable {
+	private static final long serialVersionUID = 1L;
+	public static final int ANY_REQUESTER = -1;
+
+	private Hashtable<Integer, TrieNode> roots;
+
+	private static class TrieNode implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private Hashtable<Long, TrieNode> children = new Hashtable<Long, TrieNode>();
+		private HashSet<Integer> channelIds = new HashSet<Integer>();
+	}
+
+	public RequestSubsumptionIndex() {
+		roots = new Hashtable<Integer, TrieNode>();
+	}
+
+	/***
+	 * Indexes the filter substitutions of the given channel under the given
+	 * requester.
+	 *
+	 * @param requesterId id of the node the request was sent by
+	 * @param channel     channel carrying the request
+	 */
+	public void insert(int requesterId, Channel channel) {
+		TrieNode current = roots.get(requesterId);
+		if (current == null) {
+			current = new TrieNode();
+			roots.put(requesterId, current);
+		}
+		for (long key : sortedKeys(channel.getFilter().getSubstitution())) {
+			TrieNode child = current.children.get(key);
+			if (child == null) {
+				child = new TrieNode();
+				current.children.put(key, child);
+			}
+			current = child;
+		}
+		current.channelIds.add(channel.getId());
+	}
+
+	public void remove(int requesterId, Channel channel) {
+		TrieNode current = roots.get(requesterId);
+		for (long key : sortedKeys(channel.getFilter().getSubstitution())) {
+			if (current == null)
+				return;
+			current = current.children.get(key);
+		}
+		if (current != null)
+			current.channelIds.remove(channel.getId());
+	}
+
+	/***
+	 * Checks whether a request whose filter bindings are a subset of the given
+	 * substitutions was already indexed under the given requester.
+	 *
+	 * @param requesterId  id of the requesting node
+	 * @param filterSubs   filter substitutions of the new request
+	 * @param excludedChannel channel to be ignored while checking, can be null
+	 * @return boolean
+	 */
+	public boolean hasGeneralizedRequest(int requesterId, Substitutions filterSubs, Channel excludedChannel) {
+		TrieNode root = roots.get(requesterId);
+		if (root == null)
+			return false;
+		int excludedId = excludedChannel == null ? -1 : excludedChannel.getId();
+		return search(root, sortedKeys(filterSubs), 0, excludedId);
+	}
+
+	private boolean search(TrieNode current, long[] keys, int from, int excludedId) {
+		for (int channelId : current.channelIds)
+			if (channelId != excludedId)
+				return true;
+		for (int i = from; i < keys.length; i++) {
+			TrieNode child = current.children.get(keys[i]);
+			if (child != null && search(child, keys, i + 1, excludedId))
+				return true;
+		}
+		return false;
+	}
+
+	public void clear() {
+		roots.clear();
+	}
+
+	private static long[] sortedKeys(Substitutions subs) {
+		int size = subs == null ? 0 : subs.cardinality();
+		Binding[] bindings = new Binding[size];
+		for (int i = 0; i < size; i++)
+			bindings[i] = subs.getBinding(i);
+		Arrays.sort(bindings, new Comparator<Binding>() {
+			public int compare(Binding b1, Binding b2) {
+				return Integer.compare(b1.getVariable().getId(), b2.getVariable().getId());
+			}
+		});
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = ((long) bindings[i].getVariable().getId() << 32) | (bindings[i].getNode().getId() & 0xffffffffL);
+		return keys;
+	}
+
+}
@@ -1,16 +1,19 @@
 package sneps.snip.classes;
 
 import sneps.network.classes.setClasses.FlagNodeSet;
+import sneps.snip.InferenceProfiler;
 import sneps.snip.matching.Substitutions;
 
 public class RuleUseInfo {
 
 	public RuleUseInfo(Substitutions substitutions, int i, int j,
 			FlagNodeSet fns) {
+		InferenceProfiler.ruiCreated();
 		// TODO Auto-generated constructor stub
 	}
 
 	public RuleUseInfo combine(RuleUseInfo tRui) {
+		InferenceProfiler.ruisCombined();
 		// TODO Auto-generated method stub
 		return null;
 	}
@@ -1,5 +1,6 @@
 package sneps.snip.matching;
 
+import java.util.BitSet;
 import java.util.Vector;
 
 import sneps.network.Node;
@@ -484,4 +485,16 @@ public class LinearSubstitutions implements Substitutions {
 			
 		}
 
+		/**
+		 * Builds a mask holding the ids of the variables bound by this substitutions
+		 * list
+		 * @return BitSet
+		 */
+		public BitSet getBoundVariablesMask() {
+			BitSet mask = new BitSet();
+			for (int i = 0; i < sub.size(); i++)
+				mask.set(sub.get(i).getVariable().getId());
+			return mask;
+		}
+
 }
\ No newline at end of file
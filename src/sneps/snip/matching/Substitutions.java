@@ -1,5 +1,7 @@
 package sneps.snip.matching;
 
+import java.util.BitSet;
+
 import sneps.network.Node;
 import sneps.network.VariableNode;
 
@@ -35,6 +37,7 @@ public interface Substitutions {
     public String toString();
     public int termID(int variableID);
     public void insertOrUpdate(Binding mb);
+    public BitSet getBoundVariablesMask();
 
 
 
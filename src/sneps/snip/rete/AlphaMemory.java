@@ -0,0 +1,83 @@
+package sneps.snip.rete;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+import sneps.network.PropositionNode;
+import sneps.network.RuleNode;
+import sneps.network.classes.setClasses.NodeSet;
+import sneps.snip.Report;
+
+/**
+ * The alpha memory of a single antecedent (pattern or closed proposition
+ * node). It keeps, per context, the instances of the antecedent that reached
+ * the compiled network, together with the rules the antecedent feeds into.
+ */
+public class AlphaMemory {
+	private PropositionNode antecedent;
+	private NodeSet successors;
+	private Hashtable<String, ArrayList<Report>> instances;
+
+	public AlphaMemory(PropositionNode antecedent) {
+		this.antecedent = antecedent;
+		successors = new NodeSet();
+		instances = new Hashtable<String, ArrayList<Report>>();
+	}
+
+	public PropositionNode getAntecedent() {
+		return antecedent;
+	}
+
+	public NodeSet getSuccessors() {
+		return successors;
+	}
+
+	public void addSuccessor(RuleNode rule) {
+		successors.addNode(rule);
+	}
+
+	public void removeSuccessor(RuleNode rule) {
+		successors.removeNode(rule);
+	}
+
+	/***
+	 * Stores a new instance of the antecedent in the given context.
+	 *
+	 * @param contextName context the instance was asserted in
+	 * @param report      the instance
+	 * @return <code>false</code> if an instance with the same sign and
+	 *         substitutions was already stored, <code>true</code> otherwise.
+	 */
+	public boolean addInstance(String contextName, Report report) {
+		ArrayList<Report> contextInstances = instances.get(contextName);
+		if (contextInstances == null) {
+			contextInstances = new ArrayList<Report>();
+			instances.put(contextName, contextInstances);
+		}
+		for (Report instance : contextInstances)
+			if (instance.getSign() == report.getSign()
+					&& instance.getSubstitutions().isEqual(report.getSubstitutions()))
+				return false;
+		contextInstances.add(report);
+		return true;
+	}
+
+	public ArrayList<Report> getInstances(String contextName) {
+		ArrayList<Report> contextInstances = instances.get(contextName);
+		return contextInstances == null ? new ArrayList<Report>() : contextInstances;
+	}
+
+	public boolean removeInstance(String contextName, Report report) {
+		ArrayList<Report> contextInstances = instances.get(contextName);
+		return contextInstances != null && contextInstances.remove(report);
+	}
+
+	public void clear(String contextName) {
+		instances.remove(contextName);
+	}
+
+	public void clear() {
+		instances.clear();
+	}
+
+}
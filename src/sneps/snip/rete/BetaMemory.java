@@ -0,0 +1,248 @@
+package sneps.snip.rete;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+import sneps.exceptions.NodeNotFoundInNetworkException;
+import sneps.exceptions.NotAPropositionNodeException;
+import sneps.network.Node;
+import sneps.network.RuleNode;
+import sneps.network.classes.setClasses.NodeSet;
+import sneps.network.classes.term.Closed;
+import sneps.snip.Report;
+import sneps.snip.rules.AndEntailment;
+import sneps.snip.rules.AndOrNode;
+import sneps.snip.rules.NumericalEntailment;
+import sneps.snip.rules.OrNode;
+import sneps.snip.rules.ThreshNode;
+
+/**
+ * The beta memory of a compiled rule node. It stores, per context, only the
+ * join state the rule type needs to decide whether it fires:
+ * <ul>
+ * <li>an OrNode fires on any single positive antecedent, so nothing is
+ * stored;</li>
+ * <li>an AndEntailment joins its antecedents left-deep in a fixed order, each
+ * level keeping the partial matches of the antecedents up to it, so a new
+ * instance is joined with the level before its antecedent and extended with
+ * the instances stored in the alpha memories of the antecedents after it;</li>
+ * <li>the counting rules, NumericalEntailment, AndOrNode and ThreshNode, keep a
+ * single match accumulating every antecedent instance when all the antecedents
+ * are closed, and otherwise only the combinations whose counts can still make
+ * the rule fire.</li>
+ * </ul>
+ * Negative instances are only kept by the rules that count them.
+ */
+public class BetaMemory {
+	private RuleNode rule;
+	private NodeSet antecedents;
+	private NodeSet consequents;
+	private int[] order;
+	private boolean closed;
+	private boolean positiveOnly;
+	private int maxPositive;
+	private int maxNegative;
+	private Hashtable<String, ArrayList<PartialMatch>> partialMatches;
+	private Hashtable<String, ArrayList<ArrayList<PartialMatch>>> levels;
+
+	public BetaMemory(RuleNode rule, NodeSet antecedents, NodeSet consequents) {
+		this.rule = rule;
+		this.antecedents = antecedents;
+		this.consequents = consequents;
+		partialMatches = new Hashtable<String, ArrayList<PartialMatch>>();
+		levels = new Hashtable<String, ArrayList<ArrayList<PartialMatch>>>();
+		order = new int[antecedents.size()];
+		closed = true;
+		int i = 0;
+		for (Node antecedent : antecedents) {
+			order[i++] = antecedent.getId();
+			closed &= antecedent.getTerm() instanceof Closed;
+		}
+		int args = order.length;
+		positiveOnly = true;
+		maxPositive = args;
+		maxNegative = 0;
+		if (rule instanceof NumericalEntailment)
+			maxPositive = ((NumericalEntailment) rule).getI();
+		else if (rule instanceof AndOrNode) {
+			positiveOnly = false;
+			maxPositive = ((AndOrNode) rule).getAndOrMax();
+			maxNegative = args - ((AndOrNode) rule).getAndOrMin();
+		} else if (rule instanceof ThreshNode) {
+			positiveOnly = false;
+			maxPositive = ((ThreshNode) rule).getThreshMin();
+			maxNegative = args - ((ThreshNode) rule).getThreshMax();
+		}
+	}
+
+	public RuleNode getRule() {
+		return rule;
+	}
+
+	public NodeSet getAntecedents() {
+		return antecedents;
+	}
+
+	public NodeSet getConsequents() {
+		return consequents;
+	}
+
+	public int getAntecedentsCount() {
+		return antecedents.size();
+	}
+
+	/***
+	 * Joins a singleton partial match, created by a new instance of one of the
+	 * antecedents, with the join state stored for the given context.
+	 *
+	 * @param contextName  context the antecedent instance was asserted in
+	 * @param antecedentId id of the antecedent the instance is of
+	 * @param singleton    the singleton partial match
+	 * @return the new partial matches the rule has to be checked against
+	 * @throws NotAPropositionNodeException
+	 * @throws NodeNotFoundInNetworkException
+	 */
+	public ArrayList<PartialMatch> activate(String contextName, int antecedentId, PartialMatch singleton)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<PartialMatch> added = new ArrayList<PartialMatch>();
+		if (positiveOnly && singleton.getNegativeCount() > 0)
+			return added;
+		if (rule instanceof OrNode) {
+			added.add(singleton);
+			return added;
+		}
+		if (rule instanceof AndEntailment)
+			return activateLevels(contextName, antecedentId, singleton);
+		ArrayList<PartialMatch> contextMatches = matchesOf(contextName);
+		if (closed) {
+			PartialMatch accumulated = contextMatches.isEmpty() ? singleton : contextMatches.get(0).join(singleton);
+			if (accumulated == null)
+				return added;
+			contextMatches.clear();
+			contextMatches.add(accumulated);
+			added.add(accumulated);
+			return added;
+		}
+		if (!canFire(singleton) || !store(contextMatches, singleton))
+			return added;
+		added.add(singleton);
+		int stored = contextMatches.size() - 1;
+		for (int i = 0; i < stored; i++) {
+			PartialMatch joined = contextMatches.get(i).join(singleton);
+			if (joined != null && canFire(joined) && store(contextMatches, joined))
+				added.add(joined);
+		}
+		return added;
+	}
+
+	/***
+	 * Checks whether adding more instances to a partial match of a counting rule
+	 * can still make the rule fire, the rule only firing on exact counts.
+	 */
+	private boolean canFire(PartialMatch match) {
+		int pos = match.getPositiveCount();
+		int neg = match.getNegativeCount();
+		return pos <= maxPositive && neg <= maxNegative && pos + neg < order.length;
+	}
+
+	private ArrayList<PartialMatch> activateLevels(String contextName, int antecedentId, PartialMatch singleton)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		ArrayList<ArrayList<PartialMatch>> contextLevels = levelsOf(contextName);
+		int index = indexOf(antecedentId);
+		ArrayList<PartialMatch> current = new ArrayList<PartialMatch>();
+		if (index == 0)
+			current.add(singleton);
+		else
+			for (PartialMatch prefix : contextLevels.get(index - 1)) {
+				PartialMatch joined = prefix.join(singleton);
+				if (joined != null)
+					current.add(joined);
+			}
+		for (int level = index; !current.isEmpty(); level++) {
+			ArrayList<PartialMatch> stored = new ArrayList<PartialMatch>();
+			for (PartialMatch match : current)
+				if (store(contextLevels.get(level), match))
+					stored.add(match);
+			if (level == order.length - 1)
+				return stored;
+			current = new ArrayList<PartialMatch>();
+			AlphaMemory next = ReteNetwork.getAlphaMemory(order[level + 1]);
+			if (next == null)
+				break;
+			for (Report instance : next.getInstances(contextName)) {
+				if (!instance.getSign())
+					continue;
+				PartialMatch nextSingleton = PartialMatch.singleton(order[level + 1], true,
+						instance.getSubstitutions(), instance.getSupport());
+				for (PartialMatch match : stored) {
+					PartialMatch joined = match.join(nextSingleton);
+					if (joined != null)
+						current.add(joined);
+				}
+			}
+		}
+		return new ArrayList<PartialMatch>();
+	}
+
+	private int indexOf(int antecedentId) {
+		for (int i = 0; i < order.length; i++)
+			if (order[i] == antecedentId)
+				return i;
+		throw new IllegalArgumentException("Node " + antecedentId + " is no antecedent of " + rule);
+	}
+
+	private boolean store(ArrayList<PartialMatch> contextMatches, PartialMatch match) {
+		for (PartialMatch stored : contextMatches)
+			if (stored.isEqual(match))
+				return false;
+		contextMatches.add(match);
+		return true;
+	}
+
+	private ArrayList<PartialMatch> matchesOf(String contextName) {
+		ArrayList<PartialMatch> contextMatches = partialMatches.get(contextName);
+		if (contextMatches == null) {
+			contextMatches = new ArrayList<PartialMatch>();
+			partialMatches.put(contextName, contextMatches);
+		}
+		return contextMatches;
+	}
+
+	private ArrayList<ArrayList<PartialMatch>> levelsOf(String contextName) {
+		ArrayList<ArrayList<PartialMatch>> contextLevels = levels.get(contextName);
+		if (contextLevels == null) {
+			contextLevels = new ArrayList<ArrayList<PartialMatch>>();
+			for (int i = 0; i < order.length; i++)
+				contextLevels.add(new ArrayList<PartialMatch>());
+			levels.put(contextName, contextLevels);
+		}
+		return contextLevels;
+	}
+
+	/***
+	 * @param contextName
+	 * @return every partial match stored for the given context.
+	 */
+	public ArrayList<PartialMatch> getPartialMatches(String contextName) {
+		ArrayList<PartialMatch> result = new ArrayList<PartialMatch>();
+		ArrayList<PartialMatch> contextMatches = partialMatches.get(contextName);
+		if (contextMatches != null)
+			result.addAll(contextMatches);
+		ArrayList<ArrayList<PartialMatch>> contextLevels = levels.get(contextName);
+		if (contextLevels != null)
+			for (ArrayList<PartialMatch> level : contextLevels)
+				result.addAll(level);
+		return result;
+	}
+
+	public void clear(String contextName) {
+		partialMatches.remove(contextName);
+		levels.remove(contextName);
+	}
+
+	public void clear() {
+		partialMatches.clear();
+		levels.clear();
+	}
+
+}
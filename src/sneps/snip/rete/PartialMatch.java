@@ -0,0 +1,118 @@
+package sneps.snip.rete;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import sneps.exceptions.NodeNotFoundInNetworkException;
+import sneps.exceptions.NotAPropositionNodeException;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snip.matching.LinearSubstitutions;
+import sneps.snip.matching.Substitutions;
+
+/**
+ * A pre-joined combination of antecedent instances stored in a rule's
+ * BetaMemory. It records which antecedents reported positively or negatively,
+ * the union of their bindings and the union of their supports.
+ */
+public class PartialMatch {
+	private Substitutions substitutions;
+	private Set<Integer> positiveAntecedents;
+	private Set<Integer> negativeAntecedents;
+	private PropositionSet support;
+
+	public PartialMatch(Substitutions substitutions, PropositionSet support) {
+		this.substitutions = substitutions == null ? new LinearSubstitutions() : substitutions;
+		this.support = support == null ? new PropositionSet() : support;
+		positiveAntecedents = new HashSet<Integer>();
+		negativeAntecedents = new HashSet<Integer>();
+	}
+
+	/***
+	 * Builds the singleton partial match created by a single antecedent instance.
+	 *
+	 * @param antecedentId id of the antecedent that reported
+	 * @param sign         sign of the antecedent instance
+	 * @param substitutions bindings of the antecedent instance
+	 * @param support      support of the antecedent instance
+	 * @return the new PartialMatch
+	 */
+	public static PartialMatch singleton(int antecedentId, boolean sign, Substitutions substitutions,
+			PropositionSet support) {
+		PartialMatch match = new PartialMatch(substitutions, support);
+		if (sign)
+			match.positiveAntecedents.add(antecedentId);
+		else
+			match.negativeAntecedents.add(antecedentId);
+		return match;
+	}
+
+	/***
+	 * Joins this partial match with another one. Two partial matches can be joined
+	 * only if they flag disjoint antecedents and their substitutions are
+	 * compatible.
+	 *
+	 * @param other the partial match to be joined with
+	 * @return the joined PartialMatch or null if the two cannot be joined
+	 * @throws NotAPropositionNodeException
+	 * @throws NodeNotFoundInNetworkException
+	 */
+	public PartialMatch join(PartialMatch other) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		for (int antecedentId : other.getFlaggedAntecedents())
+			if (flags(antecedentId))
+				return null;
+		if (!substitutions.isCompatible(other.substitutions))
+			return null;
+		PartialMatch joined = new PartialMatch(substitutions.union(other.substitutions),
+				support.union(other.support));
+		joined.positiveAntecedents.addAll(positiveAntecedents);
+		joined.positiveAntecedents.addAll(other.positiveAntecedents);
+		joined.negativeAntecedents.addAll(negativeAntecedents);
+		joined.negativeAntecedents.addAll(other.negativeAntecedents);
+		return joined;
+	}
+
+	public boolean flags(int antecedentId) {
+		return positiveAntecedents.contains(antecedentId) || negativeAntecedents.contains(antecedentId);
+	}
+
+	public Set<Integer> getFlaggedAntecedents() {
+		Set<Integer> flagged = new HashSet<Integer>(positiveAntecedents);
+		flagged.addAll(negativeAntecedents);
+		return flagged;
+	}
+
+	/***
+	 * Checks whether two partial matches flag the same antecedents with the same
+	 * signs under equal substitutions.
+	 *
+	 * @param other the partial match to compare with
+	 * @return boolean
+	 */
+	public boolean isEqual(PartialMatch other) {
+		return positiveAntecedents.equals(other.positiveAntecedents)
+				&& negativeAntecedents.equals(other.negativeAntecedents)
+				&& substitutions.isEqual(other.substitutions);
+	}
+
+	public int getPositiveCount() {
+		return positiveAntecedents.size();
+	}
+
+	public int getNegativeCount() {
+		return negativeAntecedents.size();
+	}
+
+	public Substitutions getSubstitutions() {
+		return substitutions;
+	}
+
+	public PropositionSet getSupport() {
+		return support;
+	}
+
+	public String toString() {
+		return "PartialMatch [pos=" + positiveAntecedents + ", neg=" + negativeAntecedents + ", subs="
+				+ substitutions + "]";
+	}
+
+}
@@ -0,0 +1,432 @@
+package sneps.snip.rete;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.List;
+
+import sneps.exceptions.NodeNotFoundInNetworkException;
+import sneps.exceptions.NotAPropositionNodeException;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.RuleNode;
+import sneps.network.VariableNode;
+import sneps.network.cables.DownCable;
+import sneps.network.cables.UpCable;
+import sneps.network.classes.Relation;
+import sneps.network.classes.setClasses.NodeSet;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.network.classes.term.Closed;
+import sneps.network.classes.term.Molecular;
+import sneps.snebr.Context;
+import sneps.snip.InferenceTypes;
+import sneps.snip.Report;
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.LinearSubstitutions;
+import sneps.snip.matching.Match;
+import sneps.snip.matching.Matcher;
+import sneps.snip.matching.Substitutions;
+import sneps.snip.rules.AndEntailment;
+import sneps.snip.rules.AndOrNode;
+import sneps.snip.rules.NumericalEntailment;
+import sneps.snip.rules.OrNode;
+import sneps.snip.rules.ThreshNode;
+
+/**
+ * A forward chaining network compiled out of the rule nodes of the SNePS
+ * network. Every antecedent owns an AlphaMemory and every rule owns a
+ * BetaMemory holding pre-joined partial matches, so an assertion is propagated
+ * by joining it once against the stored partial matches instead of opening
+ * channels and collecting rule use infos through the Runner. The compiled
+ * network is kept in sync with Network.buildMolecularNode and
+ * Network.removeNode while it is enabled, and its memories are pruned by SNeBR
+ * whenever hyps are retracted from a context. Every rule is propagated to
+ * along a single path: assertions reaching rules the network does not compile,
+ * such as DoIf and WhenDo, are handed over to channels, while the channels skip
+ * the compiled rules. Consequent instances already known are not added again,
+ * but are still propagated in every context they are derived in.
+ */
+public class ReteNetwork {
+	private static boolean enabled = false;
+	private static Hashtable<Integer, AlphaMemory> alphaMemories = new Hashtable<Integer, AlphaMemory>();
+	private static Hashtable<Integer, BetaMemory> betaMemories = new Hashtable<Integer, BetaMemory>();
+	private static List<String> antecedentRelations;
+
+	private static class Activation {
+		private PropositionNode node;
+		private Report report;
+
+		private Activation(PropositionNode node, Report report) {
+			this.node = node;
+			this.report = report;
+		}
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/***
+	 * Switches forward inference to the compiled network. Enabling it compiles
+	 * every rule node that already exists in the network.
+	 *
+	 * @param enable
+	 */
+	public static void setEnabled(boolean enable) {
+		enabled = enable;
+		if (enable) {
+			Enumeration<PropositionNode> propositions = Network.getPropositionNodes().elements();
+			while (propositions.hasMoreElements()) {
+				PropositionNode proposition = propositions.nextElement();
+				if (proposition instanceof RuleNode)
+					compileRule((RuleNode) proposition);
+			}
+		} else
+			clear();
+	}
+
+	/***
+	 * Hook called by Network whenever a new molecular node is built.
+	 *
+	 * @param node the newly built node
+	 */
+	public static void nodeBuilt(Node node) {
+		if (enabled && node instanceof RuleNode)
+			compileRule((RuleNode) node);
+	}
+
+	/***
+	 * Hook called by Network whenever a node is removed.
+	 *
+	 * @param node the removed node
+	 */
+	public static void nodeRemoved(Node node) {
+		if (!enabled)
+			return;
+		BetaMemory beta = betaMemories.remove(node.getId());
+		if (beta != null)
+			for (Node antecedent : beta.getAntecedents()) {
+				AlphaMemory alpha = alphaMemories.get(antecedent.getId());
+				if (alpha != null)
+					alpha.removeSuccessor(beta.getRule());
+			}
+		alphaMemories.remove(node.getId());
+	}
+
+	public static void clear() {
+		alphaMemories.clear();
+		betaMemories.clear();
+	}
+
+	/***
+	 * Empties the memories of every context while keeping the compiled rules.
+	 */
+	public static void clearMemories() {
+		for (AlphaMemory alpha : alphaMemories.values())
+			alpha.clear();
+		for (BetaMemory beta : betaMemories.values())
+			beta.clear();
+	}
+
+	/***
+	 * Hook called by SNeBR whenever hyps are retracted from a context, or the
+	 * context is removed. The instances whose support is no longer asserted in
+	 * the context are dropped from the alpha memories, and the beta memories of
+	 * the context are rebuilt out of the remaining instances, so that retracted
+	 * partial matches stop firing and a re-asserted proposition is derived from
+	 * again.
+	 *
+	 * @param contextName name of the changed context
+	 * @param context     the context after the change, <code>null</code> if it was
+	 *                    removed
+	 */
+	public static void contextChanged(String contextName, Context context) {
+		if (!enabled)
+			return;
+		try {
+			for (AlphaMemory alpha : alphaMemories.values()) {
+				if (context == null)
+					alpha.clear(contextName);
+				else
+					for (Report instance : new ArrayList<Report>(alpha.getInstances(contextName)))
+						if (!isSupported(instance, context))
+							alpha.removeInstance(contextName, instance);
+			}
+			for (BetaMemory beta : betaMemories.values()) {
+				beta.clear(contextName);
+				if (context == null)
+					continue;
+				for (Node antecedent : beta.getAntecedents()) {
+					AlphaMemory alpha = alphaMemories.get(antecedent.getId());
+					if (alpha == null)
+						continue;
+					for (Report instance : alpha.getInstances(contextName))
+						beta.activate(contextName, antecedent.getId(), PartialMatch.singleton(antecedent.getId(),
+								instance.getSign(), instance.getSubstitutions(), instance.getSupport()));
+				}
+			}
+		} catch (NotAPropositionNodeException | NodeNotFoundInNetworkException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static boolean isSupported(Report instance, Context context)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		for (int prop : PropositionSet.getPropsSafely(instance.getSupport()))
+			if (!context.isAsserted((PropositionNode) Network.getNodeById(prop)))
+				return false;
+		return true;
+	}
+
+	/***
+	 * Filters the rules a report is to be sent to over channels down to the ones
+	 * the compiled network does not join on.
+	 *
+	 * @param rules
+	 * @return the rules without a beta memory, or all of them while the network
+	 *         is disabled
+	 */
+	public static NodeSet uncompiledRules(NodeSet rules) {
+		if (!enabled)
+			return rules;
+		NodeSet result = new NodeSet();
+		for (Node rule : rules)
+			if (!betaMemories.containsKey(rule.getId()))
+				result.addNode(rule);
+		return result;
+	}
+
+	/***
+	 * Compiles a rule node into the network, creating the alpha memories of its
+	 * antecedents and the beta memory of the rule itself.
+	 *
+	 * @param rule
+	 */
+	public static void compileRule(RuleNode rule) {
+		if (betaMemories.containsKey(rule.getId()))
+			return;
+		NodeSet antecedents = getAntecedents(rule);
+		NodeSet consequents = getConsequents(rule);
+		betaMemories.put(rule.getId(), new BetaMemory(rule, antecedents, consequents));
+		for (Node antecedent : antecedents) {
+			AlphaMemory alpha = alphaMemories.get(antecedent.getId());
+			if (alpha == null) {
+				alpha = new AlphaMemory((PropositionNode) antecedent);
+				alphaMemories.put(antecedent.getId(), alpha);
+			}
+			alpha.addSuccessor(rule);
+		}
+	}
+
+	public static AlphaMemory getAlphaMemory(int nodeId) {
+		return alphaMemories.get(nodeId);
+	}
+
+	public static BetaMemory getBetaMemory(int ruleId) {
+		return betaMemories.get(ruleId);
+	}
+
+	/***
+	 * Propagates the assertion of a proposition node through the compiled network
+	 * until no more conclusions can be derived. The assertion, and every
+	 * conclusion, is also sent over channels to the matching nodes and the
+	 * uncompiled rules whenever the compiled network does not cover it.
+	 *
+	 * @param node        the asserted node
+	 * @param contextName context the node was asserted in
+	 * @param sign        sign of the assertion
+	 */
+	public static void addAssertion(PropositionNode node, String contextName, boolean sign) {
+		ArrayDeque<Activation> worklist = new ArrayDeque<Activation>();
+		try {
+			PropositionSet support = new PropositionSet(node.getId());
+			worklist.add(new Activation(node, new Report(new LinearSubstitutions(), support, sign,
+					InferenceTypes.FORWARD)));
+			while (!worklist.isEmpty()) {
+				Activation activation = worklist.poll();
+				activate(activation.node, activation.report, contextName, worklist);
+				if (!covers(activation.node))
+					activation.node.sendForwardReport(activation.report, contextName);
+				List<Match> matches = Matcher.match(activation.node);
+				if (matches != null)
+					for (Match match : matches)
+						if (match.getNode() instanceof PropositionNode)
+							activate((PropositionNode) match.getNode(), switchReport(activation.report, match),
+									contextName, worklist);
+			}
+		} catch (NotAPropositionNodeException | NodeNotFoundInNetworkException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/***
+	 * Checks whether the compiled network alone propagates the assertion of a
+	 * node, that is whether every rule the node, or a node matching it, is an
+	 * antecedent of was compiled with the node as one of its antecedents. Rules
+	 * the network does not join on, such as DoIf and WhenDo, are left to the
+	 * channels.
+	 *
+	 * @param node the asserted node
+	 * @return <code>true</code> if the assertion needs no channel-based
+	 *         propagation
+	 */
+	public static boolean covers(PropositionNode node) {
+		if (!coversRulesOf(node))
+			return false;
+		List<Match> matches = Matcher.match(node);
+		if (matches != null)
+			for (Match match : matches)
+				if (!coversRulesOf(match.getNode()))
+					return false;
+		return true;
+	}
+
+	private static boolean coversRulesOf(Node node) {
+		AlphaMemory alpha = alphaMemories.get(node.getId());
+		for (String relation : getAntecedentRelations()) {
+			UpCable cable = node.getUpCableSet().getUpCable(relation);
+			if (cable == null)
+				continue;
+			for (Node rule : cable.getNodeSet())
+				if (rule instanceof RuleNode && (alpha == null || !alpha.getSuccessors().contains(rule)))
+					return false;
+		}
+		return true;
+	}
+
+	private static List<String> getAntecedentRelations() {
+		if (antecedentRelations == null)
+			antecedentRelations = Arrays.asList(Relation.andAnt.getName(), Relation.ant.getName(),
+					Relation.arg.getName(), Relation.iff.getName(), Relation.when.getName(),
+					Relation.whenever.getName());
+		return antecedentRelations;
+	}
+
+	private static void activate(PropositionNode node, Report report, String contextName,
+			ArrayDeque<Activation> worklist) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		AlphaMemory alpha = alphaMemories.get(node.getId());
+		if (alpha == null || !alpha.addInstance(contextName, report))
+			return;
+		PartialMatch singleton = PartialMatch.singleton(node.getId(), report.getSign(),
+				report.getSubstitutions(), report.getSupport());
+		for (Node successor : alpha.getSuccessors()) {
+			BetaMemory beta = betaMemories.get(successor.getId());
+			if (beta == null)
+				continue;
+			for (PartialMatch match : beta.activate(contextName, node.getId(), singleton))
+				fire(beta, match, worklist);
+		}
+	}
+
+	/***
+	 * Checks whether a partial match satisfies the rule of the given beta memory
+	 * and, if so, adds the derived consequent instances to the worklist.
+	 */
+	private static void fire(BetaMemory beta, PartialMatch match, ArrayDeque<Activation> worklist)
+			throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		RuleNode rule = beta.getRule();
+		int pos = match.getPositiveCount();
+		int neg = match.getNegativeCount();
+		int args = beta.getAntecedentsCount();
+		if (rule instanceof AndEntailment) {
+			if (pos == args)
+				derive(beta.getConsequents(), match, true, rule, worklist);
+		} else if (rule instanceof OrNode) {
+			if (pos == 1 && neg == 0)
+				derive(beta.getConsequents(), match, true, rule, worklist);
+		} else if (rule instanceof NumericalEntailment) {
+			if (pos == ((NumericalEntailment) rule).getI() && neg == 0)
+				derive(beta.getConsequents(), match, true, rule, worklist);
+		} else if (rule instanceof AndOrNode) {
+			AndOrNode andOr = (AndOrNode) rule;
+			if (pos + neg == args)
+				return;
+			if (pos == andOr.getAndOrMax())
+				derive(unflagged(beta.getConsequents(), match), match, false, rule, worklist);
+			else if (neg == args - andOr.getAndOrMin())
+				derive(unflagged(beta.getConsequents(), match), match, true, rule, worklist);
+		} else if (rule instanceof ThreshNode) {
+			ThreshNode thresh = (ThreshNode) rule;
+			if (pos + neg == args)
+				return;
+			if (pos == thresh.getThreshMin() && neg == args - thresh.getThreshMax() - 1)
+				derive(unflagged(beta.getConsequents(), match), match, true, rule, worklist);
+			else if (pos == thresh.getThreshMin() - 1 && neg == args - thresh.getThreshMax())
+				derive(unflagged(beta.getConsequents(), match), match, false, rule, worklist);
+		}
+	}
+
+	private static void derive(NodeSet consequents, PartialMatch match, boolean sign, RuleNode rule,
+			ArrayDeque<Activation> worklist) throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+		PropositionSet support = match.getSupport().union(new PropositionSet(rule.getId()));
+		for (Node consequent : consequents) {
+			PropositionNode consequentNode = (PropositionNode) consequent;
+			Report report = new Report(match.getSubstitutions(), support, sign, InferenceTypes.FORWARD);
+			if (consequentNode.getKnownInstances().addReport(report) && consequentNode.getTerm() instanceof Closed)
+				try {
+					consequentNode.addJustificationBasedSupport(support);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			worklist.add(new Activation(consequentNode, report));
+		}
+	}
+
+	private static NodeSet unflagged(NodeSet args, PartialMatch match) {
+		NodeSet result = new NodeSet();
+		for (Node arg : args)
+			if (!match.flags(arg.getId()))
+				result.addNode(arg);
+		return result;
+	}
+
+	/***
+	 * Renames the bindings of a report according to the switch substitutions of a
+	 * match, and adds the match filter substitutions, without altering the
+	 * original report.
+	 */
+	private static Report switchReport(Report report, Match match) {
+		Substitutions switched = new LinearSubstitutions();
+		Substitutions switchSubs = match.getSwitchSubs();
+		Substitutions reportSubs = report.getSubstitutions();
+		for (int i = 0; i < reportSubs.cardinality(); i++) {
+			Binding binding = reportSubs.getBinding(i);
+			VariableNode variable = binding.getVariable();
+			Binding renaming = switchSubs == null ? null : switchSubs.getBindingByVariable(variable);
+			if (renaming != null && renaming.getNode() instanceof VariableNode)
+				variable = (VariableNode) renaming.getNode();
+			switched.putIn(new Binding(variable, binding.getNode()));
+		}
+		Substitutions filterSubs = match.getFilterSubs();
+		if (filterSubs != null)
+			for (int i = 0; i < filterSubs.cardinality(); i++)
+				if (!switched.isBound(filterSubs.getBinding(i).getVariable()))
+					switched.putIn(filterSubs.getBinding(i));
+		return new Report(switched, report.getSupport(), report.getSign(), report.getInferenceType());
+	}
+
+	private static NodeSet getAntecedents(RuleNode rule) {
+		if (rule instanceof AndEntailment || rule instanceof NumericalEntailment)
+			return getDownNodeSet(rule, Relation.andAnt.getName());
+		if (rule instanceof OrNode)
+			return getDownNodeSet(rule, Relation.ant.getName());
+		if (rule instanceof AndOrNode || rule instanceof ThreshNode)
+			return getDownNodeSet(rule, Relation.arg.getName());
+		return new NodeSet();
+	}
+
+	private static NodeSet getConsequents(RuleNode rule) {
+		if (rule instanceof AndOrNode || rule instanceof ThreshNode)
+			return getDownNodeSet(rule, Relation.arg.getName());
+		return getDownNodeSet(rule, Relation.cq.getName());
+	}
+
+	private static NodeSet getDownNodeSet(RuleNode rule, String relation) {
+		DownCable cable = ((Molecular) rule.getTerm()).getDownCableSet().getDownCable(relation);
+		return cable == null ? new NodeSet() : cable.getNodeSet();
+	}
+
+}
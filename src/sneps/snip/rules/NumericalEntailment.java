@@ -23,6 +23,8 @@ public class NumericalEntailment extends RuleNode {
 
 	public NumericalEntailment(Term syn) {
 		super(syn);
+		NodeSet iNode = this.getDownNodeSet("i");
+		i = Integer.parseInt(iNode.getNode(0).getIdentifier());
 	}
 
 //	@Override
@@ -0,0 +1,168 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.KnowledgeBaseGenerator;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.VariableNode;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
+import sneps.snip.AnswerCache;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceResult;
+import sneps.snip.InferenceTypes;
+import sneps.snip.Report;
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.LinearSubstitutions;
+import sneps.snip.matching.Substitutions;
+
+public class AnswerCacheTest {
+
+	@Before
+	public void setUp() {
+		Network.defineDefaults();
+		AnswerCache.clear();
+		AnswerCache.setEnabled(true);
+		AnswerCache.setCapacity(AnswerCache.DEFAULT_CAPACITY);
+	}
+
+	@After
+	public void tearDown() {
+		AnswerCache.setCapacity(AnswerCache.DEFAULT_CAPACITY);
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void cachesAndTrimsToTheBudget() {
+		String key = AnswerCache.keyOf(1, null, "default");
+		assertNull(AnswerCache.get(key, new InferenceBudget()));
+		AnswerCache.put(key, answers(3), "H");
+
+		InferenceResult all = AnswerCache.get(key, new InferenceBudget());
+		assertEquals(3, all.getAnswers().size());
+		assertTrue(all.isComplete());
+		assertEquals("H", all.getSequence());
+		InferenceBudget first = new InferenceBudget();
+		first.setStopAfterFirstAnswer(true);
+		assertEquals(1, AnswerCache.get(key, first).getAnswers().size());
+	}
+
+	@Test
+	public void contextChangeLeavesOtherContexts() {
+		String key = AnswerCache.keyOf(1, null, "default");
+		String other = AnswerCache.keyOf(1, null, "other");
+		AnswerCache.put(key, answers(1), "H");
+		AnswerCache.put(other, answers(1), "H");
+
+		AnswerCache.contextChanged("default");
+		assertNotEquals(key, AnswerCache.keyOf(1, null, "default"));
+		assertNull(AnswerCache.get(AnswerCache.keyOf(1, null, "default"), new InferenceBudget()));
+		assertNotNull(AnswerCache.get(AnswerCache.keyOf(1, null, "other"), new InferenceBudget()));
+	}
+
+	@Test
+	public void keyIgnoresBindingOrder() throws Exception {
+		VariableNode x = Network.buildVariableNode("x");
+		VariableNode y = Network.buildVariableNode("y");
+		Node a = Network.buildBaseNode("a", Semantic.individual);
+		Node b = Network.buildBaseNode("b", Semantic.individual);
+		Substitutions xy = new LinearSubstitutions();
+		xy.putIn(new Binding(x, a));
+		xy.putIn(new Binding(y, b));
+		Substitutions yx = new LinearSubstitutions();
+		yx.putIn(new Binding(y, b));
+		yx.putIn(new Binding(x, a));
+		assertEquals(AnswerCache.keyOf(1, xy, "default"), AnswerCache.keyOf(1, yx, "default"));
+
+		Substitutions xb = new LinearSubstitutions();
+		xb.putIn(new Binding(x, b));
+		assertNotEquals(AnswerCache.keyOf(1, xy, "default"), AnswerCache.keyOf(1, xb, "default"));
+	}
+
+	@Test
+	public void nodesChangeLeavesOtherNodes() {
+		String changed = AnswerCache.keyOf(1, null, "default");
+		String unchanged = AnswerCache.keyOf(2, null, "default");
+		String otherContext = AnswerCache.keyOf(1, null, "other");
+		AnswerCache.put(changed, answers(1), "H");
+		AnswerCache.put(unchanged, answers(1), "H");
+		AnswerCache.put(otherContext, answers(1), "H");
+
+		AnswerCache.nodesChanged("default", Arrays.asList(1, 3));
+		assertNull(AnswerCache.get(AnswerCache.keyOf(1, null, "default"), new InferenceBudget()));
+		assertNotNull(AnswerCache.get(AnswerCache.keyOf(2, null, "default"), new InferenceBudget()));
+		assertNotNull(AnswerCache.get(AnswerCache.keyOf(1, null, "other"), new InferenceBudget()));
+	}
+
+	@Test
+	public void invalidateAll() {
+		String key = AnswerCache.keyOf(1, null, "default");
+		AnswerCache.put(key, answers(1), "H");
+		AnswerCache.invalidateAll();
+		assertEquals(0, AnswerCache.size());
+		assertNotEquals(key, AnswerCache.keyOf(1, null, "default"));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		AnswerCache.setCapacity(2);
+		String first = AnswerCache.keyOf(1, null, "default");
+		String second = AnswerCache.keyOf(2, null, "default");
+		AnswerCache.put(first, answers(1), "H");
+		AnswerCache.put(second, answers(1), "H");
+		AnswerCache.get(first, new InferenceBudget());
+		AnswerCache.put(AnswerCache.keyOf(3, null, "default"), answers(1), "H");
+		assertEquals(2, AnswerCache.size());
+		assertNotNull(AnswerCache.get(first, new InferenceBudget()));
+		assertNull(AnswerCache.get(second, new InferenceBudget()));
+	}
+
+	@Test
+	public void disabled() {
+		AnswerCache.setEnabled(false);
+		assertNull(AnswerCache.keyOf(1, null, "default"));
+		AnswerCache.put(null, answers(1), "H");
+		assertEquals(0, AnswerCache.size());
+		AnswerCache.setEnabled(true);
+	}
+
+	@Test
+	public void cachesDeducesThatDerive() throws Throwable {
+		KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(7);
+		generator.setChains(1);
+		generator.setVariableSharing(0);
+		generator.setContradictionDensity(0);
+		generator.setRuleTypes(KnowledgeBaseGenerator.RuleType.AND_ENTAILMENT);
+		generator.generate();
+		PropositionNode query = generator.getQueries().get(0);
+
+		InferenceResult deduced = query.deduce(new InferenceBudget());
+		assertTrue(deduced.isComplete());
+		assertFalse(deduced.getAnswers().isEmpty());
+		assertEquals("the answers are cached under the key of the ended run", 1, AnswerCache.size());
+		InferenceResult cached = AnswerCache.get(
+				AnswerCache.keyOf(query.getId(), null, Controller.getCurrentContextName()), new InferenceBudget());
+		assertNotNull(cached);
+		assertEquals(deduced.getAnswers().size(), cached.getAnswers().size());
+	}
+
+	private ArrayList<Report> answers(int count) {
+		ArrayList<Report> answers = new ArrayList<Report>();
+		for (int i = 0; i < count; i++)
+			answers.add(new Report(new LinearSubstitutions(), new PropositionSet(), i % 2 == 0,
+					InferenceTypes.BACKWARD));
+		return answers;
+	}
+
+}
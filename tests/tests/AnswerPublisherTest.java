@@ -0,0 +1,120 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
+import sneps.snip.AnswerPublisher;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceTypes;
+import sneps.snip.Report;
+import sneps.snip.Runner;
+import sneps.snip.matching.LinearSubstitutions;
+
+public class AnswerPublisherTest {
+	PropositionNode query;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		query = (PropositionNode) Network.buildBaseNode("q", Semantic.proposition);
+		query.getKnownInstances()
+				.addReport(new Report(new LinearSubstitutions(), new PropositionSet(), true, InferenceTypes.BACKWARD));
+	}
+
+	@After
+	public void tearDown() {
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void streamsWhileHoldingTheRunner() throws Exception {
+		CountDownLatch done = new CountDownLatch(1);
+		AtomicInteger received = new AtomicInteger();
+		AtomicBoolean locked = new AtomicBoolean(true);
+		AnswerPublisher publisher = query.deduceStream(new InferenceBudget());
+		publisher.subscribe(new Flow.Subscriber<Report>() {
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			public void onNext(Report answer) {
+				received.incrementAndGet();
+				if (!Thread.holdsLock(Runner.LOCK))
+					locked.set(false);
+			}
+
+			public void onError(Throwable failure) {
+				done.countDown();
+			}
+
+			public void onComplete() {
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(1, received.get());
+		assertTrue("answers are offered while the Runner is held", locked.get());
+		assertTrue(publisher.getResult().isComplete());
+	}
+
+	@Test
+	public void deducesWaitForTheRunner() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(1);
+		Thread other = new Thread(() -> {
+			started.countDown();
+			query.deduce(new InferenceBudget());
+			finished.countDown();
+		});
+		synchronized (Runner.LOCK) {
+			other.start();
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			assertFalse("a deduce does not run while the Runner is held",
+					finished.await(200, TimeUnit.MILLISECONDS));
+		}
+		assertTrue(finished.await(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void stalledSubscriberReleasesTheRunner() throws Exception {
+		AnswerPublisher publisher = query.deduceStream(new InferenceBudget());
+		publisher.setDemandTimeout(100, TimeUnit.MILLISECONDS);
+		publisher.subscribe(new Flow.Subscriber<Report>() {
+			public void onSubscribe(Flow.Subscription subscription) {
+			}
+
+			public void onNext(Report answer) {
+			}
+
+			public void onError(Throwable failure) {
+			}
+
+			public void onComplete() {
+			}
+		});
+		CountDownLatch finished = new CountDownLatch(1);
+		Thread other = new Thread(() -> {
+			query.deduce(new InferenceBudget());
+			finished.countDown();
+		});
+		other.start();
+		assertTrue("a subscriber requesting nothing does not hold the Runner forever",
+				finished.await(10, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,70 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Hashtable;
+
+import org.junit.Before;
+import org.junit.Test;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.BaseSupportGraph;
+import sneps.snebr.Controller;
+
+public class BaseSupportGraphTest {
+
+    private BaseSupportGraph graph;
+
+    @Before
+    public void setUp() {
+        Hashtable<Integer, Collection<PropositionSet>> justifications = new Hashtable<>();
+        // 1 and 2 justify each other
+        justifications.put(1, supports(new int[]{2}));
+        justifications.put(2, supports(new int[]{1}));
+        // 3 is justified by the cycle but supports nothing, 4 is isolated
+        justifications.put(3, supports(new int[]{1, 2}));
+        justifications.put(4, supports());
+        // 5 -> 6 -> 7 -> 5, with {5} also justifying 7
+        justifications.put(5, supports(new int[]{7}));
+        justifications.put(6, supports(new int[]{5}));
+        justifications.put(7, supports(new int[]{6}, new int[]{5}));
+        graph = new BaseSupportGraph(justifications);
+    }
+
+    @Test
+    public void trim() {
+        assertEquals(13, graph.getGraphSize());
+        Controller.GTrim(graph);
+        // 3, 4 and the support {1, 2} are removed
+        assertEquals(10, graph.getGraphSize());
+        assertTrue(graph.isRemoved(2));
+        assertTrue(graph.isRemoved(3));
+
+        Controller.RGTrim(graph);
+        assertEquals(10, graph.getGraphSize());
+        assertTrue(graph.goesTo(0, 8));
+    }
+
+    @Test
+    public void chordlessCycles() {
+        Controller.RGTrim(Controller.GTrim(graph));
+        ArrayList<ArrayList<Integer>> cycles = Controller.findChordlessCycles(graph);
+        for (ArrayList<Integer> cycle : cycles)
+            Collections.sort(cycle);
+
+        assertEquals(2, cycles.size());
+        assertTrue(cycles.contains(new ArrayList<>(Arrays.asList(1, 2))));
+        assertTrue(cycles.contains(new ArrayList<>(Arrays.asList(5, 7))));
+    }
+
+    private Collection<PropositionSet> supports(int[]... supports) {
+        ArrayList<PropositionSet> result = new ArrayList<>();
+        for (int[] support : supports)
+            result.add(PropositionSet.fromSortedProps(support));
+        return result;
+    }
+
+}
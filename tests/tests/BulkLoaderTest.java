@@ -0,0 +1,95 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.BulkLoader;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.classes.Relation;
+import sneps.network.classes.RelationsRestrictedCaseFrame;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.Wire;
+import sneps.snebr.Controller;
+
+public class BulkLoaderTest {
+	Node a;
+	Node b;
+	Node c;
+
+	@Before
+	public void setUp() throws Throwable {
+		Network.defineDefaults();
+		a = Network.buildBaseNode("a", Semantic.proposition);
+		b = Network.buildBaseNode("b", Semantic.proposition);
+		c = Network.buildBaseNode("c", Semantic.proposition);
+	}
+
+	@After
+	public void tearDown() {
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void commit() throws Throwable {
+		BulkLoader loader = new BulkLoader();
+		Node rule = loader.add(rule(a, b), RelationsRestrictedCaseFrame.andRule);
+		assertSame(rule, loader.add(rule(a, b), RelationsRestrictedCaseFrame.andRule));
+		assertEquals(1, loader.getDuplicates());
+		assertNull("up cables are deferred to commit", a.getUpCableSet().getUpCable("&ant"));
+
+		assertEquals(1, loader.commit());
+		assertTrue(a.getUpCableSet().getUpCable("&ant").getNodeSet().contains(rule));
+		assertTrue(b.getUpCableSet().getUpCable("cq").getNodeSet().contains(rule));
+		assertSame(rule, Network.getNode(rule.getIdentifier()));
+	}
+
+	@Test
+	public void defersOnlyItsOwnNodes() throws Throwable {
+		BulkLoader loader = new BulkLoader();
+		loader.add(rule(a, b), RelationsRestrictedCaseFrame.andRule);
+		Node other = Network.buildMolecularNode(rule(c, b), RelationsRestrictedCaseFrame.andRule);
+		assertTrue("nodes built through the Network keep their up cables",
+				c.getUpCableSet().getUpCable("&ant").getNodeSet().contains(other));
+		loader.abort();
+	}
+
+	@Test
+	public void abortKeepsIdsDense() throws Throwable {
+		int count = Node.getCount();
+		BulkLoader loader = new BulkLoader();
+		Node dropped = loader.add(rule(a, b), RelationsRestrictedCaseFrame.andRule);
+		loader.abort();
+		assertEquals(count, Node.getCount());
+
+		Node built = Network.buildMolecularNode(rule(a, b), RelationsRestrictedCaseFrame.andRule);
+		assertEquals(dropped.getId(), built.getId());
+		assertEquals(dropped.getIdentifier(), built.getIdentifier());
+		assertSame(built, Network.getNodeById(built.getId()));
+	}
+
+	@Test
+	public void closesOnce() throws Throwable {
+		BulkLoader loader = new BulkLoader();
+		loader.commit();
+		try {
+			loader.abort();
+			fail("Aborted a committed batch");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	private ArrayList<Wire> rule(Node antecedent, Node consequent) {
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.andAnt, antecedent));
+		wires.add(new Wire(Relation.cq, consequent));
+		return wires;
+	}
+
+}
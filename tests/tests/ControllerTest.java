@@ -20,6 +20,7 @@ import sneps.network.classes.setClasses.PropositionSet;
 import sneps.network.classes.term.Molecular;
 import sneps.snebr.Context;
 import sneps.snebr.Controller;
+import sneps.snebr.NoGoodStore;
 import sneps.snebr.Support;
 
 import java.util.*;
@@ -276,6 +277,93 @@ public class ControllerTest {
         assertArrayEquals(props, new int[]{3, 4, 5, 6});
     }
 
+    @Test
+    public void addHypsToContexts() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, ContextNameDoesntExistException, ContradictionFoundException, DuplicatePropositionException, DuplicateContextNameException, EquivalentNodeException, IllegalIdentifierException, CannotBuildNodeException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
+        Controller.createContext(testContext2);
+        Hashtable<String, Context> contexts = Controller.addPropsToContexts(Arrays.asList(testContextName, testContext2), new PropositionSet(new int[]{3, 4}));
+        assertEquals(contexts.get(testContextName), Controller.getContextByName(testContextName));
+        assertSame(Controller.getContextByName(testContextName), Controller.getContextByName(testContext2));
+        assertArrayEquals(new int[]{3, 4}, PropositionSet.getPropsSafely(contexts.get(testContext2).getHypothesisSet()));
+
+        setupContradiction3();
+        int negatingId = negatingProp.getId();
+        boolean caught = false;
+        try {
+            Controller.addPropsToContexts(Arrays.asList(testContextName, testContext2), new PropositionSet(new int[]{60, negatingId}));
+        } catch (ContradictionFoundException e) {
+            caught = true;
+            assertTrue(e.getContradictoryHyps().contains(genNodeSetFromArrayOfIds(new int[]{60, negatingId})));
+            assertTrue(Controller.getMinimalNoGoods().contains(genBitSetFromArray(new int[]{60, negatingId})));
+        }
+        assertTrue(caught);
+        assertArrayEquals(new int[]{3, 4}, PropositionSet.getPropsSafely(Controller.getContextByName(testContextName).getHypothesisSet()));
+    }
+
+    @Test
+    public void addHypsToContextsChecksTheHypsThemselves() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, ContextNameDoesntExistException, ContradictionFoundException, DuplicatePropositionException, DuplicateContextNameException, NodeNotFoundInPropSetException {
+        Controller.createContext(testContext2);
+        Controller.addPropsToContext(testContext2, new PropositionSet(new int[]{1, 4}));
+        Controller.getMinimalNoGoods().add(genBitSetFromArray(new int[]{1, 4, 6}));
+        assertTrue(((PropositionNode) Network.getNodeById(6)).getAssumptions().isEmpty());
+        boolean caught = false;
+        try {
+            Controller.addPropsToContexts(Arrays.asList(testContextName, testContext2), new PropositionSet(new int[]{6}));
+        } catch (ContradictionFoundException e) {
+            caught = true;
+            assertTrue(e.getContradictoryHyps().contains(genNodeSetFromArrayOfIds(new int[]{1, 4, 6})));
+        }
+        assertTrue(caught);
+        assertEquals("no context is changed", 0, PropositionSet.getPropsSafely(Controller.getContextByName(testContextName).getHypothesisSet()).length);
+    }
+
+    @Test
+    public void derivedBeliefsFollowAssertionAndRetraction() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, ContextNameDoesntExistException, ContradictionFoundException, DuplicatePropositionException, NodeNotFoundInPropSetException, CannotInsertJustificationSupportException {
+        PropositionNode derived = (PropositionNode) Network.getNodeById(3);
+        assertEquals(0, PropositionSet.getPropsSafely(Controller.getContextByName(testContextName).allAsserted()).length);
+
+        Controller.addPropsToContext(testContextName, new PropositionSet(new int[]{1, 2}));
+        derived.addJustificationBasedSupport(new PropositionSet(new int[]{1, 2}));
+        Context c = Controller.getContextByName(testContextName);
+        assertTrue(c.isAsserted(derived));
+        assertArrayEquals(new int[]{1, 2, 3}, PropositionSet.getPropsSafely(c.allAsserted()));
+
+        c = Controller.removeHypsFromContext(new PropositionSet(new int[]{2}), testContextName);
+        assertFalse(c.isAsserted(derived));
+        assertArrayEquals(new int[]{1}, PropositionSet.getPropsSafely(c.allAsserted()));
+    }
+
+    @Test
+    public void derivedBeliefsFollowRemovalFromAllContexts() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, ContextNameDoesntExistException, ContradictionFoundException, DuplicatePropositionException, NodeNotFoundInPropSetException, CannotInsertJustificationSupportException {
+        PropositionNode derived = (PropositionNode) Network.getNodeById(3);
+        Controller.addPropsToContext(testContextName, new PropositionSet(new int[]{1, 2}));
+        derived.addJustificationBasedSupport(new PropositionSet(new int[]{1, 2}));
+        assertTrue(Controller.getContextByName(testContextName).isAsserted(derived));
+
+        Controller.removePropositionFromAllContexts((PropositionNode) Network.getNodeById(2));
+        Context c = Controller.getContextByName(testContextName);
+        assertFalse(c.isAsserted(derived));
+        assertArrayEquals(new int[]{1}, PropositionSet.getPropsSafely(c.allAsserted()));
+
+        c = Controller.addPropsToContext(testContextName, new PropositionSet(new int[]{2}));
+        assertTrue(c.isAsserted(derived));
+        assertArrayEquals(new int[]{1, 2, 3}, PropositionSet.getPropsSafely(c.allAsserted()));
+    }
+
+    @Test
+    public void directParentsFromSupportIndex() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, NodeNotFoundInPropSetException, DuplicatePropositionException, CannotInsertJustificationSupportException {
+        PropositionNode hyp = (PropositionNode) Network.getNodeById(1);
+        hyp.setHyp(true);
+        ((PropositionNode) Network.getNodeById(2)).setHyp(true);
+        ((PropositionNode) Network.getNodeById(4)).addJustificationBasedSupport(new PropositionSet(new int[]{1}));
+        ((PropositionNode) Network.getNodeById(3)).addJustificationBasedSupport(new PropositionSet(new int[]{1, 2}));
+
+        assertEquals(Arrays.asList(3, 4), Controller.getDirectParents(hyp));
+        assertArrayEquals(new int[]{2, 3}, Controller.noOfOccurancesInSupports(hyp));
+
+        ((PropositionNode) Network.getNodeById(3)).removeNodeFromSupports(hyp);
+        assertEquals(Arrays.asList(4), Controller.getDirectParents(hyp));
+    }
+
     @Test
     public void addConflictingHypsToContext() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, EquivalentNodeException, IllegalIdentifierException, CannotBuildNodeException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
         setupContradiction3();
@@ -633,7 +721,7 @@ public class ControllerTest {
         BitSet conetextBitSet = new BitSet();
         conetextBitSet.set(300, 310);
         conetextBitSet.set(340, 346);
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
         BitSet bitset1 = new BitSet();
         bitset1.set(345);
         bitset1.set(301, 303);
@@ -681,7 +769,7 @@ public class ControllerTest {
         setupContradiction();
         BitSet temp = genBitSetFromArray(new int[]{40, 43, 46, 48, 49, 81, 85, 89});
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
 
         ArrayList<NodeSet> expectedNodeSetsArrayList = Controller.getConflictingHypsCollectionForNegating(negating,
                 ((Molecular) negating.getTerm()).getDownCableSet().getDownCable("arg"),
@@ -705,7 +793,7 @@ public class ControllerTest {
 
         BitSet temp = genBitSetFromArray(new int[]{40, 43, 46, 48, 49, 81, 85, 89});
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
 
         ArrayList<NodeSet> expectedNodeSetsArrayList = Controller.getConflictingHypsCollectionForNegated(negated,
                 negated.getTerm().getUpCableSet().getUpCable("arg"),
@@ -728,7 +816,7 @@ public class ControllerTest {
 
         ArrayList<NodeSet> contradictoryHyps = Controller.checkForContradiction(negating, c, false);
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
 
         assertEquals(3, minimalNoGoods.size());
         assertTrue(minimalNoGoods.contains(genBitSetFromArray(new int[]{1, 4, 6})));
@@ -850,7 +938,7 @@ public class ControllerTest {
 
         negating.addJustificationBasedSupport(new PropositionSet(new int[]{46, 48, 49}));
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
 
         minimalNoGoods.add(genBitSetFromArray(new int[]{1, 4, 6}));
         minimalNoGoods.add(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89, 90}));
@@ -861,7 +949,7 @@ public class ControllerTest {
 
     public void setupContradiction2() {
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
 
         minimalNoGoods.add(genBitSetFromArray(new int[]{1, 4, 6}));
 
@@ -881,7 +969,7 @@ public class ControllerTest {
 
         negatingProp = (PropositionNode) Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andOrRule);
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
 
         minimalNoGoods.add(genBitSetFromArray(new int[]{1, 4, 6}));
 
@@ -891,7 +979,7 @@ public class ControllerTest {
 
     public PropositionSet setupContradiction4() throws NodeNotFoundInNetworkException, NotAPropositionNodeException, IllegalIdentifierException, CannotBuildNodeException, EquivalentNodeException, DuplicatePropositionException, NodeNotFoundInPropSetException, CannotInsertJustificationSupportException, CaseFrameMissMatchException, SemanticNotFoundInNetworkException {
 
-        ArrayList<BitSet> minimalNoGoods = Controller.getMinimalNoGoods();
+        NoGoodStore minimalNoGoods = Controller.getMinimalNoGoods();
         minimalNoGoods.add(genBitSetFromArray(new int[]{1, 4, 6}));
         minimalNoGoods.add(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89, 90}));
         PropositionSet output = new PropositionSet();
@@ -0,0 +1,116 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+import sneps.snebr.HittingSetSolver;
+
+public class HittingSetSolverTest {
+
+    @Test
+    public void entrenchedHypsAreKept() {
+        HittingSetSolver solver = new HittingSetSolver(HittingSetSolver.Mode.EXACT, hyp -> hyp == 1 ? 5 : 1);
+        solver.addSet(genBitSetFromArray(new int[]{1, 2}));
+        solver.addSet(genBitSetFromArray(new int[]{1, 3}));
+
+        assertEquals(genBitSetFromArray(new int[]{2, 3}), solver.getHittingSet());
+        assertEquals(2, solver.getCost(), 0);
+    }
+
+    @Test
+    public void setsAddedAfterSolving() {
+        HittingSetSolver solver = new HittingSetSolver(HittingSetSolver.Mode.GREEDY);
+        solver.addSet(genBitSetFromArray(new int[]{4, 6}));
+        BitSet first = solver.getHittingSet();
+        assertEquals(1, first.cardinality());
+
+        solver.addSet(genBitSetFromArray(new int[]{4, 6, 9}));
+        assertEquals(first, solver.getHittingSet());
+
+        solver.addSet(genBitSetFromArray(new int[]{7}));
+        BitSet second = solver.getHittingSet();
+        assertTrue(second.get(7));
+        assertEquals(2, second.cardinality());
+    }
+
+    @Test
+    public void exactMatchesExhaustiveSearch() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            ArrayList<BitSet> sets = new ArrayList<>();
+            HittingSetSolver exact = new HittingSetSolver(HittingSetSolver.Mode.EXACT, hyp -> 1 + hyp % 3);
+            HittingSetSolver greedy = new HittingSetSolver(HittingSetSolver.Mode.GREEDY, hyp -> 1 + hyp % 3);
+            for (int i = 0; i < 8; i++) {
+                BitSet set = new BitSet();
+                for (int j = 0; j < 3; j++)
+                    set.set(random.nextInt(10));
+                sets.add(set);
+                exact.addSet(set);
+                greedy.addSet(set);
+            }
+
+            double optimum = Double.MAX_VALUE;
+            for (int mask = 0; mask < 1 << 10; mask++) {
+                BitSet candidate = BitSet.valueOf(new long[]{mask});
+                if (hitsAll(candidate, sets)) {
+                    double cost = 0;
+                    for (int hyp = candidate.nextSetBit(0); hyp >= 0; hyp = candidate.nextSetBit(hyp + 1))
+                        cost += 1 + hyp % 3;
+                    optimum = Math.min(optimum, cost);
+                }
+            }
+
+            assertTrue(hitsAll(exact.getHittingSet(), sets));
+            assertEquals(optimum, exact.getCost(), 1e-9);
+            assertTrue(hitsAll(greedy.getHittingSet(), sets));
+            assertTrue(greedy.getCost() >= optimum - 1e-9);
+        }
+    }
+
+    @Test
+    public void branchLimit() {
+        ArrayList<BitSet> sets = new ArrayList<>();
+        HittingSetSolver bounded = new HittingSetSolver(HittingSetSolver.Mode.EXACT);
+        HittingSetSolver greedy = new HittingSetSolver(HittingSetSolver.Mode.GREEDY);
+        bounded.setBranchLimit(1);
+        for (int i = 1; i <= 5; i++) {
+            for (int j = i + 1; j <= 5; j++) {
+                BitSet set = genBitSetFromArray(new int[]{i, j});
+                sets.add(set);
+                bounded.addSet(set);
+                greedy.addSet(set);
+            }
+        }
+
+        assertTrue(hitsAll(bounded.getHittingSet(), sets));
+        assertEquals(greedy.getCost(), bounded.getCost(), 1e-9);
+        assertFalse("the search stops after its first branch", bounded.isOptimal());
+        assertFalse(greedy.isOptimal());
+    }
+
+    @Test
+    public void optimal() {
+        HittingSetSolver solver = new HittingSetSolver(HittingSetSolver.Mode.EXACT);
+        solver.addSet(genBitSetFromArray(new int[]{1, 2}));
+        assertTrue(solver.isOptimal());
+    }
+
+    private boolean hitsAll(BitSet candidate, ArrayList<BitSet> sets) {
+        for (BitSet set : sets)
+            if (!set.intersects(candidate))
+                return false;
+        return true;
+    }
+
+    public BitSet genBitSetFromArray(int[] arr) {
+        BitSet temp = new BitSet();
+        for (int i = 0; i < arr.length; i++)
+            temp.set(arr[i]);
+        return temp;
+    }
+
+}
@@ -0,0 +1,53 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+import sneps.snebr.HypsBitmap;
+
+public class HypsBitmapTest {
+
+    @Test
+    public void withAndWithout() {
+        HypsBitmap bitmap = HypsBitmap.EMPTY.with(3).with(5000).with(7);
+        HypsBitmap derived = bitmap.with(9);
+
+        assertTrue(derived.contains(9));
+        assertFalse(bitmap.contains(9));
+        assertEquals(3, bitmap.cardinality());
+        assertEquals(4, derived.cardinality());
+        assertArrayEquals(new int[]{3, 7, 5000}, bitmap.toArray());
+
+        HypsBitmap removed = derived.without(5000).without(42);
+        assertFalse(removed.contains(5000));
+        assertTrue(derived.contains(5000));
+        assertArrayEquals(new int[]{3, 7, 9}, removed.toArray());
+    }
+
+    @Test
+    public void denseChunks() {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < 4096; i += 3)
+            bits.set(i);
+        HypsBitmap bitmap = HypsBitmap.of(bits);
+
+        assertEquals(bits.cardinality(), bitmap.cardinality());
+        assertEquals(bits, bitmap.toBitSet());
+        assertFalse(bitmap.without(3).contains(3));
+        assertEquals(bits.cardinality() - 1, bitmap.without(3).cardinality());
+    }
+
+    @Test
+    public void or() {
+        HypsBitmap first = HypsBitmap.EMPTY.with(1).with(4097);
+        HypsBitmap second = HypsBitmap.EMPTY.with(2).with(4097).with(9000);
+        HypsBitmap union = first.or(second);
+
+        assertEquals(4, union.cardinality());
+        assertArrayEquals(new int[]{1, 2, 4097, 9000}, union.toArray());
+        assertSame(first, first.or(HypsBitmap.EMPTY));
+    }
+
+}
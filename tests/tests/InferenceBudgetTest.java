@@ -0,0 +1,95 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import sneps.network.Network;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceResult;
+import sneps.snip.InferenceTypes;
+import sneps.snip.Report;
+import sneps.snip.Runner;
+import sneps.snip.matching.LinearSubstitutions;
+
+public class InferenceBudgetTest {
+
+    @Before
+    public void setUp() {
+        Network.defineDefaults();
+    }
+
+    @After
+    public void tearDown() {
+        Network.clearNetwork();
+        Controller.clearSNeBR();
+    }
+
+    @Test
+    public void unboundedByDefault() {
+        InferenceBudget budget = new InferenceBudget();
+        assertEquals(InferenceBudget.UNBOUNDED, budget.getMaxActivations());
+        assertEquals(InferenceBudget.UNBOUNDED, budget.getMaxReports());
+        assertEquals(InferenceBudget.UNBOUNDED, budget.getMaxTime());
+        assertEquals(InferenceBudget.UNBOUNDED, budget.getMaxAnswers());
+        assertFalse(budget.isStopAfterFirstAnswer());
+    }
+
+    @Test
+    public void stopAfterFirstAnswerLimitsAnswers() {
+        InferenceBudget budget = new InferenceBudget(-1, -1, -1, 5, false);
+        assertEquals(5, budget.getMaxAnswers());
+        budget.setStopAfterFirstAnswer(true);
+        assertEquals(1, budget.getMaxAnswers());
+    }
+
+    @Test
+    public void result() {
+        ArrayList<Report> answers = new ArrayList<>();
+        answers.add(answer());
+        InferenceResult result = new InferenceResult(answers, false, "HL");
+        assertSame(answers, result.getAnswers());
+        assertFalse(result.isComplete());
+        assertEquals("HL", result.getSequence());
+    }
+
+    @Test
+    public void activationsAndReports() {
+        Runner.initiate(new InferenceBudget(2, 1, -1, -1, false), null);
+        assertFalse(Runner.isBudgetExhausted());
+        Runner.reportSent();
+        assertTrue(Runner.isBudgetExhausted());
+
+        Runner.initiate(new InferenceBudget(0, -1, -1, -1, false), null);
+        assertTrue(Runner.isBudgetExhausted());
+    }
+
+    @Test
+    public void answersOfTheRunOnly() throws Exception {
+        PropositionNode query = (PropositionNode) Network.buildBaseNode("q", Semantic.proposition);
+        query.getKnownInstances().addReport(answer());
+        assertEquals(1, query.getKnownInstances().size());
+
+        Runner.initiate(new InferenceBudget(-1, -1, -1, 1, false), query);
+        assertFalse("answers of earlier runs do not count", Runner.isBudgetExhausted());
+        Runner.answerAdded(answer());
+        assertEquals(1, Runner.getAnswers());
+        assertTrue(Runner.isBudgetExhausted());
+
+        Runner.initiate(new InferenceBudget(-1, -1, -1, 1, false), query);
+        assertEquals(0, Runner.getAnswers());
+        assertFalse(Runner.isBudgetExhausted());
+    }
+
+    private Report answer() {
+        return new Report(new LinearSubstitutions(), new PropositionSet(), true, InferenceTypes.BACKWARD);
+    }
+
+}
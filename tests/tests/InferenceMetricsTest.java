@@ -0,0 +1,123 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Semantic;
+import sneps.snebr.Controller;
+import sneps.snip.InferenceMetrics;
+import sneps.snip.channels.AntecedentToRuleChannel;
+import sneps.snip.channels.MatchChannel;
+import sneps.snip.channels.RuleToConsequentChannel;
+import sneps.snip.matching.LinearSubstitutions;
+
+public class InferenceMetricsTest {
+	PropositionNode requester;
+	PropositionNode reporter;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		requester = (PropositionNode) Network.buildBaseNode("requester", Semantic.proposition);
+		reporter = (PropositionNode) Network.buildBaseNode("reporter", Semantic.proposition);
+		InferenceMetrics.getInstance().reset();
+	}
+
+	@After
+	public void tearDown() {
+		InferenceMetrics.getInstance().reset();
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void countsChannelsByType() {
+		InferenceMetrics.channelCreated(new MatchChannel(new LinearSubstitutions(), new LinearSubstitutions(),
+				"default", requester, reporter, true));
+		InferenceMetrics.channelCreated(new AntecedentToRuleChannel(new LinearSubstitutions(),
+				new LinearSubstitutions(), "default", requester, reporter, true));
+		InferenceMetrics.channelCreated(new AntecedentToRuleChannel(new LinearSubstitutions(),
+				new LinearSubstitutions(), "default", reporter, requester, true));
+		InferenceMetrics.channelCreated(new RuleToConsequentChannel(new LinearSubstitutions(),
+				new LinearSubstitutions(), "default", requester, reporter, true));
+
+		InferenceMetrics metrics = InferenceMetrics.getInstance();
+		assertEquals(1, metrics.getMatchChannelsCreated());
+		assertEquals(2, metrics.getAntecedentToRuleChannelsCreated());
+		assertEquals(1, metrics.getRuleToConsequentChannelsCreated());
+	}
+
+	@Test
+	public void countersAndReset() {
+		InferenceMetrics.highQueueActivated();
+		InferenceMetrics.lowQueueActivated();
+		InferenceMetrics.lowQueueActivated();
+		InferenceMetrics.actQueueActivated();
+		InferenceMetrics.reportSent();
+		InferenceMetrics.reportFiltered();
+		InferenceMetrics.reportDuplicated();
+		InferenceMetrics.knownInstanceAdded();
+		InferenceMetrics.answerCacheHit();
+		InferenceMetrics.answerCacheMissed();
+		InferenceMetrics.answerCacheEvicted();
+		InferenceMetrics.answerCacheInvalidated();
+		InferenceMetrics.deduceCompleted(100, 3);
+		InferenceMetrics.deduceCompleted(300, 5);
+
+		InferenceMetrics metrics = InferenceMetrics.getInstance();
+		assertEquals(1, metrics.getHighQueueActivations());
+		assertEquals(2, metrics.getLowQueueActivations());
+		assertEquals(1, metrics.getActQueueActivations());
+		assertEquals(1, metrics.getReportsSent());
+		assertEquals(1, metrics.getReportsFiltered());
+		assertEquals(1, metrics.getReportsDuplicated());
+		assertEquals(1, metrics.getKnownInstancesAdded());
+		assertEquals(1, metrics.getAnswerCacheHits());
+		assertEquals(1, metrics.getAnswerCacheMisses());
+		assertEquals(1, metrics.getAnswerCacheEvictions());
+		assertEquals(1, metrics.getAnswerCacheInvalidations());
+		assertEquals(2, metrics.getDeduceCount());
+		assertEquals(200, metrics.getDeduceLatencyMeanNanos(), 1e-9);
+		assertEquals(300, metrics.getDeduceLatencyMaxNanos());
+		assertEquals(4, metrics.getKnownInstancesSizeMean(), 1e-9);
+		assertEquals(5, metrics.getKnownInstancesSizeMax());
+
+		Hashtable<String, Number> snapshot = InferenceMetrics.getSnapshot();
+		assertEquals(2L, snapshot.get("LowQueueActivations"));
+		assertEquals(2L, snapshot.get("DeduceCount"));
+
+		metrics.reset();
+		for (String name : InferenceMetrics.getSnapshot().keySet())
+			if (!name.equals("AnswerCacheSize"))
+				assertEquals(name, 0, InferenceMetrics.getSnapshot().get(name).doubleValue(), 0);
+	}
+
+	@Test
+	public void registeredWithThePlatformMBeanServer() throws Exception {
+		assertTrue(InferenceMetrics.registerMBean());
+		assertTrue("registering twice keeps the registered instance", InferenceMetrics.registerMBean());
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(InferenceMetrics.OBJECT_NAME);
+		assertTrue(server.isRegistered(name));
+
+		InferenceMetrics.reportSent();
+		InferenceMetrics.reportSent();
+		assertEquals(2L, server.getAttribute(name, "ReportsSent"));
+
+		server.invoke(name, "reset", null, null);
+		assertEquals(0L, server.getAttribute(name, "ReportsSent"));
+	}
+
+}
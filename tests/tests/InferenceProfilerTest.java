@@ -0,0 +1,186 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Relation;
+import sneps.network.classes.RelationsRestrictedCaseFrame;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.Wire;
+import sneps.snebr.Controller;
+import sneps.snip.InferenceProfiler;
+import sneps.snip.InferenceProfiler.NodeProfile;
+
+public class InferenceProfilerTest {
+	PropositionNode a;
+	PropositionNode b;
+	PropositionNode c;
+	Node quickRule;
+	Node slowRule;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		a = (PropositionNode) Network.buildBaseNode("a", Semantic.proposition);
+		b = (PropositionNode) Network.buildBaseNode("b", Semantic.proposition);
+		c = (PropositionNode) Network.buildBaseNode("c", Semantic.proposition);
+		quickRule = rule(a, b);
+		slowRule = rule(b, c);
+		InferenceProfiler.reset();
+		InferenceProfiler.setEnabled(true);
+	}
+
+	@After
+	public void tearDown() {
+		InferenceProfiler.setEnabled(false);
+		InferenceProfiler.reset();
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void attributesToTheActivatedNode() {
+		InferenceProfiler.requestReceived(b, a);
+		InferenceProfiler.reportReceived(b, c);
+		InferenceProfiler.reportReceived(b, c);
+		InferenceProfiler.reportSent(a);
+		InferenceProfiler.channelOpened(a);
+		InferenceProfiler.enter(b);
+		InferenceProfiler.ruiCreated();
+		InferenceProfiler.ruiCreated();
+		InferenceProfiler.ruisCombined();
+		InferenceProfiler.exit();
+		InferenceProfiler.ruiCreated();
+
+		NodeProfile profileOfB = profileOf(b);
+		assertEquals(1, profileOfB.getActivations());
+		assertEquals(1, profileOfB.getRequestsReceived());
+		assertEquals(2, profileOfB.getReportsReceived());
+		assertEquals("a rui created outside of an activation is charged to no node", 2,
+				profileOfB.getRuisCreated());
+		assertEquals(1, profileOfB.getRuisCombined());
+		assertTrue(profileOfB.getNanos() >= 0);
+
+		NodeProfile profileOfA = profileOf(a);
+		assertEquals(0, profileOfA.getActivations());
+		assertEquals(1, profileOfA.getReportsSent());
+		assertEquals(1, profileOfA.getChannelsOpened());
+		assertNull(profileOf(c));
+	}
+
+	@Test
+	public void disabledRecordsNothing() {
+		InferenceProfiler.setEnabled(false);
+		InferenceProfiler.enter(a);
+		InferenceProfiler.ruiCreated();
+		InferenceProfiler.exit();
+		InferenceProfiler.reportSent(a);
+
+		assertTrue(InferenceProfiler.getProfiles().isEmpty());
+	}
+
+	@Test
+	public void hotRulesMostTimeConsumingFirst() throws Exception {
+		activate(quickRule, 1);
+		activate(slowRule, 30);
+		activate(a, 60);
+
+		ArrayList<NodeProfile> hotRules = InferenceProfiler.getHotRules();
+		assertEquals("only rule nodes are hot rules", 2, hotRules.size());
+		assertSame(slowRule, hotRules.get(0).getNode());
+		assertSame(quickRule, hotRules.get(1).getNode());
+		assertSame(a, InferenceProfiler.getProfiles().get(0).getNode());
+
+		String[] rows = InferenceProfiler.getHotRulesReport(1).split("\\R");
+		assertEquals("a header and a single row", 2, rows.length);
+		assertTrue(rows[1].startsWith(frameOf(slowRule)));
+	}
+
+	@Test
+	public void collapsedStacksFollowTheCauses() throws Exception {
+		InferenceProfiler.requestReceived(slowRule, a);
+		InferenceProfiler.reportReceived(b, slowRule);
+		activate(b, 0);
+		activate(b, 0);
+		activate(a, 0);
+		InferenceProfiler.reportReceived(a, b);
+		activate(c, 0);
+
+		File file = File.createTempFile("stacks", ".txt");
+		file.deleteOnExit();
+		InferenceProfiler.writeCollapsedStacks(file.getPath());
+		List<String> lines = Files.readAllLines(file.toPath());
+
+		assertEquals(3, lines.size());
+		String chain = "Node:a;" + frameOf(slowRule) + ";Node:b";
+		assertTrue(lines.toString(), hasStack(lines, chain));
+		assertTrue(lines.toString(), hasStack(lines, "Node:a"));
+		assertTrue(lines.toString(), hasStack(lines, "Node:c"));
+
+		long nanosOfB = profileOf(b).getNanos();
+		for (String line : lines)
+			if (line.startsWith(chain + " "))
+				assertEquals("both activations of b add up on the same stack", nanosOfB,
+						Long.parseLong(line.substring(chain.length() + 1)));
+	}
+
+	@Test
+	public void cyclicCausesStopTheStack() throws Exception {
+		InferenceProfiler.reportReceived(a, b);
+		InferenceProfiler.reportReceived(b, a);
+		activate(b, 0);
+
+		File file = File.createTempFile("stacks", ".txt");
+		file.deleteOnExit();
+		InferenceProfiler.writeCollapsedStacks(file.getPath());
+		List<String> lines = Files.readAllLines(file.toPath());
+
+		assertEquals(1, lines.size());
+		assertTrue(lines.toString(), hasStack(lines, "Node:a;Node:b"));
+	}
+
+	private boolean hasStack(List<String> lines, String stack) {
+		for (String line : lines)
+			if (line.matches(Pattern.quote(stack) + " \\d+"))
+				return true;
+		return false;
+	}
+
+	private void activate(Node node, long millis) throws InterruptedException {
+		InferenceProfiler.enter(node);
+		if (millis > 0)
+			Thread.sleep(millis);
+		InferenceProfiler.exit();
+	}
+
+	private NodeProfile profileOf(Node node) {
+		for (NodeProfile profile : InferenceProfiler.getProfiles())
+			if (profile.getNode() == node)
+				return profile;
+		return null;
+	}
+
+	private String frameOf(Node rule) {
+		return rule.getClass().getSimpleName() + ":" + rule.getIdentifier();
+	}
+
+	private Node rule(Node antecedent, Node consequent) throws Exception {
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.andAnt, antecedent));
+		wires.add(new Wire(Relation.cq, consequent));
+		return Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andRule);
+	}
+
+}
@@ -0,0 +1,104 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import sneps.network.KnowledgeBaseGenerator;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.snebr.Controller;
+import sneps.snip.InferenceBudget;
+import sneps.snip.InferenceResult;
+
+public class KnowledgeBaseGeneratorTest {
+
+    @Before
+    public void setUp() {
+        Network.defineDefaults();
+    }
+
+    @After
+    public void tearDown() {
+        Network.clearNetwork();
+        Controller.clearSNeBR();
+    }
+
+    @Test
+    public void sizes() throws Throwable {
+        KnowledgeBaseGenerator generator = generator(7);
+        generator.generate();
+
+        assertEquals(12, generator.getRules().size());
+        assertEquals(3, generator.getQueries().size());
+        assertEquals(3 * (1 + 4 * 2), generator.getFacts().size());
+        assertEquals(generator.getFacts().size(), generator.getNegations().size());
+        for (PropositionNode fact : generator.getFacts())
+            assertTrue(Controller.getCurrentContext().isAsserted(fact));
+        for (Node rule : generator.getRules())
+            assertTrue(Controller.getCurrentContext().isAsserted((PropositionNode) rule));
+    }
+
+    @Test
+    public void queriesAreDerived() throws Throwable {
+        KnowledgeBaseGenerator generator = generator(7);
+        generator.setChains(1);
+        generator.setVariableSharing(0);
+        generator.setContradictionDensity(0);
+        generator.setRuleTypes(KnowledgeBaseGenerator.RuleType.AND_ENTAILMENT);
+        generator.generate();
+
+        PropositionNode query = generator.getQueries().get(0);
+        assertFalse(Controller.getCurrentContext().isAsserted(query));
+        InferenceResult result = query.deduce(new InferenceBudget());
+        assertTrue(result.isComplete());
+        assertFalse("the query is derived through the whole chain", result.getAnswers().isEmpty());
+    }
+
+    @Test
+    public void rulesLeftUnasserted() throws Throwable {
+        KnowledgeBaseGenerator generator = generator(7);
+        generator.setAssertRules(false);
+        generator.generate();
+
+        for (Node rule : generator.getRules())
+            assertFalse(Controller.getCurrentContext().isAsserted((PropositionNode) rule));
+    }
+
+    @Test
+    public void reproducible() throws Throwable {
+        KnowledgeBaseGenerator generator = generator(7);
+        generator.generate();
+        ArrayList<String> first = identifiers(generator);
+
+        tearDown();
+        setUp();
+        generator.generate();
+        assertEquals(first, identifiers(generator));
+    }
+
+    private KnowledgeBaseGenerator generator(long seed) {
+        KnowledgeBaseGenerator generator = new KnowledgeBaseGenerator(seed);
+        generator.setIndividuals(20);
+        generator.setChains(3);
+        generator.setChainDepth(4);
+        generator.setFanOut(3);
+        generator.setVariableSharing(0.5);
+        generator.setContradictionDensity(1);
+        return generator;
+    }
+
+    private ArrayList<String> identifiers(KnowledgeBaseGenerator generator) {
+        ArrayList<String> identifiers = new ArrayList<>();
+        for (PropositionNode fact : generator.getFacts())
+            identifiers.add(fact.getIdentifier());
+        for (PropositionNode query : generator.getQueries())
+            identifiers.add(query.getIdentifier());
+        return identifiers;
+    }
+
+}
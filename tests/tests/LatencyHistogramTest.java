@@ -0,0 +1,39 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import sneps.snip.LatencyHistogram;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void quantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++)
+            histogram.record(i);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(100, histogram.getMax());
+        // 50 falls in the bucket [32, 64), 99 in the bucket [64, 128)
+        assertEquals(63, histogram.getQuantile(0.5));
+        assertEquals(100, histogram.getQuantile(0.99));
+        assertEquals(1, histogram.getQuantile(0.01));
+    }
+
+    @Test
+    public void zeroAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(-5);
+        assertEquals(2, histogram.getBucketCounts()[0]);
+        assertEquals(0, histogram.getQuantile(1));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getQuantile(0.5));
+    }
+
+}
@@ -0,0 +1,118 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import sneps.snebr.NoGoodStore;
+
+public class NoGoodStoreTest {
+
+    private NoGoodStore store;
+
+    @Before
+    public void setUp() {
+        store = new NoGoodStore();
+    }
+
+    @Test
+    public void getSubsetsOf() {
+        store.add(genBitSetFromArray(new int[]{1, 4, 6}));
+        store.add(genBitSetFromArray(new int[]{2, 4}));
+        store.add(genBitSetFromArray(new int[]{4, 6, 9}));
+
+        ArrayList<BitSet> subsets = store.getSubsetsOf(genBitSetFromArray(new int[]{1, 2, 4, 6, 7}));
+
+        assertEquals(2, subsets.size());
+        assertTrue(subsets.contains(genBitSetFromArray(new int[]{1, 4, 6})));
+        assertTrue(subsets.contains(genBitSetFromArray(new int[]{2, 4})));
+        assertTrue(store.containsSubsetOf(genBitSetFromArray(new int[]{4, 6, 9, 10})));
+        assertFalse(store.containsSubsetOf(genBitSetFromArray(new int[]{1, 6, 9})));
+    }
+
+    @Test
+    public void addMinimal() {
+        store.add(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89, 90}));
+        store.add(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89, 95, 99}));
+        store.add(genBitSetFromArray(new int[]{1, 4, 6}));
+
+        assertTrue(store.addMinimal(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89})));
+        assertFalse(store.addMinimal(genBitSetFromArray(new int[]{1, 4, 6, 7})));
+
+        assertEquals(2, store.size());
+        assertTrue(store.contains(genBitSetFromArray(new int[]{1, 4, 6})));
+        assertTrue(store.contains(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89})));
+        assertFalse(store.contains(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89, 90})));
+        assertEquals(1, store.getSubsetsOf(genBitSetFromArray(new int[]{46, 48, 49, 81, 85, 89, 90})).size());
+    }
+
+    @Test
+    public void remove() {
+        BitSet noGood = genBitSetFromArray(new int[]{3, 5});
+        store.add(noGood);
+        store.add(genBitSetFromArray(new int[]{3, 5, 8}));
+
+        assertTrue(store.remove(noGood));
+        assertFalse(store.contains(noGood));
+        assertEquals(1, store.getSupersetsOf(noGood).size());
+        assertFalse(store.remove(noGood));
+    }
+
+    @Test
+    public void addMinimalRemovesEveryOccurrenceOfSupersets() {
+        store.add(genBitSetFromArray(new int[]{3, 5, 8}));
+        store.add(genBitSetFromArray(new int[]{3, 5, 8}));
+        store.add(genBitSetFromArray(new int[]{3, 5, 9}));
+        assertEquals(3, store.size());
+
+        assertTrue(store.addMinimal(genBitSetFromArray(new int[]{3, 5})));
+        assertEquals(1, store.size());
+        assertEquals(1, store.getNoGoods().size());
+        assertTrue(store.getSupersetsOf(genBitSetFromArray(new int[]{3, 5, 8})).isEmpty());
+    }
+
+    @Test
+    public void defensiveCopies() {
+        BitSet noGood = genBitSetFromArray(new int[]{2, 4});
+        store.add(noGood);
+        noGood.set(7);
+        assertTrue(store.contains(genBitSetFromArray(new int[]{2, 4})));
+        assertFalse(store.contains(noGood));
+
+        BitSet returned = store.getSubsetsOf(genBitSetFromArray(new int[]{2, 4, 6})).get(0);
+        returned.clear(2);
+        assertTrue(store.containsSubsetOf(genBitSetFromArray(new int[]{2, 4})));
+        store.getNoGoods().get(0).set(9);
+        store.getSupersetsOf(new BitSet()).get(0).set(9);
+        assertEquals(genBitSetFromArray(new int[]{2, 4}), store.getNoGoods().get(0));
+    }
+
+    @Test
+    public void usableAfterDeserialization() throws Exception {
+        store.add(genBitSetFromArray(new int[]{2, 4}));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(store);
+        out.close();
+        NoGoodStore read = (NoGoodStore) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertTrue(read.containsSubsetOf(genBitSetFromArray(new int[]{2, 4, 6})));
+        assertTrue(read.addMinimal(genBitSetFromArray(new int[]{3})));
+        assertEquals(2, read.size());
+    }
+
+    public BitSet genBitSetFromArray(int[] arr) {
+        BitSet temp = new BitSet();
+        for (int i = 0; i < arr.length; i++)
+            temp.set(arr[i]);
+        return temp;
+    }
+
+}
@@ -0,0 +1,75 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.VariableNode;
+import sneps.snepslog.AP;
+import sneps.snepslog.PreparedQuery;
+import sneps.snip.classes.VariableNodeStats;
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.LinearSubstitutions;
+import sneps.snip.matching.Substitutions;
+
+public class NodeStatsTest {
+	PropositionNode pattern;
+	VariableNode owner;
+	VariableNode pet;
+	Node alice;
+	Node rex;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		AP.executeSnepslogCommand("clearkb");
+		AP.executeSnepslogCommand("set-mode-1");
+		AP.executeSnepslogCommand("owns(Alice, Rex).");
+		PreparedQuery query = PreparedQuery.prepare("askwh", "owns(?owner, ?pet)", "owner", "pet");
+		pattern = query.getPattern();
+		owner = query.getParameters()[0];
+		pet = query.getParameters()[1];
+		alice = Network.getNode("Alice");
+		rex = Network.getNode("Rex");
+	}
+
+	@After
+	public void tearDown() {
+		AP.executeSnepslogCommand("clearkb");
+	}
+
+	@Test
+	public void boundRegardlessOfBindingsOrder() {
+		VariableNodeStats first = pattern.computeNodeStats(subs(new Binding(owner, alice), new Binding(pet, rex)));
+		VariableNodeStats second = pattern.computeNodeStats(subs(new Binding(pet, rex), new Binding(owner, alice)));
+		assertTrue(first.areAllVariablesBound());
+		assertTrue(second.areAllVariablesBound());
+		assertEquals(2, second.getVariableNodeSubs().cardinality());
+
+		assertFalse(pattern.computeNodeStats(subs(new Binding(owner, alice))).areAllVariablesBound());
+	}
+
+	@Test
+	public void keepsOnlyTheFreeVariablesOfTheNode() throws Exception {
+		VariableNode other = Network.buildVariableNode("other");
+		VariableNodeStats stats = pattern
+				.computeNodeStats(subs(new Binding(owner, alice), new Binding(other, rex)));
+		assertFalse(stats.areAllVariablesBound());
+		assertEquals(1, stats.getVariableNodeSubs().cardinality());
+		assertTrue(pattern.isWhQuestion(subs(new Binding(owner, alice))));
+		assertFalse(pattern.isWhQuestion(subs(new Binding(owner, alice), new Binding(pet, rex))));
+	}
+
+	private Substitutions subs(Binding... bindings) {
+		Substitutions subs = new LinearSubstitutions();
+		for (Binding binding : bindings)
+			subs.putIn(binding);
+		return subs;
+	}
+
+}
@@ -0,0 +1,38 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.snepslog.PipelinedLoader;
+
+public class PipelinedLoaderTest {
+	Path file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = Files.createTempFile("pipelined", ".snepslog");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void stopsAtALineThatCannotBeTokenized() throws Exception {
+		Files.write(file, Arrays.asList("\u00e9", "\u00e9"), StandardCharsets.UTF_8);
+		StringWriter out = new StringWriter();
+		assertEquals(0, new PipelinedLoader(1).load(file, out));
+		assertEquals("Error executing the command: \u00e9\n", out.toString());
+	}
+
+}
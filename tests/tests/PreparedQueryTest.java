@@ -0,0 +1,83 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.exceptions.InvalidArgumentsException;
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.VariableNode;
+import sneps.snebr.Controller;
+import sneps.snepslog.AP;
+import sneps.snepslog.PreparedQuery;
+import sneps.snip.InferenceResult;
+import sneps.snip.Report;
+
+public class PreparedQueryTest {
+
+	@Before
+	public void before() {
+		Network.defineDefaults();
+		AP.executeSnepslogCommand("clearkb");
+		AP.executeSnepslogCommand("set-mode-1");
+	}
+
+	@After
+	public void after() {
+		AP.executeSnepslogCommand("clearkb");
+	}
+
+	@Test
+	public void compilesOnce() throws Exception {
+		PreparedQuery query = PreparedQuery.prepare("askwh", "owns(?owner, ?pet)", "?pet");
+		assertNotNull(query.getPattern());
+		assertEquals(1, query.getParameters().length);
+		assertEquals("pet", query.getParameters()[0].getIdentifier());
+		assertEquals("compiling a query does not assert it", 0,
+				Controller.getCurrentContext().allAsserted().size());
+
+		assertSame(query, PreparedQuery.prepare("askwh", "owns(?owner, ?pet)", "?pet"));
+		assertEquals(1, PreparedQuery.getPlansCount());
+
+		AP.executeSnepslogCommand("clearkb");
+		assertEquals(0, PreparedQuery.getPlansCount());
+	}
+
+	@Test
+	public void rejectsInvalidQueries() {
+		assertInvalid("describe-terms", "owns(?owner, ?pet)");
+		assertInvalid("ask", "owns(?owner,");
+		assertInvalid("ask", "owns(?owner, ?pet)", "?cat");
+		assertInvalid("ask", "owns(?owner, ?pet)", "owns");
+	}
+
+	@Test
+	public void executesWithDifferentBindings() throws Exception {
+		AP.executeSnepslogCommand("owns(Alice, Rex).");
+		AP.executeSnepslogCommand("owns(Bob, Tom).");
+		PreparedQuery query = PreparedQuery.prepare("ask", "owns(?owner, ?pet)", "pet");
+		VariableNode pet = query.getParameters()[0];
+
+		InferenceResult rex = query.executeWithIdentifiers("Rex");
+		assertEquals(1, rex.getAnswers().size());
+		assertSame(Network.getNode("Rex"), rex.getAnswers().get(0).getSubstitutions().term(pet));
+
+		InferenceResult tom = query.executeWithIdentifiers("Tom");
+		assertEquals("the answer for Rex does not exhaust the budget for Tom", 1, tom.getAnswers().size());
+		Report answer = tom.getAnswers().get(0);
+		Node bound = answer.getSubstitutions().term(pet);
+		assertSame(Network.getNode("Tom"), bound);
+	}
+
+	private void assertInvalid(String type, String wff, String... parameters) {
+		try {
+			PreparedQuery.prepare(type, wff, parameters);
+			fail("Compiled " + type + " " + wff);
+		} catch (InvalidArgumentsException e) {
+		}
+	}
+
+}
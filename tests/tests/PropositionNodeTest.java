@@ -0,0 +1,61 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Semantic;
+import sneps.snebr.Controller;
+import sneps.snip.channels.AntecedentToRuleChannel;
+import sneps.snip.channels.Channel;
+import sneps.snip.channels.ChannelTypes;
+import sneps.snip.channels.RuleToConsequentChannel;
+import sneps.snip.matching.Substitutions;
+
+public class PropositionNodeTest {
+	PropositionNode requester;
+	PropositionNode reporter;
+	Method establishChannel;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		requester = (PropositionNode) Network.buildBaseNode("requester", Semantic.proposition);
+		reporter = (PropositionNode) Network.buildBaseNode("reporter", Semantic.proposition);
+		establishChannel = PropositionNode.class.getDeclaredMethod("establishChannel", ChannelTypes.class,
+				Object.class, Substitutions.class, Substitutions.class, String.class, int.class);
+		establishChannel.setAccessible(true);
+	}
+
+	@After
+	public void tearDown() {
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void ruleAntChannelsGoFromAntecedentToRule() throws Exception {
+		Channel channel = establish(ChannelTypes.RuleAnt);
+
+		assertEquals("a RuleAnt channel does not fall through to the RuleCons one", AntecedentToRuleChannel.class,
+				channel.getClass());
+		assertSame(requester, channel.getRequester());
+		assertSame(reporter, channel.getReporter());
+	}
+
+	@Test
+	public void ruleConsChannelsGoFromRuleToConsequent() throws Exception {
+		assertEquals(RuleToConsequentChannel.class, establish(ChannelTypes.RuleCons).getClass());
+	}
+
+	private Channel establish(ChannelTypes type) throws Exception {
+		return (Channel) establishChannel.invoke(requester, type, reporter, null, null, "default", -1);
+	}
+
+}
@@ -2,6 +2,8 @@ package tests;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -138,4 +140,45 @@ public class PropositionSetTest {
 
 
     }
+
+    @Test
+    public void setAlgebraKeepsHashes() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException {
+        PropositionSet set = new PropositionSet(new int[] {6,2,4,2});
+        assertEquals("2,4,6,", set.getHash());
+        assertEquals("2,4,6,", PropositionSet.fromSortedProps(new int[] {2,4,6}).getHash());
+
+        PropositionSet added = set.add(5);
+        assertEquals("2,4,5,6,", added.getHash());
+        assertEquals("2,4,6,", set.getHash());
+        assertEquals(new PropositionSet(new int[] {2,4,5,6}).getHash(), added.getHash());
+        assertEquals("4,6,", set.removeProps(new PropositionSet(new int[] {1,2,3})).getHash());
+    }
+
+    @Test(expected = NodeNotFoundInNetworkException.class)
+    public void addRejectsPropsNotInTheNetwork() throws NotAPropositionNodeException, NodeNotFoundInNetworkException, DuplicatePropositionException {
+        new PropositionSet(new int[]{2, 4}).add(100000);
+    }
+
+    @Test
+    public void fromSortedPropsRejectsUnsortedProps() {
+        for (int[] props : new int[][] {{4,2}, {2,2,4}}) {
+            try {
+                PropositionSet.fromSortedProps(props);
+                fail("Accepted " + Arrays.toString(props));
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    @Test
+    public void intern() throws NotAPropositionNodeException, NodeNotFoundInNetworkException {
+        PropositionSet first = new PropositionSet(new int[] {7,3,5});
+        PropositionSet second = new PropositionSet(new int[] {3,5}).union(new PropositionSet(7));
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.getContentHash(), second.getContentHash());
+        assertSame(PropositionSet.intern(first), PropositionSet.intern(second));
+        assertNotEquals(first.getContentHash(), new PropositionSet(new int[] {3,5}).getContentHash());
+    }
 }
@@ -0,0 +1,104 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.VariableNode;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.setClasses.ChannelSet;
+import sneps.snebr.Controller;
+import sneps.snip.channels.AntecedentToRuleChannel;
+import sneps.snip.channels.Channel;
+import sneps.snip.channels.RequestSubsumptionIndex;
+import sneps.snip.matching.Binding;
+import sneps.snip.matching.LinearSubstitutions;
+import sneps.snip.matching.Substitutions;
+
+public class RequestSubsumptionIndexTest {
+	PropositionNode requester;
+	PropositionNode other;
+	PropositionNode reporter;
+	VariableNode x;
+	VariableNode y;
+	Node a;
+	Node b;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		requester = (PropositionNode) Network.buildBaseNode("requester", Semantic.proposition);
+		other = (PropositionNode) Network.buildBaseNode("other", Semantic.proposition);
+		reporter = (PropositionNode) Network.buildBaseNode("reporter", Semantic.proposition);
+		x = Network.buildVariableNode("x");
+		y = Network.buildVariableNode("y");
+		a = Network.buildBaseNode("a", Semantic.individual);
+		b = Network.buildBaseNode("b", Semantic.individual);
+	}
+
+	@After
+	public void tearDown() {
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void generalizedPerRequester() {
+		RequestSubsumptionIndex index = new RequestSubsumptionIndex();
+		Channel channel = channel(requester, subs(new Binding(x, a)));
+		index.insert(requester.getId(), channel);
+
+		assertTrue(index.hasGeneralizedRequest(requester.getId(), subs(new Binding(x, a), new Binding(y, b)), null));
+		assertTrue(index.hasGeneralizedRequest(requester.getId(), subs(new Binding(x, a)), null));
+		assertFalse(index.hasGeneralizedRequest(requester.getId(), subs(new Binding(y, b)), null));
+		assertFalse("a request of another node is never redundant",
+				index.hasGeneralizedRequest(other.getId(), subs(new Binding(x, a)), null));
+		assertFalse(index.hasGeneralizedRequest(requester.getId(), subs(new Binding(x, a)), channel));
+
+		index.remove(requester.getId(), channel);
+		assertFalse(index.hasGeneralizedRequest(requester.getId(), subs(new Binding(x, a)), null));
+	}
+
+	@Test
+	public void setOutgoingChannelsPrunesTheIndex() {
+		Channel dropped = channel(requester, subs(new Binding(x, a)));
+		reporter.addToOutgoingChannels(dropped);
+		assertTrue(reporter.getRequestsIndex().hasGeneralizedRequest(requester.getId(), subs(new Binding(x, a)), null));
+
+		Channel kept = channel(other, subs(new Binding(y, b)));
+		ChannelSet channels = new ChannelSet();
+		channels.addChannel(kept);
+		reporter.setOutgoingChannels(channels);
+		assertFalse(reporter.getRequestsIndex().hasGeneralizedRequest(requester.getId(), subs(new Binding(x, a)), null));
+		assertTrue(reporter.getRequestsIndex().hasGeneralizedRequest(other.getId(), subs(new Binding(y, b)), null));
+	}
+
+	@Test
+	public void setIncomingChannelsPrunesTheProcessedIndex() {
+		Channel dropped = channel(requester, subs(new Binding(x, a)));
+		dropped.setRequestProcessed(true);
+		assertTrue(requester.getProcessedRequestsIndex().hasGeneralizedRequest(RequestSubsumptionIndex.ANY_REQUESTER,
+				subs(new Binding(x, a)), null));
+
+		requester.setIncomingChannels(new ChannelSet());
+		assertFalse(requester.getProcessedRequestsIndex().hasGeneralizedRequest(RequestSubsumptionIndex.ANY_REQUESTER,
+				subs(new Binding(x, a)), null));
+	}
+
+	private Channel channel(PropositionNode from, Substitutions filterSubs) {
+		return new AntecedentToRuleChannel(new LinearSubstitutions(), filterSubs, "default", from, reporter, true);
+	}
+
+	private Substitutions subs(Binding... bindings) {
+		Substitutions subs = new LinearSubstitutions();
+		for (Binding binding : bindings)
+			subs.putIn(binding);
+		return subs;
+	}
+
+}
@@ -0,0 +1,148 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.Node;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Relation;
+import sneps.network.classes.RelationsRestrictedCaseFrame;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.Wire;
+import sneps.network.classes.setClasses.NodeSet;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
+import sneps.snip.rete.ReteNetwork;
+
+public class ReteNetworkTest {
+	PropositionNode a;
+	PropositionNode b;
+	PropositionNode c;
+	Node rule;
+
+	@Before
+	public void setUp() throws Exception {
+		Network.defineDefaults();
+		a = (PropositionNode) Network.buildBaseNode("a", Semantic.proposition);
+		b = (PropositionNode) Network.buildBaseNode("b", Semantic.proposition);
+		c = (PropositionNode) Network.buildBaseNode("c", Semantic.proposition);
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.andAnt, a));
+		wires.add(new Wire(Relation.cq, b));
+		rule = Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andRule);
+		ReteNetwork.setEnabled(true);
+	}
+
+	@After
+	public void tearDown() {
+		ReteNetwork.setEnabled(false);
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void coversCompiledRules() {
+		assertNotNull(ReteNetwork.getBetaMemory(rule.getId()));
+		assertTrue(ReteNetwork.covers(a));
+		assertTrue("a node that is no antecedent needs no channels", ReteNetwork.covers(c));
+	}
+
+	@Test
+	public void leavesUncompiledRulesToChannels() throws Exception {
+		Node act = Network.buildBaseNode("greet", Semantic.act);
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.when, c));
+		wires.add(new Wire(Relation.doo, act));
+		Node whenDo = Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.whenDo);
+		assertFalse("WhenDo rules are not joined by the compiled network", ReteNetwork.covers(c));
+		assertTrue(ReteNetwork.covers(a));
+
+		NodeSet rules = new NodeSet();
+		rules.addNode(rule);
+		rules.addNode(whenDo);
+		NodeSet uncompiled = ReteNetwork.uncompiledRules(rules);
+		assertEquals(1, uncompiled.size());
+		assertTrue(uncompiled.contains(whenDo));
+	}
+
+	@Test
+	public void leavesDoIfRulesToChannels() throws Exception {
+		Node act = Network.buildBaseNode("greet", Semantic.act);
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.iff, a));
+		wires.add(new Wire(Relation.doo, act));
+		Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.doIf);
+		assertFalse("DoIf rules are not joined by the compiled network", ReteNetwork.covers(a));
+	}
+
+	@Test
+	public void derivesOnce() throws Exception {
+		String current = Controller.getCurrentContextName();
+		Controller.createContext("other");
+		ReteNetwork.addAssertion(a, current, true);
+		assertEquals(1, b.getKnownInstances().size());
+		assertEquals(1, b.getJustificationSupport().size());
+
+		ReteNetwork.addAssertion(a, "other", true);
+		assertEquals("a duplicate instance is not reported again", 1, b.getKnownInstances().size());
+		assertEquals(1, b.getJustificationSupport().size());
+	}
+
+	@Test
+	public void retractThenReassert() throws Throwable {
+		String current = Controller.getCurrentContextName();
+		PropositionNode d = (PropositionNode) Network.buildBaseNode("d", Semantic.proposition);
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.andAnt, b));
+		wires.add(new Wire(Relation.cq, d));
+		Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andRule);
+		Controller.addPropsToContext(current, new PropositionSet(new int[] { a.getId(), rule.getId() }));
+		ReteNetwork.addAssertion(a, current, true);
+		assertEquals(1, ReteNetwork.getAlphaMemory(a.getId()).getInstances(current).size());
+		assertEquals(1, ReteNetwork.getAlphaMemory(b.getId()).getInstances(current).size());
+		assertEquals(1, d.getKnownInstances().size());
+
+		Controller.removeHypsFromContext(new PropositionSet(a.getId()), current);
+		assertTrue(ReteNetwork.getAlphaMemory(a.getId()).getInstances(current).isEmpty());
+		assertTrue(ReteNetwork.getBetaMemory(rule.getId()).getPartialMatches(current).isEmpty());
+		assertTrue("instances derived from a retracted hyp are dropped",
+				ReteNetwork.getAlphaMemory(b.getId()).getInstances(current).isEmpty());
+
+		Controller.addPropsToContext(current, new PropositionSet(a.getId()));
+		ReteNetwork.addAssertion(a, current, true);
+		assertEquals(1, ReteNetwork.getAlphaMemory(a.getId()).getInstances(current).size());
+		assertEquals(1, ReteNetwork.getBetaMemory(rule.getId()).getPartialMatches(current).size());
+		assertEquals("a known consequent is propagated again", 1,
+				ReteNetwork.getAlphaMemory(b.getId()).getInstances(current).size());
+		assertEquals(1, b.getKnownInstances().size());
+		assertEquals(1, d.getKnownInstances().size());
+	}
+
+	@Test
+	public void keepsOneMatchPerJoinLevel() throws Exception {
+		String current = Controller.getCurrentContextName();
+		PropositionNode e = (PropositionNode) Network.buildBaseNode("e", Semantic.proposition);
+		PropositionNode f = (PropositionNode) Network.buildBaseNode("f", Semantic.proposition);
+		ArrayList<Wire> wires = new ArrayList<Wire>();
+		wires.add(new Wire(Relation.andAnt, a));
+		wires.add(new Wire(Relation.andAnt, c));
+		wires.add(new Wire(Relation.andAnt, e));
+		wires.add(new Wire(Relation.cq, f));
+		Node andRule = Network.buildMolecularNode(wires, RelationsRestrictedCaseFrame.andRule);
+		ReteNetwork.addAssertion(c, current, true);
+		ReteNetwork.addAssertion(e, current, true);
+		assertEquals(0, f.getKnownInstances().size());
+
+		ReteNetwork.addAssertion(a, current, true);
+		assertEquals(1, f.getKnownInstances().size());
+		assertEquals("only the prefixes of the join order are stored", 3,
+				ReteNetwork.getBetaMemory(andRule.getId()).getPartialMatches(current).size());
+	}
+
+}
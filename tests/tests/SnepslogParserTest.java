@@ -0,0 +1,133 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.snepslog.AP;
+
+public class SnepslogParserTest {
+	Field pool;
+	Object pooled;
+	ArrayList<Path> files = new ArrayList<Path>();
+
+	@Before
+	public void setUp() throws Exception {
+		pool = Class.forName("sneps.snepslog.SnepslogParser").getDeclaredField("pool");
+		pool.setAccessible(true);
+		pooled = pool.get(null);
+		clearKB();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.set(null, pooled);
+		clearKB();
+		for (Path file : files)
+			Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void sameOutputAcrossCommands() throws Exception {
+		assertSameOutput("dog(Fido).", "animal(Fido).", "dog(Fido) and animal(Fido).", "dog(Fido)=>animal(Fido).",
+				"set-mode-2", "define-semantic Entity.", "set-mode-1", "add-to-context default {dog(Fido), animal(Fido)}",
+				"list-asserted-wffs", "list-wffs");
+	}
+
+	@Test
+	public void sameOutputAfterAFailedParse() throws Exception {
+		assertSameOutput("dog(Fido", "dog(Fido).", "dog(Fido)) animal(Fido).", "animal(Fido).", "{dog(Fido),",
+				"list-asserted-wffs");
+	}
+
+	@Test
+	public void sameOutputAfterALexerError() throws Exception {
+		assertSameOutput("dog(Fido).", "dog(\u00e9).", "animal(Fido).", "\u00e9", "list-asserted-wffs");
+	}
+
+	@Test
+	public void warningsDoNotCarryOver() throws Exception {
+		AP.executeSnepslogCommand("dog(Fido).");
+		Object parser = ((ConcurrentLinkedDeque<?>) pooled).peekFirst();
+		assertNotNull("the parser of the command went back to the pool", parser);
+		Field cupParser = parser.getClass().getDeclaredField("parser");
+		cupParser.setAccessible(true);
+		Field warning = Class.forName("sneps.snepslog.parser").getDeclaredField("warning");
+		warning.setAccessible(true);
+		warning.set(cupParser.get(parser), "stale warning");
+
+		String output = AP.executeSnepslogCommand("animal(Fido).");
+		assertFalse(output, output.contains("stale warning"));
+		assertEquals(fresh("dog(Fido).", "animal(Fido).").get(1), output);
+	}
+
+	@Test
+	public void sameOutputForNestedLoads() throws Exception {
+		Path inner = file("animal(Fido).", "dog(Fido)=>animal(Fido).", "dog(Fido", "list-asserted-wffs");
+		Path outer = file("dog(Fido).", "load " + inner, "list-wffs", "load " + inner);
+		assertSameOutput("load " + outer, "list-asserted-wffs", "load " + inner);
+	}
+
+	private void assertSameOutput(String... commands) throws Exception {
+		ArrayList<String> pooledOutput = pooled(commands);
+		assertEquals(fresh(commands), pooledOutput);
+	}
+
+	private ArrayList<String> pooled(String... commands) throws Exception {
+		pool.set(null, pooled);
+		return execute(commands);
+	}
+
+	/**
+	 * Executes the commands with a pool that keeps no parser, so that every
+	 * command, including those executed by load, builds its own.
+	 */
+	private ArrayList<String> fresh(String... commands) throws Exception {
+		pool.set(null, new ConcurrentLinkedDeque<Object>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public boolean offerFirst(Object parser) {
+				return true;
+			}
+		});
+		try {
+			return execute(commands);
+		} finally {
+			pool.set(null, pooled);
+		}
+	}
+
+	private ArrayList<String> execute(String... commands) {
+		clearKB();
+		ArrayList<String> output = new ArrayList<String>();
+		for (String command : commands)
+			output.add(AP.executeSnepslogCommand(command));
+		return output;
+	}
+
+	private void clearKB() {
+		AP.executeSnepslogCommand("clearkb");
+		AP.executeSnepslogCommand("br-mode manual");
+		AP.executeSnepslogCommand("set-mode-1");
+		AP.executeSnepslogCommand("normal");
+	}
+
+	private Path file(String... lines) throws Exception {
+		Path file = Files.createTempFile("pooled", ".snepslog");
+		files.add(file);
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+		return file;
+	}
+
+}
@@ -0,0 +1,61 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sneps.network.Network;
+import sneps.network.PropositionNode;
+import sneps.network.classes.Semantic;
+import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
+import sneps.snebr.SupportIndex;
+
+public class SupportIndexTest {
+	PropositionNode p;
+	PropositionNode q;
+	PropositionNode r;
+
+	@Before
+	public void setUp() throws Exception {
+		Semantic sem = new Semantic("Proposition");
+		p = (PropositionNode) Network.buildBaseNode("p", sem);
+		q = (PropositionNode) Network.buildBaseNode("q", sem);
+		r = (PropositionNode) Network.buildBaseNode("r", sem);
+		p.setHyp(true);
+		q.setHyp(true);
+		r.addJustificationBasedSupport(new PropositionSet(new int[] { p.getId(), q.getId() }));
+	}
+
+	@After
+	public void tearDown() {
+		Network.clearNetwork();
+		Controller.clearSNeBR();
+	}
+
+	@Test
+	public void indexesSupports() throws Exception {
+		assertTrue(Controller.getDirectParents(p).contains(r.getId()));
+		assertTrue(SupportIndex.getJustificationDependents(q.getId()).contains(r.getId()));
+		assertTrue(SupportIndex.getAssumptionDependents(p.getId()).contains(r.getId()));
+	}
+
+	@Test
+	public void removedDependent() throws Exception {
+		Network.removeNode(r);
+		assertTrue(Controller.getDirectParents(p).isEmpty());
+		assertTrue(Controller.getDirectParents(q).isEmpty());
+		assertFalse(SupportIndex.getAssumptionDependents(p.getId()).contains(r.getId()));
+	}
+
+	@Test
+	public void removedSupport() throws Exception {
+		Network.removeNode(q);
+		assertTrue(SupportIndex.getJustificationDependents(q.getId()).isEmpty());
+		assertTrue(SupportIndex.getAssumptionDependents(q.getId()).isEmpty());
+		assertTrue(Controller.getDirectParents(p).contains(r.getId()));
+	}
+
+}
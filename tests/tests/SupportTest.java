@@ -3,6 +3,7 @@ package tests;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 
@@ -23,6 +24,7 @@ import sneps.network.Network;
 import sneps.network.PropositionNode;
 import sneps.network.classes.Semantic;
 import sneps.network.classes.setClasses.PropositionSet;
+import sneps.snebr.Controller;
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class SupportTest {
 	
@@ -830,4 +832,84 @@ public class SupportTest {
 	    }
 
 
+	 /*
+	  * Environments containing a known minimal nogood are never stored.
+	  * The justification {m1, n1} gives the environment {m1, n1}, which is a nogood,
+	  * so only the environment {q1} of the justification {q1} is left.
+	  */
+	 @Test
+	    public void NPruneNoGoodEnvironments() throws Exception{
+		 	PropositionNode q1 = (PropositionNode) net.buildBaseNode("q1", sem);
+		 	PropositionNode m1 = (PropositionNode) net.buildBaseNode("m1", sem);
+		 	PropositionNode n1 = (PropositionNode) net.buildBaseNode("n1", sem);
+		 	PropositionNode r1 = (PropositionNode) net.buildBaseNode("r1", sem);
+		 	q1.setHyp(true);
+		 	m1.setHyp(true);
+		 	n1.setHyp(true);
+		 	BitSet noGood = new BitSet();
+		 	noGood.set(m1.getId());
+		 	noGood.set(n1.getId());
+		 	Controller.getMinimalNoGoods().add(noGood);
+		 	try {
+		 		r1.addJustificationBasedSupport(new PropositionSet(new int[] {m1.getId(), n1.getId()}));
+		 		assertTrue(r1.getAssumptionBasedSupport().isEmpty());
+		 		r1.addJustificationBasedSupport(new PropositionSet(q1.getId()));
+		 		assertEquals(1, r1.getAssumptionBasedSupport().size());
+		 		assertTrue(r1.getAssumptionBasedSupport().containsValue(new PropositionSet(q1.getId())));
+		 	} finally {
+		 		Controller.getMinimalNoGoods().remove(noGood);
+		 	}
+	    }
+
+	 /*
+	  * Only the minimal environments are stored, whatever order the justifications come in.
+	  * {m2} subsumes {m2, n2}, so r2 and s2 both end up with the single environment {m2}.
+	  */
+	 @Test
+	    public void OPruneSubsumedEnvironments() throws Exception{
+		 	PropositionNode m2 = (PropositionNode) net.buildBaseNode("m2", sem);
+		 	PropositionNode n2 = (PropositionNode) net.buildBaseNode("n2", sem);
+		 	PropositionNode r2 = (PropositionNode) net.buildBaseNode("r2", sem);
+		 	PropositionNode s2 = (PropositionNode) net.buildBaseNode("s2", sem);
+		 	m2.setHyp(true);
+		 	n2.setHyp(true);
+		 	PropositionSet m = new PropositionSet(m2.getId());
+		 	PropositionSet mn = new PropositionSet(new int[] {m2.getId(), n2.getId()});
+
+		 	r2.addJustificationBasedSupport(m);
+		 	r2.addJustificationBasedSupport(mn);
+		 	s2.addJustificationBasedSupport(mn);
+		 	assertTrue(s2.getAssumptionBasedSupport().containsValue(mn));
+		 	s2.addJustificationBasedSupport(m);
+
+		 	for (PropositionNode node : new PropositionNode[] {r2, s2}) {
+		 		assertEquals(2, node.getJustificationSupport().size());
+		 		assertEquals(1, node.getAssumptionBasedSupport().size());
+		 		assertTrue(node.getAssumptionBasedSupport().containsValue(m));
+		 	}
+	    }
+
+	 /*
+	  * New environments of a node reach the nodes it supports.
+	  * t3 is justified by {r3} and r3 by {m3}, when r3 is also justified by {n3}
+	  * t3 gains the environment {n3} besides {m3}.
+	  */
+	 @Test
+	    public void PPropagateEnvironments() throws Exception{
+		 	PropositionNode m3 = (PropositionNode) net.buildBaseNode("m3", sem);
+		 	PropositionNode n3 = (PropositionNode) net.buildBaseNode("n3", sem);
+		 	PropositionNode r3 = (PropositionNode) net.buildBaseNode("r3", sem);
+		 	PropositionNode t3 = (PropositionNode) net.buildBaseNode("t3", sem);
+		 	m3.setHyp(true);
+		 	n3.setHyp(true);
+		 	r3.addJustificationBasedSupport(new PropositionSet(m3.getId()));
+		 	t3.addJustificationBasedSupport(new PropositionSet(r3.getId()));
+		 	assertEquals(1, t3.getAssumptionBasedSupport().size());
+
+		 	r3.addJustificationBasedSupport(new PropositionSet(n3.getId()));
+		 	assertEquals(2, t3.getAssumptionBasedSupport().size());
+		 	assertTrue(t3.getAssumptionBasedSupport().containsValue(new PropositionSet(m3.getId())));
+		 	assertTrue(t3.getAssumptionBasedSupport().containsValue(new PropositionSet(n3.getId())));
+	    }
+
 }
\ No newline at end of file